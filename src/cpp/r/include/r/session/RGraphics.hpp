@@ -73,6 +73,9 @@ public:
    virtual int plotCount() const = 0 ;
    virtual core::Error plotImageFilename(int index, 
                                          std::string* pImageFilename) const = 0;
+   // filename of the plot's image if it is up to date for the current
+   // device size (empty if the plot needs to be re-rendered)
+   virtual std::string currentPlotImageFilename(int index) const = 0;
    virtual int activePlotIndex() const = 0;
    virtual core::Error setActivePlot(int index) = 0;
    virtual core::Error removePlot(int index) = 0;
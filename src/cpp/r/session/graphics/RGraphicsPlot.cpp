@@ -195,6 +195,16 @@ std::string Plot::imageFilename() const
    return imageFilePath(storageUuid()).filename();
 }
 
+// is the image file up to date for the current device size (i.e. would
+// renderFromDisplay keep it)
+bool Plot::hasCurrentImage() const
+{
+   return hasStorage() &&
+          !needsUpdate_ &&
+          (renderedSize() == graphicsDevice_.displaySize()) &&
+          imageFilePath(storageUuid_).exists();
+}
+
 Error Plot::renderToDisplay()
 {
    Error error = graphicsDevice_.restoreSnapshot(snapshotFilePath());
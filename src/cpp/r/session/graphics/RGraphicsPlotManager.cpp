@@ -128,6 +128,14 @@ Error PlotManager::plotImageFilename(int index,
    }
 }      
    
+std::string PlotManager::currentPlotImageFilename(int index) const
+{
+   if (isValidPlotIndex(index) && plots_[index]->hasCurrentImage())
+      return plots_[index]->imageFilename();
+   else
+      return std::string();
+}
+   
 int PlotManager::activePlotIndex() const
 {
    return activePlot_;
@@ -25,6 +25,7 @@
 #include <core/Exec.hpp>
 #include <core/FileSerializer.hpp>
 #include <core/StringUtils.hpp>
+#include <core/system/System.hpp>
 
 #define R_INTERNAL_FUNCTIONS
 #include <r/RInternal.hpp>
@@ -143,14 +144,16 @@ SEXP dataViewerHook(SEXP call, SEXP op, SEXP args, SEXP rho)
       // of elements in single column (technically R can pass columns which have
       // a disparate # of rows to this method)
       int rowCount = 0;
+      for (int i=0; i<columnCount; i++)
+         rowCount = std::max(r::sexp::length(VECTOR_ELT(dataSEXP, i)), rowCount);
+
       std::vector<int> columnLengths;
       for (int i=0; i<displayedColumns; i++)
       {
-          // get the column and record its length (updating rowCount)
+          // get the column and record its length
           SEXP columnSEXP = VECTOR_ELT(dataSEXP, i);
           int columnLength = r::sexp::length(columnSEXP);
           columnLengths.push_back(columnLength);
-          rowCount = std::max(columnLength, rowCount);
 
           // validate data type (R converts all inbound vectors to REAL or STR)
           if (TYPEOF(columnSEXP) != REALSXP && TYPEOF(columnSEXP) != STRSXP)
@@ -245,6 +248,20 @@ SEXP dataViewerHook(SEXP call, SEXP op, SEXP args, SEXP rho)
       // append document footer
       html += "</body></html>\n";
 
+      // keep the data so the data viewer can page through all of it (the
+      // html above only has the first rows and columns, it's used for
+      // printing and once the data has been dropped from the cache)
+      std::string cacheKey = core::system::generateUuid(false);
+      r::exec::RFunction cacheFx(".rs.cacheDataForViewer");
+      cacheFx.addParam(cacheKey);
+      cacheFx.addParam(dataSEXP);
+      error = cacheFx.call();
+      if (error)
+      {
+         LOG_ERROR(error);
+         cacheKey.clear();
+      }
+
       // fire show data event
       json::Object dataItem;
       dataItem["title"] = title;
@@ -253,6 +270,7 @@ SEXP dataViewerHook(SEXP call, SEXP op, SEXP args, SEXP rho)
       dataItem["variables"] = columnCount;
       dataItem["displayedVariables"] = displayedColumns;
       dataItem["contentUrl"] = content_urls::provision(title, html, ".htm");
+      dataItem["cacheKey"] = cacheKey;
       ClientEvent event(client_events::kShowData, dataItem);
       module_context::enqueClientEvent(event);
 
@@ -281,7 +299,8 @@ Error initialize()
    initBlock.addFunctions()
       (bind(registerReplaceHook, "dataentry", dataEntryHook, (CCODE*)NULL))
       (bind(registerReplaceHook, "dataviewer", dataViewerHook,(CCODE*)NULL))
-      (bind(sourceModuleRFile, "SessionData.R"));
+      (bind(sourceModuleRFile, "SessionData.R"))
+      (bind(r::exec::executeString, ".rs.dataViewer.initialize()"));
    
    return initBlock.execute();
 }
@@ -31,6 +31,7 @@
 #include <core/FilePath.hpp>
 #include <core/FileInfo.hpp>
 #include <core/Settings.hpp>
+#include <core/StringUtils.hpp>
 #include <core/Exec.hpp>
 #include <core/DateTime.hpp>
 
@@ -184,6 +185,172 @@ Error listFiles(const json::JsonRpcRequest& request, json::JsonRpcResponse* pRes
 }
 
 
+// entry in a paged listing (sort keys are computed once up front so that
+// sorting very large directories doesn't repeatedly hit the filesystem)
+struct PagedListingEntry
+{
+   explicit PagedListingEntry(const FilePath& filePath)
+      : filePath(filePath),
+        fileInfo(filePath),
+        name(string_utils::toLower(filePath.filename())),
+        extension(filePath.extension())
+   {
+   }
+
+   FilePath filePath;
+   FileInfo fileInfo;
+   std::string name;
+   std::string extension;
+};
+
+// sort order for paged listings. this mirrors the column comparators used
+// by the client's FilesList so that incremental changes can be merged into
+// the pages already loaded by the client
+class PagedListingLessThan
+{
+public:
+   PagedListingLessThan(const std::string& sortKey, bool ascending)
+      : sortKey_(sortKey), ascending_(ascending)
+   {
+   }
+
+   bool operator()(const PagedListingEntry& a,
+                   const PagedListingEntry& b) const
+   {
+      // folders are always on the bottom when sorting by size or date
+      if ((sortKey_ == "size" || sortKey_ == "modified") &&
+          (a.fileInfo.isDirectory() != b.fileInfo.isDirectory()))
+      {
+         return !a.fileInfo.isDirectory();
+      }
+
+      int result = compareKey(a, b);
+      if (result == 0 && sortKey_ != "name")
+         result = a.name.compare(b.name);
+
+      return ascending_ ? (result < 0) : (result > 0);
+   }
+
+private:
+   int compareKey(const PagedListingEntry& a,
+                  const PagedListingEntry& b) const
+   {
+      if (sortKey_ == "type")
+      {
+         if (a.fileInfo.isDirectory() != b.fileInfo.isDirectory())
+            return a.fileInfo.isDirectory() ? 1 : -1;
+         else
+            return a.extension.compare(b.extension);
+      }
+      else if (sortKey_ == "size")
+      {
+         return compareValues(a.fileInfo.size(), b.fileInfo.size());
+      }
+      else if (sortKey_ == "modified")
+      {
+         return compareValues(a.fileInfo.lastWriteTime(),
+                              b.fileInfo.lastWriteTime());
+      }
+      else
+      {
+         return a.name.compare(b.name);
+      }
+   }
+
+   template <typename T>
+   static int compareValues(const T& a, const T& b)
+   {
+      if (a < b)
+         return -1;
+      else if (b < a)
+         return 1;
+      else
+         return 0;
+   }
+
+private:
+   std::string sortKey_;
+   bool ascending_;
+};
+
+// IN: String path, Boolean monitor, String sortKey, Boolean ascending,
+//     Integer offset, Integer limit
+// OUT: { files: Array<FileSystemItem>, offset: Integer, total: Integer,
+//        monitored: Boolean }
+Error listFilesPaged(const json::JsonRpcRequest& request,
+                     json::JsonRpcResponse* pResponse)
+{
+   // get args
+   std::string path, sortKey;
+   bool monitor, ascending;
+   int offset, limit;
+   Error error = json::readParams(request.params,
+                                  &path,
+                                  &monitor,
+                                  &sortKey,
+                                  &ascending,
+                                  &offset,
+                                  &limit);
+   if (error)
+      return error;
+   FilePath targetPath = module_context::resolveAliasedPath(path) ;
+
+   // enumerate the files (starting the monitor if requested)
+   std::vector<FilePath> files;
+   if (monitor)
+   {
+      // always stop existing if we have one
+      s_filesListingMonitor.stop();
+
+      // install a monitor only if we aren't already covered by the project monitor
+      if (!session::projects::projectContext().isMonitoringDirectory(targetPath))
+         error = s_filesListingMonitor.start(targetPath, &files);
+      else
+         error = FilesListingMonitor::enumerateFiles(targetPath, &files);
+   }
+   else
+   {
+      error = FilesListingMonitor::enumerateFiles(targetPath, &files);
+   }
+   if (error)
+      return error;
+
+   // collect end-user visible files and sort them
+   std::vector<PagedListingEntry> entries;
+   entries.reserve(files.size());
+   BOOST_FOREACH(const FilePath& filePath, files)
+   {
+      if (filePath.exists() && module_context::fileListingFilter(FileInfo(filePath)))
+         entries.push_back(PagedListingEntry(filePath));
+   }
+   std::stable_sort(entries.begin(),
+                    entries.end(),
+                    PagedListingLessThan(sortKey, ascending));
+
+   // extract the requested page
+   int total = static_cast<int>(entries.size());
+   offset = std::max(0, std::min(offset, total));
+   int end = limit < 0 ? total : std::min(total, offset + limit);
+   std::vector<FilePath> page;
+   for (int i = offset; i < end; i++)
+      page.push_back(entries[i].filePath);
+
+   json::Array jsonFiles;
+   FilesListingMonitor::filesToJson(targetPath, page, &jsonFiles);
+
+   json::Object result;
+   result["files"] = jsonFiles;
+   result["offset"] = offset;
+   result["total"] = total;
+   // (changes within monitored directories are reported to the client)
+   result["monitored"] =
+         isMonitoringDirectory(targetPath) ||
+         session::projects::projectContext().isMonitoringDirectory(targetPath);
+   pResponse->setResult(result);
+   return Success();
+}
+
+
 // IN: String path
 core::Error createFolder(const core::json::JsonRpcRequest& request,
                          json::JsonRpcResponse* pResponse)
@@ -832,6 +999,7 @@ Error initialize()
    initBlock.addFunctions()
       (bind(registerRpcMethod, "stat", stat))
       (bind(registerRpcMethod, "list_files", listFiles))
+      (bind(registerRpcMethod, "list_files_paged", listFilesPaged))
       (bind(registerRpcMethod, "create_folder", createFolder))
       (bind(registerRpcMethod, "delete_files", deleteFiles))
       (bind(registerRpcMethod, "copy_file", copyFile))
@@ -39,21 +39,35 @@ namespace modules {
 namespace files {
 
 Error FilesListingMonitor::start(const FilePath& filePath, json::Array* pJsonFiles)
+{
+   // start monitoring (populates files out parameter)
+   std::vector<FilePath> files;
+   Error error = start(filePath, &files);
+   if (error)
+      return error;
+
+   // produce json listing
+   filesToJson(filePath, files, pJsonFiles);
+
+   return Success();
+}
+
+Error FilesListingMonitor::start(const FilePath& filePath,
+                                 std::vector<FilePath>* pFiles)
 {
    // always stop existing
    stop();
 
-   // scan the directory (populates pJsonFiles out parameter)
-   std::vector<FilePath> files;
-   Error error = listFiles(filePath, &files, pJsonFiles);
+   // scan the directory (populates pFiles out parameter)
+   Error error = enumerateFiles(filePath, pFiles);
    if (error)
       return error;
 
    // copy the file listing into a vector of FileInfo which we will order so that it can
    // be compared with the initial scan of the file montor for changes
    std::vector<FileInfo> prevFiles;
-   std::transform(files.begin(),
-                  files.end(),
+   std::transform(pFiles->begin(),
+                  pFiles->end(),
                   std::back_inserter(prevFiles),
                   core::toFileInfo);
 
@@ -129,6 +143,20 @@ void FilesListingMonitor::onUnregistered(core::system::file_monitor::Handle hand
 Error FilesListingMonitor::listFiles(const FilePath& rootPath,
                                      std::vector<FilePath>* pFiles,
                                      json::Array* pJsonFiles)
+{
+   // enumerate the files
+   Error error = enumerateFiles(rootPath, pFiles);
+   if (error)
+      return error;
+
+   // produce json listing
+   filesToJson(rootPath, *pFiles, pJsonFiles);
+
+   return Success();
+}
+
+Error FilesListingMonitor::enumerateFiles(const FilePath& rootPath,
+                                          std::vector<FilePath>* pFiles)
 {
    // enumerate the files
    pFiles->clear();
@@ -136,17 +164,24 @@ Error FilesListingMonitor::listFiles(const FilePath& rootPath,
    if (error)
       return error;
 
+   // sort the files by name
+   std::sort(pFiles->begin(), pFiles->end(), core::compareAbsolutePathNoCase);
+
+   return Success();
+}
+
+void FilesListingMonitor::filesToJson(const FilePath& rootPath,
+                                      const std::vector<FilePath>& files,
+                                      json::Array* pJsonFiles)
+{
    // get source control status (merely log errors doing this)
    git::StatusResult vcsStatus;
-   error = git::status(rootPath, &vcsStatus);
+   Error error = git::status(rootPath, &vcsStatus);
    if (error)
       LOG_ERROR(error);
 
-   // sort the files by name
-   std::sort(pFiles->begin(), pFiles->end(), core::compareAbsolutePathNoCase);
-
    // produce json listing
-   BOOST_FOREACH( core::FilePath& filePath, *pFiles)
+   BOOST_FOREACH( const core::FilePath& filePath, files)
    {
       // files which may have been deleted after the listing or which
       // are not end-user visible
@@ -162,8 +197,6 @@ Error FilesListingMonitor::listFiles(const FilePath& rootPath,
          pJsonFiles->push_back(fileObject) ;
       }
    }
-
-   return Success();
 }
 
 
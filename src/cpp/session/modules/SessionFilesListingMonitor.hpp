@@ -48,6 +48,11 @@ public:
    // kickoff monitoring
    core::Error start(const core::FilePath& filePath, core::json::Array* pJsonFiles);
 
+   // kickoff monitoring, returning the raw listing rather than json (used
+   // by paged listings which only convert the requested page to json)
+   core::Error start(const core::FilePath& filePath,
+                     std::vector<core::FilePath>* pFiles);
+
    void stop();
 
    // what path are we currently monitoring?
@@ -62,6 +67,15 @@ public:
       return listFiles(rootPath, &files, pJsonFiles);
    }
 
+   // enumerate the children of rootPath (sorted by name)
+   static core::Error enumerateFiles(const core::FilePath& rootPath,
+                                     std::vector<core::FilePath>* pFiles);
+
+   // produce json for the end-user visible subset of files (within rootPath)
+   static void filesToJson(const core::FilePath& rootPath,
+                           const std::vector<core::FilePath>& files,
+                           core::json::Array* pJsonFiles);
+
 private:
    // stateful handlers for registration and unregistration
    void onRegistered(core::system::file_monitor::Handle handle,
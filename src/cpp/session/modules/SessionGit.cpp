@@ -71,6 +71,9 @@ namespace git {
 namespace {
 
 const size_t WARN_SIZE = 200 * 1024;
+// the review dialog parses and renders diffs incrementally, so it can
+// show much larger ones than the other views
+const size_t DIFF_WARN_SIZE = 5 * 1024 * 1024;
 
 // git bin dir which we detect at startup. note that if the git bin
 // is already in the path then this will be empty
@@ -1426,7 +1429,7 @@ Error vcsDiffFile(const json::JsonRpcRequest& request,
    if (error)
       return error;
 
-   if (!noSizeWarning && output.size() > WARN_SIZE)
+   if (!noSizeWarning && output.size() > DIFF_WARN_SIZE)
    {
       error = systemError(boost::system::errc::file_too_large,
                           ERROR_LOCATION);
@@ -523,6 +523,17 @@ void handlePngRequest(const http::Request& request,
                            "attachment; filename=rstudio-plot" +
                            imagePath.extension());
    }
+   // export previews are identified by the client (which changes the id
+   // whenever the plot may have changed) so they can be cached
+   else if (!request.queryParamValue("preview").empty())
+   {
+      pResponse->setPrivateCacheForeverHeaders();
+      pResponse->setFile(imagePath, request);
+      error = imagePath.remove();
+      if (error)
+         LOG_ERROR(error);
+      return;
+   }
 
    // return it
    setTemporaryFileResponse(imagePath, request, pResponse);
@@ -599,6 +610,15 @@ void enquePlotsChanged(const r::session::graphics::DisplayState& displayState,
    jsonPlotsState["height"] = displayState.height;
    jsonPlotsState["plotIndex"] = displayState.activePlotIndex;
    jsonPlotsState["plotCount"] = displayState.plotCount;
+
+   // images of the neighboring plots which are already rendered at this
+   // size, so the client can prefetch them for history navigation
+   r::session::graphics::Display& display = r::session::graphics::display();
+   int plotIndex = displayState.activePlotIndex;
+   jsonPlotsState["previousFilename"] =
+                           display.currentPlotImageFilename(plotIndex - 1);
+   jsonPlotsState["nextFilename"] =
+                           display.currentPlotImageFilename(plotIndex + 1);
    jsonPlotsState["activatePlots"] = activatePlots;
    jsonPlotsState["showManipulator"] = showManipulator;
    ClientEvent plotsStateChangedEvent(client_events::kPlotsStateChanged, 
@@ -13,6 +13,8 @@
 
 #include "SessionPosixShell.hpp"
 
+#include <map>
+
 #include <boost/shared_ptr.hpp>
 
 #include <core/Log.hpp>
@@ -108,16 +110,58 @@ public:
 
 private:
    PosixShell(int maxLines)
-      : maxLines_(maxLines), interrupt_(false), terminate_(false)
+      : maxLines_(maxLines),
+        inputEpoch_(0),
+        nextInputSequence_(0),
+        failedInputSequence_(-1),
+        interrupt_(false),
+        terminate_(false)
    {
    }
 
 public:
    virtual ~PosixShell() {}
 
-   void enqueueInput(const std::string &input)
+   // input arrives in chunks which may be received out of order; chunks
+   // are held until all of the chunks preceding them have arrived. a new
+   // epoch (started by the client after an error) discards any held input.
+   void enqueueInput(int epoch, int sequence, const std::string &input)
+   {
+      if (!beginInput(epoch))
+         return;
+
+      if (sequence < nextInputSequence_)
+         return;
+
+      // nothing after a failed chunk is written to the shell
+      if (failedInputSequence_ >= 0 && sequence >= failedInputSequence_)
+         return;
+
+      pendingInput_[sequence] = input;
+
+      std::map<int,std::string>::iterator it;
+      while ((it = pendingInput_.find(nextInputSequence_)) !=
+                                                         pendingInput_.end())
+      {
+         inputQueue_.append(it->second);
+         pendingInput_.erase(it);
+         nextInputSequence_++;
+      }
+   }
+
+   // a chunk which couldn't be read leaves a hole in the input, so rather
+   // than writing the input around it (which could run a partial command)
+   // the chunk and all of the input after it in its epoch are discarded
+   void failInput(int epoch, int sequence)
    {
-      inputQueue_.append(input);
+      if (!beginInput(epoch))
+         return;
+
+      if (failedInputSequence_ < 0 || sequence < failedInputSequence_)
+         failedInputSequence_ = sequence;
+
+      pendingInput_.erase(pendingInput_.lower_bound(failedInputSequence_),
+                          pendingInput_.end());
    }
 
    void interrupt()
@@ -132,6 +176,23 @@ public:
 
 
 private:
+   // returns false for input from an earlier epoch
+   bool beginInput(int epoch)
+   {
+      if (epoch < inputEpoch_)
+         return false;
+
+      if (epoch > inputEpoch_)
+      {
+         inputEpoch_ = epoch;
+         nextInputSequence_ = 0;
+         failedInputSequence_ = -1;
+         pendingInput_.clear();
+      }
+
+      return true;
+   }
+
    bool onContinue(core::system::ProcessOperations& ops)
    {
       if (terminate_)
@@ -200,6 +261,11 @@ private:
 private:
    int maxLines_;
    std::string inputQueue_;
+   std::map<int,std::string> pendingInput_;
+   int inputEpoch_;
+   int nextInputSequence_;
+   // first sequence of the current epoch which failed (-1 if none)
+   int failedInputSequence_;
    bool interrupt_;
    bool terminate_;
 };
@@ -243,9 +309,10 @@ Error interruptPosixShell(const json::JsonRpcRequest& request,
 Error sendInputToPosixShell(const json::JsonRpcRequest& request,
                             json::JsonRpcResponse* pResponse)
 {
-   // read param
+   // read params
    std::string input;
-   Error error = json::readParam(request.params, 0, &input);
+   int epoch, sequence;
+   Error error = json::readParams(request.params, &input, &epoch, &sequence);
    if (error)
       return error;
 
@@ -257,10 +324,15 @@ Error sendInputToPosixShell(const json::JsonRpcRequest& request,
    std::string decryptedInput;
    error = core::system::crypto::rsaPrivateDecrypt(input, &decryptedInput);
    if (error)
+   {
+      // discard the rest of the epoch (the client starts a new epoch when
+      // it sees the error)
+      s_pActiveShell->failInput(epoch, sequence);
       return error;
+   }
 
    // send input
-   s_pActiveShell->enqueueInput(decryptedInput);
+   s_pActiveShell->enqueueInput(epoch, sequence, decryptedInput);
 
    return Success();
 }
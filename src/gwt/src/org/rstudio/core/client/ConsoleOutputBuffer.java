@@ -0,0 +1,97 @@
+/*
+ * ConsoleOutputBuffer.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+/**
+ * Holds the most recent lines of output from a console process. Control
+ * characters (\r and \b) are applied to the line being written through a
+ * VirtualConsole, so progress output which repeatedly rewrites a line only
+ * ever occupies one line. Once maxLines complete lines have been written,
+ * the oldest lines are discarded.
+ */
+public class ConsoleOutputBuffer
+{
+   public ConsoleOutputBuffer(int maxLines)
+   {
+      lines_ = new String[maxLines];
+   }
+
+   public void submit(String data)
+   {
+      if (StringUtil.isNullOrEmpty(data))
+         return;
+
+      int tail = 0;
+      int newline;
+      while ((newline = data.indexOf('\n', tail)) >= 0)
+      {
+         currentLine_.submit(data.substring(tail, newline));
+         addLine(currentLine_.toString());
+         currentLine_ = new VirtualConsole();
+         tail = newline + 1;
+      }
+      currentLine_.submit(data.substring(tail));
+   }
+
+   // the number of complete lines currently held
+   public int getLineCount()
+   {
+      return count_;
+   }
+
+   // the number of complete lines which were discarded to make room
+   public int getDiscardedLineCount()
+   {
+      return discarded_;
+   }
+
+   public String getText()
+   {
+      return getText(count_);
+   }
+
+   // the last maxLines complete lines, followed by the line being written
+   public String getText(int maxLines)
+   {
+      int lines = Math.min(maxLines, count_);
+      StringBuilder sb = new StringBuilder();
+      for (int i = count_ - lines; i < count_; i++)
+      {
+         sb.append(lines_[(head_ + i) % lines_.length]);
+         sb.append('\n');
+      }
+      sb.append(currentLine_.toString());
+      return sb.toString();
+   }
+
+   private void addLine(String line)
+   {
+      if (count_ < lines_.length)
+      {
+         lines_[(head_ + count_) % lines_.length] = line;
+         count_++;
+      }
+      else
+      {
+         lines_[head_] = line;
+         head_ = (head_ + 1) % lines_.length;
+         discarded_++;
+      }
+   }
+
+   private final String[] lines_;
+   private int head_;
+   private int count_;
+   private int discarded_;
+   private VirtualConsole currentLine_ = new VirtualConsole();
+}
@@ -58,6 +58,13 @@ public interface FileSystemContext
     */
    void refresh();
 
+   /**
+    * @return true if the contents returned by ls() may be out of date (e.g.
+    * they were served from a cache and are still being revalidated). Another
+    * onNavigated() callback will be fired once the contents are current.
+    */
+   boolean isStale();
+
    /**
     * Begin creating a folder with the specified name in the current directory.
     * An onContentsChanged() callback will be fired when it is complete (if
@@ -103,6 +103,11 @@ public abstract class PosixFileSystemContext implements FileSystemContext
       return contents_;
    }
 
+   public boolean isStale()
+   {
+      return false;
+   }
+
    public String validatePathElement(String name, boolean forCreation)
    {
       if (name == null || name.length() == 0)
@@ -245,6 +245,34 @@ public class DirectoryContentsWidget
       return items_.get(getSelectedValue());
    }
 
+   public void setSelectedValue(String value)
+   {
+      for (int i = 0; i < table_.getRowCount(); i++)
+      {
+         if (table_.getText(i, COL_NAME).equals(value))
+         {
+            setSelectedRow(i);
+            return;
+         }
+      }
+      setSelectedRow(null);
+   }
+
+   // indicate that the contents may be out of date
+   public void setStale(boolean stale)
+   {
+      if (stale)
+      {
+         addStyleName(styles_.stale());
+         setTitle("Directory listing may be out of date");
+      }
+      else
+      {
+         removeStyleName(styles_.stale());
+         setTitle("");
+      }
+   }
+
    public void showProgress(boolean show)
    {
       if (show)
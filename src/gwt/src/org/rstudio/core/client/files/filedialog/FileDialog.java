@@ -177,7 +177,10 @@ public abstract class FileDialog extends FileSystemDialog
       super.onNavigated();
 
       filename_.setEnabled(true);
-      if (attemptAcceptOnNextNavigate_)
+
+      // don't validate against a listing which may be out of date (we'll
+      // be called again once it has been refreshed)
+      if (attemptAcceptOnNextNavigate_ && !context_.isStale())
       {
          attemptAcceptOnNextNavigate_ = false;
          maybeAccept();
@@ -18,6 +18,7 @@ public interface FileDialogStyles extends CssResource
 {
 
    String contents();
+   String stale();
 
    String filenamePanel();
    String filenameLabel();
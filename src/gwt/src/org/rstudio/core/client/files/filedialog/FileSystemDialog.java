@@ -301,13 +301,26 @@ public abstract class FileSystemDialog extends ModalDialogBase
    {
       String dir = context_.pwd();
 
+      // if the contents of the current directory were revalidated then
+      // preserve the selection and scroll position
+      boolean revalidated = dir.equals(currentDir_);
+      String selectedValue = revalidated ? directory_.getSelectedValue() : null;
+      Point scrollPosition = revalidated ? directory_.getScrollPosition() : null;
+
       final FileSystemItem[] parsedDir = context_.parseDir(dir);
       breadcrumb_.setDirectory(parsedDir);
       directory_.setContents(
             ls(),
             parsedDir.length > 1 ? parsedDir[parsedDir.length-2] : null);
+      directory_.setStale(context_.isStale());
       
-      if (REMEMBER_SCROLL_POSITION)
+      if (revalidated)
+      {
+         if (selectedValue != null)
+            directory_.setSelectedValue(selectedValue);
+         directory_.setScrollPosition(scrollPosition);
+      }
+      else if (REMEMBER_SCROLL_POSITION)
       {
          if (scrollPositions_.containsKey(dir))
             directory_.setScrollPosition(scrollPositions_.get(dir));
@@ -69,6 +69,27 @@ public class ImageFrame extends Frame
          replaceLocation(getElement(), url);
    }
 
+   // Scales the image currently shown to fit the frame, preserving its
+   // aspect ratio. This is used while the frame is being resized, until an
+   // image rendered at the new size arrives (which is shown at 100%).
+   public void scaleImageToFit()
+   {
+      if (isAttached())
+         scaleImageToFit(getElement());
+   }
+
+   private native final void scaleImageToFit(Element el) /*-{
+      if (!el.contentWindow || !el.contentWindow.document)
+         return;
+      var img = el.contentWindow.document.getElementById('img');
+      if (!img || img.style.display == 'none' || !img.naturalWidth)
+         return;
+      var scale = Math.min(el.clientWidth / img.naturalWidth,
+                           el.clientHeight / img.naturalHeight);
+      img.style.width = Math.floor(img.naturalWidth * scale) + 'px';
+      img.style.height = Math.floor(img.naturalHeight * scale) + 'px';
+   }-*/;
+
    private native final boolean replaceLocation(Element el, String url) /*-{
       if (!el.contentWindow.document)
          return false;
@@ -104,7 +125,8 @@ public class ImageFrame extends Frame
       doc.write(
          '<html><head></head>' +
          '<body style="margin: 0; padding: 0; overflow: hidden; border: none">' +
-         '<img id="img" width="100%" height="100%" style="display: none" src="javascript:false">' +
+         '<img id="img" width="100%" height="100%" style="display: none" src="javascript:false"' +
+         ' onload="this.style.width = this.style.height = \'\';">' +
          '</body></html>');
       doc.close();
    }-*/;
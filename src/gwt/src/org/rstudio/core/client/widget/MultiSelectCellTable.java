@@ -165,8 +165,7 @@ public class MultiSelectCellTable<T> extends CellTable<T>
                   event.preventDefault();
                   event.stopPropagation();
 
-                  for (T item : getVisibleItems())
-                     getSelectionModel().setSelected(item, true);
+                  selectAll();
                }
             }
             break;
@@ -305,6 +304,14 @@ public class MultiSelectCellTable<T> extends CellTable<T>
          DomUtils.scrollIntoViewVert(el);
    }
 
+   // select all items; subclasses which render only a window of their
+   // data should override this to select the items which aren't rendered
+   protected void selectAll()
+   {
+      for (T item : getVisibleItems())
+         getSelectionModel().setSelected(item, true);
+   }
+
    protected boolean canSelectVisibleRow(int visibleRow)
    {
       return true;
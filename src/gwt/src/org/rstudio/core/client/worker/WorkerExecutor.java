@@ -0,0 +1,460 @@
+/*
+ * WorkerExecutor.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.worker;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.ResultCallback;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+
+/**
+ * Runs WorkerTasks in web workers, so that computations on large inputs
+ * don't block the UI thread. Each task (by name) gets its own worker,
+ * which runs one computation at a time; further requests for the task are
+ * queued. Cancelling the computation the worker is running terminates the
+ * worker (a new one is started for the next request).
+ *
+ * Where workers aren't supported, or the task's worker fails to load, the
+ * task's synchronous implementation is run instead. Callbacks are always
+ * called asynchronously.
+ */
+public class WorkerExecutor
+{
+   public static WorkerExecutor get()
+   {
+      if (instance_ == null)
+         instance_ = new WorkerExecutor();
+      return instance_;
+   }
+
+   private WorkerExecutor()
+   {
+   }
+
+   public static native boolean isSupported() /*-{
+      return !!($wnd.Worker && $wnd.Blob && ($wnd.URL || $wnd.webkitURL));
+   }-*/;
+
+   public <TInput, TOutput> WorkerRequest execute(
+                        WorkerTask<TInput, TOutput> task,
+                        TInput input,
+                        ResultCallback<TOutput, String> callback)
+   {
+      Request<TInput, TOutput> request =
+                     new Request<TInput, TOutput>(task, input, callback);
+
+      if (isSupported() &&
+          !failedTasks_.containsKey(task.getName()) &&
+          task.isWorthOffloading(input))
+      {
+         TaskWorker worker = workers_.get(task.getName());
+         if (worker == null)
+         {
+            worker = new TaskWorker(task.getName(), task.getScript());
+            workers_.put(task.getName(), worker);
+         }
+         request.worker_ = worker;
+         worker.enqueue(request);
+      }
+      else
+      {
+         request.scheduleSync();
+      }
+
+      return request;
+   }
+
+   // Timings for each task which has been run, for diagnostics
+   public String getStatsText()
+   {
+      if (timings_.isEmpty())
+         return "No worker tasks have been run.";
+
+      StringBuilder sb = new StringBuilder();
+      sb.append(isSupported() ? "Web workers are supported.\n"
+                              : "Web workers are not supported.\n");
+      for (Map.Entry<String, Timings> entry : timings_.entrySet())
+      {
+         Timings t = entry.getValue();
+         sb.append('\n').append(entry.getKey()).append(":\n");
+         sb.append("  in worker: ").append(t.workerRuns).append(" runs");
+         if (t.workerRuns > 0)
+         {
+            sb.append(", average ")
+              .append(t.workerMillis / t.workerRuns).append("ms computing, ")
+              .append(t.roundTripMillis / t.workerRuns).append("ms round trip, ")
+              .append(t.transferMillis / t.workerRuns).append("ms on UI thread");
+         }
+         sb.append('\n');
+         sb.append("  on UI thread: ").append(t.syncRuns).append(" runs");
+         if (t.syncRuns > 0)
+            sb.append(", average ").append(t.syncMillis / t.syncRuns).append("ms");
+         sb.append('\n');
+         sb.append("  cancelled: ").append(t.cancelled)
+           .append(", worker failures: ").append(t.failures);
+         if (failedTasks_.containsKey(entry.getKey()))
+            sb.append(" (disabled: ").append(failedTasks_.get(entry.getKey()))
+              .append(')');
+         sb.append('\n');
+      }
+      return sb.toString();
+   }
+
+   private Timings getTimings(String name)
+   {
+      Timings timings = timings_.get(name);
+      if (timings == null)
+      {
+         timings = new Timings();
+         timings_.put(name, timings);
+      }
+      return timings;
+   }
+
+   private class Request<TInput, TOutput> implements WorkerRequest
+   {
+      Request(WorkerTask<TInput, TOutput> task,
+              TInput input,
+              ResultCallback<TOutput, String> callback)
+      {
+         task_ = task;
+         input_ = input;
+         callback_ = callback;
+         id_ = nextRequestId_++;
+      }
+
+      @Override
+      public void cancel()
+      {
+         if (!pending_)
+            return;
+
+         pending_ = false;
+         getTimings(task_.getName()).cancelled++;
+         if (worker_ != null)
+            worker_.cancel(this);
+         callback_.onCancelled();
+      }
+
+      @Override
+      public boolean isPending()
+      {
+         return pending_;
+      }
+
+      JavaScriptObject serializeInput()
+      {
+         long start = System.currentTimeMillis();
+         JavaScriptObject serialized = task_.serializeInput(input_);
+         transferMillis_ = System.currentTimeMillis() - start;
+         return serialized;
+      }
+
+      void complete(JavaScriptObject output, double workerMillis)
+      {
+         if (!pending_)
+            return;
+
+         long start = System.currentTimeMillis();
+         TOutput result;
+         try
+         {
+            result = task_.deserializeOutput(input_, output);
+         }
+         catch (RuntimeException e)
+         {
+            pending_ = false;
+            callback_.onFailure(e.getMessage());
+            return;
+         }
+         long end = System.currentTimeMillis();
+
+         Timings timings = getTimings(task_.getName());
+         timings.workerRuns++;
+         timings.workerMillis += (long) workerMillis;
+         timings.roundTripMillis += end - postedAt_;
+         timings.transferMillis += transferMillis_ + (end - start);
+
+         pending_ = false;
+         callback_.onSuccess(result);
+      }
+
+      void scheduleSync()
+      {
+         Scheduler.get().scheduleDeferred(new ScheduledCommand()
+         {
+            @Override
+            public void execute()
+            {
+               runSync();
+            }
+         });
+      }
+
+      private void runSync()
+      {
+         if (!pending_)
+            return;
+
+         long start = System.currentTimeMillis();
+         TOutput result;
+         try
+         {
+            result = task_.computeSync(input_);
+         }
+         catch (RuntimeException e)
+         {
+            pending_ = false;
+            callback_.onFailure(e.getMessage());
+            return;
+         }
+
+         Timings timings = getTimings(task_.getName());
+         timings.syncRuns++;
+         timings.syncMillis += System.currentTimeMillis() - start;
+
+         pending_ = false;
+         callback_.onSuccess(result);
+      }
+
+      private final WorkerTask<TInput, TOutput> task_;
+      private final TInput input_;
+      private final ResultCallback<TOutput, String> callback_;
+      private final int id_;
+      private boolean pending_ = true;
+      private TaskWorker worker_;
+      private long postedAt_;
+      private long transferMillis_;
+   }
+
+   private class TaskWorker
+   {
+      TaskWorker(String name, String script)
+      {
+         name_ = name;
+         script_ = script;
+      }
+
+      void enqueue(Request<?, ?> request)
+      {
+         queue_.add(request);
+         pump();
+      }
+
+      void cancel(Request<?, ?> request)
+      {
+         if (request == current_)
+         {
+            // the only way to stop a computation is to stop the worker
+            terminate();
+            current_ = null;
+            pump();
+         }
+         else
+         {
+            queue_.remove(request);
+         }
+      }
+
+      private void pump()
+      {
+         if (current_ != null || queue_.isEmpty())
+            return;
+
+         current_ = queue_.removeFirst();
+
+         try
+         {
+            if (worker_ == null)
+               worker_ = createWorker(getScriptUrl());
+            JavaScriptObject input = current_.serializeInput();
+            current_.postedAt_ = System.currentTimeMillis();
+            postMessage(worker_, current_.id_, input);
+         }
+         catch (Exception e)
+         {
+            onWorkerError(e.getMessage());
+         }
+      }
+
+      private void onMessage(JavaScriptObject data)
+      {
+         WorkerMessage message = data.cast();
+         if (current_ == null || current_.id_ != message.getId())
+            return;
+
+         Request<?, ?> request = current_;
+         current_ = null;
+
+         if (message.getError() != null)
+         {
+            // the computation failed; the synchronous implementation will
+            // reproduce the failure (or it was specific to the worker)
+            getTimings(name_).failures++;
+            request.scheduleSync();
+         }
+         else
+         {
+            request.complete(message.getOutput(), message.getMillis());
+         }
+
+         pump();
+      }
+
+      // Called when the worker script can't be loaded or throws outside of
+      // a computation. The task falls back to running on the UI thread.
+      private void onWorkerError(String message)
+      {
+         Debug.log("Worker for " + name_ + " failed: " + message);
+         getTimings(name_).failures++;
+         failedTasks_.put(name_, message);
+         workers_.remove(name_);
+         terminate();
+
+         if (current_ != null)
+         {
+            current_.worker_ = null;
+            current_.scheduleSync();
+            current_ = null;
+         }
+         for (Request<?, ?> request : queue_)
+         {
+            request.worker_ = null;
+            request.scheduleSync();
+         }
+         queue_.clear();
+      }
+
+      private void terminate()
+      {
+         if (worker_ != null)
+         {
+            terminateWorker(worker_);
+            worker_ = null;
+         }
+      }
+
+      private String getScriptUrl()
+      {
+         if (scriptUrl_ == null)
+            scriptUrl_ = createScriptUrl(script_);
+         return scriptUrl_;
+      }
+
+      private native JavaScriptObject createWorker(String url) /*-{
+         var self = this;
+         var worker = new $wnd.Worker(url);
+         worker.onmessage = $entry(function(e) {
+            self.@org.rstudio.core.client.worker.WorkerExecutor.TaskWorker::onMessage(Lcom/google/gwt/core/client/JavaScriptObject;)(e.data);
+         });
+         worker.onerror = $entry(function(e) {
+            if (e.preventDefault)
+               e.preventDefault();
+            self.@org.rstudio.core.client.worker.WorkerExecutor.TaskWorker::onWorkerError(Ljava/lang/String;)(e.message || "Unknown error");
+         });
+         return worker;
+      }-*/;
+
+      private final String name_;
+      private final String script_;
+      private String scriptUrl_;
+      private JavaScriptObject worker_;
+      private Request<?, ?> current_;
+      private final LinkedList<Request<?, ?>> queue_ =
+                                             new LinkedList<Request<?, ?>>();
+   }
+
+   // The task's script plus a message loop which runs compute() on each
+   // input and posts back the output (or error) and the time it took
+   private static native String createScriptUrl(String script) /*-{
+      var source = script + "\n" +
+         "self.onmessage = function(e) {\n" +
+         "   var start = Date.now();\n" +
+         "   var result = { id: e.data.id };\n" +
+         "   try {\n" +
+         "      result.output = compute(e.data.input);\n" +
+         "   } catch (err) {\n" +
+         "      result.error = String((err && err.message) || err);\n" +
+         "   }\n" +
+         "   result.millis = Date.now() - start;\n" +
+         "   self.postMessage(result);\n" +
+         "};\n";
+      var URL = $wnd.URL || $wnd.webkitURL;
+      var blob = new $wnd.Blob([source], { type: "text/javascript" });
+      return URL.createObjectURL(blob);
+   }-*/;
+
+   private static native void postMessage(JavaScriptObject worker,
+                                          int id,
+                                          JavaScriptObject input) /*-{
+      worker.postMessage({ id: id, input: input });
+   }-*/;
+
+   private static native void terminateWorker(JavaScriptObject worker) /*-{
+      worker.terminate();
+   }-*/;
+
+   private static class WorkerMessage extends JavaScriptObject
+   {
+      protected WorkerMessage()
+      {
+      }
+
+      public final native int getId() /*-{
+         return this.id;
+      }-*/;
+
+      public final native JavaScriptObject getOutput() /*-{
+         return this.output;
+      }-*/;
+
+      public final native String getError() /*-{
+         return this.error === undefined ? null : this.error;
+      }-*/;
+
+      public final native double getMillis() /*-{
+         return this.millis;
+      }-*/;
+   }
+
+   private static class Timings
+   {
+      int workerRuns;
+      long workerMillis;
+      long roundTripMillis;
+      // serializing the input and deserializing the output
+      long transferMillis;
+      int syncRuns;
+      long syncMillis;
+      int cancelled;
+      int failures;
+   }
+
+   private static WorkerExecutor instance_;
+
+   private int nextRequestId_;
+   private final HashMap<String, TaskWorker> workers_ =
+                                          new HashMap<String, TaskWorker>();
+   // tasks whose workers failed, and why
+   private final HashMap<String, String> failedTasks_ =
+                                          new HashMap<String, String>();
+   private final LinkedHashMap<String, Timings> timings_ =
+                                          new LinkedHashMap<String, Timings>();
+}
@@ -0,0 +1,24 @@
+/*
+ * WorkerRequest.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.worker;
+
+/**
+ * A pending WorkerExecutor computation. Once cancelled its callback is
+ * never called (other than onCancelled).
+ */
+public interface WorkerRequest
+{
+   void cancel();
+
+   boolean isPending();
+}
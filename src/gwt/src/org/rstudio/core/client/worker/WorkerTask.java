@@ -0,0 +1,50 @@
+/*
+ * WorkerTask.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.worker;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * A pure computation which can be run by WorkerExecutor in a web worker.
+ *
+ * GWT compiled code can't run inside a worker, so the worker side of the
+ * computation is plain JavaScript: getScript() must define a global
+ * function compute(input) which takes the serialized input and returns the
+ * serialized output (both are passed by structured clone, so they should be
+ * plain objects, arrays, strings, numbers and typed arrays).
+ *
+ * computeSync() computes the same result on the UI thread; it is used when
+ * workers aren't available, when the input is too small to be worth
+ * sending to a worker, and when the worker fails.
+ */
+public abstract class WorkerTask<TInput, TOutput>
+{
+   // identifies the task in timing stats; tasks with the same name share
+   // a worker
+   public abstract String getName();
+
+   public abstract String getScript();
+
+   public abstract JavaScriptObject serializeInput(TInput input);
+
+   // the input is passed along as outputs may refer to it
+   public abstract TOutput deserializeOutput(TInput input,
+                                             JavaScriptObject output);
+
+   public abstract TOutput computeSync(TInput input);
+
+   public boolean isWorthOffloading(TInput input)
+   {
+      return true;
+   }
+}
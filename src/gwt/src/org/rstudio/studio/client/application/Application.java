@@ -22,6 +22,7 @@ import com.google.gwt.event.logical.shared.CloseEvent;
 import com.google.gwt.event.logical.shared.CloseHandler;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.safehtml.shared.SafeHtmlUtils;
 import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.Window;
@@ -32,15 +33,20 @@ import com.google.inject.Provider;
 import com.google.inject.Singleton;
 
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.Size;
 import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.command.Handler;
 import org.rstudio.core.client.dom.DomUtils;
+import org.rstudio.core.client.dom.WindowEx;
 import org.rstudio.core.client.widget.Operation;
+import org.rstudio.core.client.widget.ShowContentDialog;
+import org.rstudio.core.client.worker.WorkerExecutor;
 import org.rstudio.studio.client.application.events.*;
 import org.rstudio.studio.client.application.model.SessionSerializationAction;
 import org.rstudio.studio.client.application.ui.RequestLogVisualization;
 import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.common.SimpleRequestCallback;
+import org.rstudio.studio.client.common.posixshell.PosixShell;
 import org.rstudio.studio.client.common.satellite.SatelliteManager;
 import org.rstudio.studio.client.projects.Projects;
 import org.rstudio.studio.client.server.*;
@@ -273,6 +279,46 @@ public class Application implements ApplicationEventHandlers
       });
    }
 
+   @Handler
+   public void onShowWorkerTimings()
+   {
+      new ShowContentDialog(
+            "Worker Timings",
+            SafeHtmlUtils.htmlEscape(WorkerExecutor.get().getStatsText()),
+            new Size(500, 300)).showModal();
+   }
+
+   @Handler
+   public void onShowShellInputLatency()
+   {
+      new ShowContentDialog(
+            "Shell Input Latency",
+            SafeHtmlUtils.htmlEscape(PosixShell.getInputLatencyStats()),
+            new Size(500, 300)).showModal();
+   }
+
+   @Handler
+   public void onShowGraphImageStats()
+   {
+      // the history graph is only drawn in the review changes window
+      WindowEx reviewWindow = 
+               satelliteManager_.getSatelliteWindowObject("review_changes");
+      String stats = reviewWindow != null ? 
+                              getGraphImageStats(reviewWindow) : null;
+      if (stats == null)
+         stats = "The Review Changes window is not open";
+      
+      new ShowContentDialog(
+            "History Graph Images",
+            SafeHtmlUtils.htmlEscape(stats),
+            new Size(500, 300)).showModal();
+   }
+   
+   private native String getGraphImageStats(WindowEx wnd) /*-{
+      return wnd.getRStudioGraphImageStats ? 
+                                 wnd.getRStudioGraphImageStats() : null;
+   }-*/;
+
    @Handler
    public void onLogFocusedElement()
    {
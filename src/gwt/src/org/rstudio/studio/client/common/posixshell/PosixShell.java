@@ -14,7 +14,6 @@ package org.rstudio.studio.client.common.posixshell;
 
 import java.util.ArrayList;
 
-import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.core.client.command.KeyboardShortcut;
 import org.rstudio.core.client.regex.Pattern;
 import org.rstudio.core.client.widget.Operation;
@@ -23,14 +22,12 @@ import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.CommandLineHistory;
 import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.common.crypto.PublicKeyInfo;
-import org.rstudio.studio.client.common.crypto.RSAEncrypt;
 import org.rstudio.studio.client.common.posixshell.events.PosixShellExitEvent;
 import org.rstudio.studio.client.common.posixshell.events.PosixShellOutputEvent;
 import org.rstudio.studio.client.common.posixshell.model.PosixShellServerOperations;
 import org.rstudio.studio.client.common.shell.ShellDisplay;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
-import org.rstudio.studio.client.server.Void;
 import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.console.shell.editor.InputEditorDisplay;
 
@@ -66,6 +63,21 @@ public class PosixShell implements PosixShellOutputEvent.Handler,
       globalDisplay_ = globalDisplay;
       server_ = server;
       
+      // input is queued and sent to the server in order
+      inputQueue_ = new PosixShellInputQueue(
+            server_,
+            new PosixShellInputQueue.ErrorHandler() {
+               @Override
+               public void onInputError(ServerError error)
+               {
+                  // show the error in the console then re-prompt
+                  display_.consoleWriteError(
+                        "Error: " + error.getUserMessage() + "\n");
+                  if (lastPromptText_ != null)
+                     consolePrompt(lastPromptText_, false);
+               }
+            });
+      
       // set max lines
       int maxLines = 1000;
       display_.setMaxOutputLines(maxLines);
@@ -85,6 +97,11 @@ public class PosixShell implements PosixShellOutputEvent.Handler,
    }
    
    
+   public static String getInputLatencyStats()
+   {
+      return PosixShellInputQueue.getLatencyStats();
+   }
+   
    public Widget getWidget()
    {
       return display_.getShellWidget();
@@ -106,7 +123,7 @@ public class PosixShell implements PosixShellOutputEvent.Handler,
                @Override 
                public void onResponseReceived(PublicKeyInfo publicKeyInfo)
                {
-                  publicKeyInfo_ = publicKeyInfo;
+                  inputQueue_.setPublicKeyInfo(publicKeyInfo);
                   progressIndicator.onCompleted();
                }
 
@@ -313,36 +330,15 @@ public class PosixShell implements PosixShellOutputEvent.Handler,
       else
          display_.consoleWriteInput("\n");
       
-      // encrypt input and send it to the to server
-      RSAEncrypt.encrypt_ServerOnly(
-         publicKeyInfo_, 
-         input, 
-         new CommandWithArg<String>() {
-            @Override
-            public void execute(String encryptedInput)
-            {
-               server_.sendInputToPosixShell(
-                  encryptedInput, 
-                  new ServerRequestCallback<Void>() {
-                     @Override
-                     public void onError(ServerError error)
-                     {
-                        // show the error in the console then re-prompt
-                        display_.consoleWriteError(
-                              "Error: " + error.getUserMessage() + "\n");
-                        if (lastPromptText_ != null)
-                           consolePrompt(lastPromptText_, false);
-                     }
-                  });
-            }
-       });
+      // queue input to be encrypted and sent to the server
+      inputQueue_.submit(input);
    }
    
    private final Display display_;
    private final GlobalDisplay globalDisplay_;
    private Observer observer_ = null;
    private final PosixShellServerOperations server_;
-   private PublicKeyInfo publicKeyInfo_;
+   private final PosixShellInputQueue inputQueue_;
  
    // indicates whether the next command should be added to history
    private boolean addToHistory_ ;
@@ -0,0 +1,221 @@
+/*
+ * PosixShellInputQueue.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.common.posixshell;
+
+import java.util.LinkedList;
+
+import org.rstudio.core.client.CommandWithArg;
+import org.rstudio.studio.client.common.crypto.PublicKeyInfo;
+import org.rstudio.studio.client.common.crypto.RSAEncrypt;
+import org.rstudio.studio.client.common.posixshell.model.PosixShellServerOperations;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.server.Void;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
+
+// Sends input to the shell. Input submitted in quick succession is packed
+// into chunks small enough to be encrypted as a single RSA block, and the
+// chunks are encrypted one per scheduler slice (so a large paste doesn't
+// block the UI) and sent without waiting for earlier chunks to complete.
+// Each chunk carries a sequence number which the server uses to write the
+// chunks to the shell in order. After an error the queue starts a new
+// epoch, telling the server to discard anything held from the previous one.
+class PosixShellInputQueue
+{
+   public interface ErrorHandler
+   {
+      void onInputError(ServerError error);
+   }
+
+   public PosixShellInputQueue(PosixShellServerOperations server,
+                               ErrorHandler errorHandler)
+   {
+      server_ = server;
+      errorHandler_ = errorHandler;
+   }
+
+   public void setPublicKeyInfo(PublicKeyInfo publicKeyInfo)
+   {
+      publicKeyInfo_ = publicKeyInfo;
+
+      // a newly started shell expects its input from sequence 0
+      epoch_++;
+      nextSequence_ = 0;
+      scheduleSend();
+   }
+
+   public void submit(String input)
+   {
+      if (input.length() == 0)
+         return;
+
+      pending_.append(input);
+      submittedOffset_ += input.length();
+      submits_.add(new Submit(submittedOffset_, System.currentTimeMillis()));
+      scheduleSend();
+   }
+
+   // latency of the input sent by all shells this session, from submit to
+   // the server having received it
+   public static String getLatencyStats()
+   {
+      if (latencyCount_ == 0)
+         return "no input sent";
+
+      return latencyCount_ + " inputs, last " + lastLatencyMs_ +
+             "ms, average " + (totalLatencyMs_ / latencyCount_) +
+             "ms, max " + maxLatencyMs_ + "ms";
+   }
+
+   private void scheduleSend()
+   {
+      if (sendScheduled_ || publicKeyInfo_ == null)
+         return;
+
+      sendScheduled_ = true;
+      Scheduler.get().scheduleIncremental(new RepeatingCommand()
+      {
+         @Override
+         public boolean execute()
+         {
+            if (pending_.length() == 0 || inFlight_ >= MAX_IN_FLIGHT)
+            {
+               sendScheduled_ = false;
+               return false;
+            }
+
+            sendChunk();
+            return true;
+         }
+      });
+   }
+
+   private void sendChunk()
+   {
+      // find the end of the chunk, without splitting a surrogate pair
+      int end = 0;
+      int bytes = 0;
+      while (end < pending_.length())
+      {
+         char c = pending_.charAt(end);
+         int length = Character.isHighSurrogate(c) ? 2 : 1;
+         int charBytes = c < 0x80 ? 1 :
+                         c < 0x800 ? 2 :
+                         length == 2 ? 4 : 3;
+         if (bytes + charBytes > MAX_CHUNK_BYTES)
+            break;
+         bytes += charBytes;
+         end = Math.min(end + length, pending_.length());
+      }
+
+      final String text = pending_.substring(0, end);
+      pending_.delete(0, end);
+      sentOffset_ += end;
+
+      // the chunk's latency is measured from the oldest input it contains
+      final long submitted = submits_.getFirst().time;
+      while (!submits_.isEmpty() && submits_.getFirst().end <= sentOffset_)
+         submits_.removeFirst();
+
+      final int epoch = epoch_;
+      final int sequence = nextSequence_++;
+      inFlight_++;
+
+      RSAEncrypt.encrypt_ServerOnly(
+         publicKeyInfo_,
+         text,
+         new CommandWithArg<String>() {
+            @Override
+            public void execute(String encryptedInput)
+            {
+               server_.sendInputToPosixShell(
+                  encryptedInput,
+                  epoch,
+                  sequence,
+                  new ServerRequestCallback<Void>() {
+                     @Override
+                     public void onResponseReceived(Void response)
+                     {
+                        inFlight_--;
+                        recordLatency(System.currentTimeMillis() - submitted);
+                        scheduleSend();
+                     }
+
+                     @Override
+                     public void onError(ServerError error)
+                     {
+                        inFlight_--;
+
+                        // drop whatever else was pending and start over
+                        // (only once for the chunks of the failed epoch)
+                        if (epoch == epoch_)
+                        {
+                           epoch_++;
+                           nextSequence_ = 0;
+                           sentOffset_ += pending_.length();
+                           pending_.setLength(0);
+                           submits_.clear();
+                           errorHandler_.onInputError(error);
+                        }
+                        scheduleSend();
+                     }
+                  });
+            }
+       });
+   }
+
+   private static void recordLatency(long latencyMs)
+   {
+      latencyCount_++;
+      lastLatencyMs_ = latencyMs;
+      totalLatencyMs_ += latencyMs;
+      maxLatencyMs_ = Math.max(maxLatencyMs_, latencyMs);
+   }
+
+   private static class Submit
+   {
+      Submit(long end, long time)
+      {
+         this.end = end;
+         this.time = time;
+      }
+
+      // offset in the input stream just past the submitted input
+      final long end;
+      final long time;
+   }
+
+   private final PosixShellServerOperations server_;
+   private final ErrorHandler errorHandler_;
+   private PublicKeyInfo publicKeyInfo_;
+
+   private final StringBuilder pending_ = new StringBuilder();
+   private final LinkedList<Submit> submits_ = new LinkedList<Submit>();
+   private long submittedOffset_;
+   private long sentOffset_;
+   private boolean sendScheduled_;
+   private int inFlight_;
+   private int epoch_;
+   private int nextSequence_;
+
+   private static int latencyCount_;
+   private static long lastLatencyMs_;
+   private static long totalLatencyMs_;
+   private static long maxLatencyMs_;
+
+   // a 1024 bit RSA key with PKCS#1 padding can encrypt at most 117 bytes
+   private static final int MAX_CHUNK_BYTES = 100;
+   private static final int MAX_IN_FLIGHT = 8;
+}
@@ -24,7 +24,12 @@ public interface PosixShellServerOperations
    
    void interruptPosixShell(ServerRequestCallback<Void> requestCallback);
    
-   void sendInputToPosixShell(String input, 
+   // input is sent in chunks numbered from 0 within each epoch; the server
+   // writes the chunks to the shell in sequence order and discards input
+   // held from earlier epochs
+   void sendInputToPosixShell(String input,
+                              int epoch,
+                              int sequence,
                               ServerRequestCallback<Void> requestCallback);
    
    void terminatePosixShell(ServerRequestCallback<Void> requestCallback);
@@ -116,6 +116,21 @@ public class SatelliteManager implements CloseHandler<Window>
       return false;
    }
    
+   // returns the window of the named satellite (or null if it isn't open)
+   public WindowEx getSatelliteWindowObject(String name)
+   {
+      for (ActiveSatellite satellite : satellites_)
+      {
+         if (satellite.getName().equals(name) && 
+             !satellite.getWindow().isClosed())
+         {
+            return satellite.getWindow();
+         }
+      }
+      
+      return null;
+   }
+   
    // close all satellite windows
    public void closeAllSatellites()
    {
@@ -122,6 +122,23 @@ public class StatusAndPath
       return path_ != null ? path_.hashCode() : 0;
    }
 
+   // unlike equals (which only compares paths), true only if every field
+   // of the two entries is the same
+   public boolean isSameAs(StatusAndPath that)
+   {
+      return equals(that) &&
+             discardable_ == that.discardable_ &&
+             directory_ == that.directory_ &&
+             same(status_, that.status_) &&
+             same(rawPath_, that.rawPath_) &&
+             same(changelist_, that.changelist_);
+   }
+
+   private static boolean same(String a, String b)
+   {
+      return a != null ? a.equals(b) : b == null;
+   }
+
    public StatusAndPathInfo toInfo()
    {
       return StatusAndPathInfo.create(status_,
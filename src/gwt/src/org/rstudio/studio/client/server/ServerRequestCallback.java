@@ -13,6 +13,8 @@
 
 package org.rstudio.studio.client.server;
 
+import org.rstudio.core.client.jsonrpc.RpcRequest;
+
 public abstract class ServerRequestCallback<T>
 { 
    public void onResponseReceived(T response)
@@ -21,9 +23,25 @@ public abstract class ServerRequestCallback<T>
    
    public abstract void onError(ServerError error);
    
-   public void cancel() { cancelled_ = true; }
+   public void cancel() 
+   { 
+      cancelled_ = true; 
+      
+      // abandon the request itself if it is still outstanding
+      if (request_ != null)
+      {
+         request_.cancel();
+         request_ = null;
+      }
+   }
+   
    public boolean cancelled() { return cancelled_; }
    
+   // called with the request this callback is waiting on (null once the
+   // response has been received)
+   public void setRequest(RpcRequest request) { request_ = request; }
+   
    private boolean cancelled_ = false;
+   private RpcRequest request_ = null;
 }
 
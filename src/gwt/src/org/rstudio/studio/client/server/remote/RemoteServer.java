@@ -50,16 +50,18 @@ import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.model.SessionInfo;
 import org.rstudio.studio.client.workbench.model.WorkbenchMetrics;
 import org.rstudio.studio.client.workbench.prefs.model.RPrefs;
+import org.rstudio.studio.client.workbench.views.files.model.FileListingPage;
 import org.rstudio.studio.client.workbench.views.files.model.FileUploadToken;
 import org.rstudio.studio.client.workbench.views.help.model.HelpInfo;
 import org.rstudio.studio.client.workbench.views.history.model.HistoryEntry;
-import org.rstudio.studio.client.workbench.views.packages.model.PackageInfo;
+import org.rstudio.studio.client.workbench.views.packages.model.PackageListChanges;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallContext;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageUpdate;
 import org.rstudio.studio.client.workbench.views.plots.model.Point;
 import org.rstudio.studio.client.workbench.views.plots.model.SavePlotAsImageContext;
 import org.rstudio.studio.client.workbench.views.source.editors.text.IconvListResult;
 import org.rstudio.studio.client.workbench.views.source.model.CheckForExternalEditResult;
+import org.rstudio.studio.client.workbench.views.source.model.DataBlock;
 import org.rstudio.studio.client.workbench.views.source.model.PublishPdfResult;
 import org.rstudio.studio.client.workbench.views.source.model.SourceDocument;
 import org.rstudio.studio.client.workbench.views.vcs.dialog.CommitCount;
@@ -434,9 +436,23 @@ public class RemoteServer implements Server
    }
    
    public void listObjects(
+         boolean summaries,
          ServerRequestCallback<RpcObjectList<WorkspaceObjectInfo>> requestCallback)
    {
-      sendRequest(RPC_SCOPE, LIST_OBJECTS, requestCallback);
+      sendRequest(RPC_SCOPE, LIST_OBJECTS, summaries, requestCallback);
+   }
+   
+   public void getObjectSummaries(
+         ArrayList<String> objectNames,
+         ServerRequestCallback<RpcObjectList<WorkspaceObjectInfo>> requestCallback)
+   {
+      JSONArray names = new JSONArray();
+      for (int i = 0; i < objectNames.size(); i++)
+         names.set(i, new JSONString(objectNames.get(i)));
+      
+      JSONArray params = new JSONArray();
+      params.set(0, names);
+      sendRequest(RPC_SCOPE, GET_OBJECT_SUMMARIES, params, requestCallback);
    }
 
   
@@ -548,10 +564,11 @@ public class RemoteServer implements Server
    }
 
 
-   public void listPackages(
-         ServerRequestCallback<JsArray<PackageInfo>> requestCallback)
+   public void listPackageChanges(
+         String fingerprint,
+         ServerRequestCallback<PackageListChanges> requestCallback)
    {
-      sendRequest(RPC_SCOPE, LIST_PACKAGES, requestCallback);
+      sendRequest(RPC_SCOPE, LIST_PACKAGE_CHANGES, fingerprint, requestCallback);
    }
    
    public void getPackageInstallContext(
@@ -664,6 +681,29 @@ public class RemoteServer implements Server
                   requestCallback);    
    }
 
+   public void listFilesPaged(
+                  FileSystemItem directory,
+                  boolean monitor,
+                  String sortKey,
+                  boolean ascending,
+                  int offset,
+                  int limit,
+                  ServerRequestCallback<FileListingPage> requestCallback)
+   {
+      JSONArray paramArray = new JSONArray();
+      paramArray.set(0, new JSONString(directory.getPath()));
+      paramArray.set(1, JSONBoolean.getInstance(monitor));
+      paramArray.set(2, new JSONString(sortKey));
+      paramArray.set(3, JSONBoolean.getInstance(ascending));
+      paramArray.set(4, new JSONNumber(offset));
+      paramArray.set(5, new JSONNumber(limit));
+      
+      sendRequest(RPC_SCOPE, 
+                  LIST_FILES_PAGED, 
+                  paramArray, 
+                  requestCallback);    
+   }
+
    public void listAllFiles(String path,
                             String pattern,
                             ServerRequestCallback<JsArrayString> requestCallback)
@@ -834,6 +874,20 @@ public class RemoteServer implements Server
       return previewURL;
    }
    
+   public String getPlotPreviewUrl(String type, 
+                                   int width, 
+                                   int height, 
+                                   int previewId)
+   {
+      String previewURL = getGraphicsUrl("plot." + type);
+      previewURL += "?";
+      previewURL += "width=" + width;
+      previewURL += "&";
+      previewURL += "height=" + height;
+      previewURL += "&preview=" + previewId;
+      return previewURL;
+   }
+   
    public void nextPlot(ServerRequestCallback<Void> requestCallback)
    {
       sendRequest(RPC_SCOPE, NEXT_PLOT, requestCallback);
@@ -1153,6 +1207,30 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, REMOVE_CONTENT_URL, contentUrl, requestCallback);
    }
 
+   public void getDataBlock(String cacheKey,
+                            int firstRow,
+                            int rowCount,
+                            int firstColumn,
+                            int columnCount,
+                            boolean measure,
+                            ServerRequestCallback<DataBlock> requestCallback)
+   {
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(cacheKey));
+      params.set(1, new JSONNumber(firstRow));
+      params.set(2, new JSONNumber(rowCount));
+      params.set(3, new JSONNumber(firstColumn));
+      params.set(4, new JSONNumber(columnCount));
+      params.set(5, JSONBoolean.getInstance(measure));
+      sendRequest(RPC_SCOPE, GET_DATA_BLOCK, params, requestCallback);
+   }
+
+   public void removeCachedData(String cacheKey,
+                                ServerRequestCallback<Void> requestCallback)
+   {
+      sendRequest(RPC_SCOPE, REMOVE_CACHED_DATA, cacheKey, requestCallback);
+   }
+
    public void detectFreeVars(String code,
                               ServerRequestCallback<JsArrayString> requestCallback)
    {
@@ -1571,9 +1649,15 @@ public class RemoteServer implements Server
    @Override
    public void sendInputToPosixShell(
                               String input, 
+                              int epoch,
+                              int sequence,
                               ServerRequestCallback<Void> requestCallback)
    {
-      sendRequest(RPC_SCOPE, SEND_INPUT_TO_POSIX_SHELL, input, requestCallback);
+      JSONArray params = new JSONArray();
+      params.set(0, new JSONString(input));
+      params.set(1, new JSONNumber(epoch));
+      params.set(2, new JSONNumber(sequence));
+      sendRequest(RPC_SCOPE, SEND_INPUT_TO_POSIX_SHELL, params, requestCallback);
    }
    
    @Override
@@ -1777,7 +1861,7 @@ public class RemoteServer implements Server
                               final ServerRequestCallback<T> requestCallback,
                               RetryHandler retryHandler)
    { 
-      return sendRequest(
+      RpcRequest request = sendRequest(
             null,
             scope,
             method,
@@ -1794,6 +1878,8 @@ public class RemoteServer implements Server
                       requestCallback.cancelled())
                      return;
                   
+                  requestCallback.setRequest(null);
+                  
                   if (response.getError() != null)
                   {
                      requestCallback.onError(
@@ -1807,7 +1893,12 @@ public class RemoteServer implements Server
                }
              },
              retryHandler);
-
+      
+      // let the callback cancel the request
+      if (requestCallback != null)
+         requestCallback.setRequest(request);
+      
+      return request;
    }
       
    // lowest level sendRequest method -- called from the main workbench
@@ -2328,6 +2419,7 @@ public class RemoteServer implements Server
    private static final String REMOVE_ALL_OBJECTS = "remove_all_objects";
    private static final String SET_OBJECT_VALUE = "set_object_value";
    private static final String GET_OBJECT_VALUE = "get_object_value";
+   private static final String GET_OBJECT_SUMMARIES = "get_object_summaries";
    private static final String LIST_GOOGLE_SPREADSHEETS = "list_google_spreadsheets";
    private static final String IMPORT_GOOGLE_SPREADSHEET = "import_google_spreadsheet";
    private static final String DOWNLOAD_DATA_FILE = "download_data_file";
@@ -2337,7 +2429,7 @@ public class RemoteServer implements Server
    private static final String EDIT_COMPLETED = "edit_completed";
    private static final String CHOOSE_FILE_COMPLETED = "choose_file_completed";
 
-   private static final String LIST_PACKAGES = "list_packages";
+   private static final String LIST_PACKAGE_CHANGES = "list_package_changes";
    private static final String AVAILABLE_PACKAGES = "available_packages";
    private static final String CHECK_FOR_PACKAGE_UPDATES = "check_for_package_updates";
    private static final String INIT_DEFAULT_USER_LIBRARY = "init_default_user_library";
@@ -2352,6 +2444,7 @@ public class RemoteServer implements Server
 
    private static final String STAT = "stat";
    private static final String LIST_FILES = "list_files";
+   private static final String LIST_FILES_PAGED = "list_files_paged";
    private static final String LIST_ALL_FILES = "list_all_files";
    private static final String CREATE_FOLDER = "create_folder";
    private static final String DELETE_FILES = "delete_files";
@@ -2393,6 +2486,8 @@ public class RemoteServer implements Server
    private static final String REVERT_DOCUMENT = "revert_document";
    private static final String REOPEN_WITH_ENCODING = "reopen_with_encoding";
    private static final String REMOVE_CONTENT_URL = "remove_content_url";
+   private static final String GET_DATA_BLOCK = "get_data_block";
+   private static final String REMOVE_CACHED_DATA = "remove_cached_data";
    private static final String DETECT_FREE_VARS = "detect_free_vars";
    private static final String ICONVLIST = "iconvlist";
    private static final String PUBLISH_PDF = "publish_pdf";
@@ -16,6 +16,7 @@ package org.rstudio.studio.client.vcs;
 import org.rstudio.core.client.CommandWithArg;
 import org.rstudio.studio.client.application.ApplicationUncaughtExceptionHandler;
 import org.rstudio.studio.client.common.satellite.Satellite;
+import org.rstudio.studio.client.workbench.views.vcs.dialog.graph.GraphLine;
 
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.dom.client.Style;
@@ -55,6 +56,9 @@ public class VCSApplication
       // initSatelliteWindow b/c it depends on Server)
       uncaughtExHandler_.register();
       
+      // make the history graph's stats available to the main window
+      GraphLine.exportCacheStats();
+      
       // create the widget
       Widget w = view_.getWidget();
       rootPanel.add(w);
@@ -13,10 +13,10 @@
 package org.rstudio.studio.client.workbench;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.user.client.Timer;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import org.rstudio.core.client.StringUtil;
-import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.command.Handler;
 import org.rstudio.core.client.files.FileSystemItem;
@@ -35,7 +35,7 @@ import org.rstudio.studio.client.common.vcs.ShowPublicKeyDialog;
 import org.rstudio.studio.client.server.Server;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
-import org.rstudio.studio.client.server.VoidServerRequestCallback;
+import org.rstudio.studio.client.server.Void;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.events.*;
 import org.rstudio.studio.client.workbench.model.*;
@@ -94,16 +94,17 @@ public class Workbench implements BusyHandler,
       eventBus.addHandler(WorkbenchLoadedEvent.TYPE, this);
       eventBus.addHandler(WorkbenchMetricsChangedEvent.TYPE, this);
 
-      // We don't want to send setWorkbenchMetrics more than once per 1/2-second
-      metricsChangedCommand_ = new TimeBufferedCommand(-1, -1, 500)
+      // setWorkbenchMetrics re-renders the current plot, so we only send
+      // it once the metrics have stopped changing (e.g. at the end of a
+      // pane drag). while the drag is in progress the plots pane scales
+      // the plot it already has
+      metricsQuietTimer_ = new Timer()
       {
          @Override
-         protected void performAction(boolean shouldSchedulePassive)
+         public void run()
          {
-            assert !shouldSchedulePassive;
-            
-            server_.setWorkbenchMetrics(lastWorkbenchMetrics_,
-                                        new VoidServerRequestCallback());
+            metricsQuietPending_ = false;
+            sendWorkbenchMetrics();
          }
       };
       
@@ -152,7 +153,51 @@ public class Workbench implements BusyHandler,
    public void onWorkbenchMetricsChanged(WorkbenchMetricsChangedEvent event)
    {
       lastWorkbenchMetrics_ = event.getWorkbenchMetrics();
-      metricsChangedCommand_.nudge();
+      metricsQuietPending_ = true;
+      metricsQuietTimer_.schedule(
+            Math.max(1, pPrefs_.get().plotResizeQuietPeriod().getValue()));
+   }
+
+   private void sendWorkbenchMetrics()
+   {
+      // a render for a previous size is still in progress (it can't be
+      // interrupted); rather than queueing another render behind it, send
+      // the latest metrics once it's done. sizes which arrive in the
+      // meantime supersede each other and are never rendered
+      if (metricsInFlight_)
+         return;
+
+      final WorkbenchMetrics metrics = lastWorkbenchMetrics_;
+      if (metrics == null || metrics.equalTo(sentWorkbenchMetrics_))
+         return;
+
+      // (failures aren't retried, the next size change will send again)
+      sentWorkbenchMetrics_ = metrics;
+      metricsInFlight_ = true;
+      server_.setWorkbenchMetrics(metrics, new ServerRequestCallback<Void>()
+      {
+         @Override
+         public void onResponseReceived(Void response)
+         {
+            onMetricsSent();
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            onMetricsSent();
+         }
+      });
+   }
+
+   private void onMetricsSent()
+   {
+      metricsInFlight_ = false;
+
+      // the size changed during the render; if it has already settled
+      // then render at the new size now, otherwise the quiet timer will
+      if (!metricsQuietPending_)
+         sendWorkbenchMetrics();
    }
    
    public void onQuotaStatus(QuotaStatusEvent event)
@@ -321,7 +366,10 @@ public class Workbench implements BusyHandler,
    private final Provider<PosixShellDialog> pPosixShellDialog_;
    private final WorkbenchContext workbenchContext_;
    private final ConsoleDispatcher consoleDispatcher_;
-   private final TimeBufferedCommand metricsChangedCommand_;
+   private final Timer metricsQuietTimer_;
    private WorkbenchMetrics lastWorkbenchMetrics_;
+   private WorkbenchMetrics sentWorkbenchMetrics_;
+   private boolean metricsQuietPending_;
+   private boolean metricsInFlight_;
    private boolean nearQuotaWarningShown_ = false; 
 }
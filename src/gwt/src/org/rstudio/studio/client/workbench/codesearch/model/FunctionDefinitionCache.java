@@ -0,0 +1,360 @@
+/*
+ * FunctionDefinitionCache.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.codesearch.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import org.rstudio.core.client.regex.Match;
+import org.rstudio.core.client.regex.Pattern;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.packages.events.InstalledPackagesChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.InstalledPackagesChangedHandler;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedHandler;
+import org.rstudio.studio.client.workbench.views.workspace.events.WorkspaceObjectAssignedEvent;
+import org.rstudio.studio.client.workbench.views.workspace.events.WorkspaceObjectAssignedHandler;
+import org.rstudio.studio.client.workbench.views.workspace.events.WorkspaceObjectRemovedEvent;
+import org.rstudio.studio.client.workbench.views.workspace.events.WorkspaceObjectRemovedHandler;
+import org.rstudio.studio.client.workbench.views.workspace.events.WorkspaceRefreshEvent;
+import org.rstudio.studio.client.workbench.views.workspace.events.WorkspaceRefreshHandler;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+// LRU cache of the function definitions shown by the code browser, keyed
+// by namespace and name. the results of looking up names from within a
+// namespace (as go to function definition does) are cached as well, and
+// the functions called by the function being viewed are looked up in the
+// background so that navigating to them is immediate. everything is
+// dropped whenever a package is loaded, unloaded or installed, since the
+// definitions (and what names resolve to) may have changed. likewise when
+// an object is assigned or removed in the global environment its global
+// definition and the lookups of its name are dropped
+@Singleton
+public class FunctionDefinitionCache implements PackageStatusChangedHandler,
+                                                InstalledPackagesChangedHandler,
+                                                WorkspaceObjectAssignedHandler,
+                                                WorkspaceObjectRemovedHandler,
+                                                WorkspaceRefreshHandler
+{
+   @Inject
+   public FunctionDefinitionCache(CodeSearchServerOperations server,
+                                  EventBus eventBus)
+   {
+      server_ = server;
+      eventBus.addHandler(PackageStatusChangedEvent.TYPE, this);
+      eventBus.addHandler(InstalledPackagesChangedEvent.TYPE, this);
+      eventBus.addHandler(WorkspaceObjectAssignedEvent.TYPE, this);
+      eventBus.addHandler(WorkspaceObjectRemovedEvent.TYPE, this);
+      eventBus.addHandler(WorkspaceRefreshEvent.TYPE, this);
+   }
+
+   // returns the cached definition (or null if there is none)
+   public SearchPathFunctionDefinition get(String namespace, String name)
+   {
+      return definitions_.get(key(namespace, name));
+   }
+
+   public void put(SearchPathFunctionDefinition functionDef)
+   {
+      if (functionDef != null &&
+          functionDef.getNamespace() != null &&
+          functionDef.getName() != null)
+      {
+         definitions_.put(key(functionDef.getNamespace(),
+                              functionDef.getName()),
+                          functionDef);
+      }
+   }
+
+   // get the definition from the server, caching the result. concurrent
+   // requests for the same function share a single server call
+   public void getDefinition(
+         String name,
+         String namespace,
+         ServerRequestCallback<SearchPathFunctionDefinition> requestCallback)
+   {
+      final String key = key(namespace, name);
+
+      SearchPathFunctionDefinition cached = definitions_.get(key);
+      if (cached != null)
+      {
+         requestCallback.onResponseReceived(cached);
+         return;
+      }
+
+      ArrayList<ServerRequestCallback<SearchPathFunctionDefinition>> pending =
+                                                         pending_.get(key);
+      if (pending != null)
+      {
+         pending.add(requestCallback);
+         return;
+      }
+
+      final ArrayList<ServerRequestCallback<SearchPathFunctionDefinition>>
+         callbacks =
+            new ArrayList<ServerRequestCallback<SearchPathFunctionDefinition>>();
+      callbacks.add(requestCallback);
+      pending_.put(key, callbacks);
+
+      final int generation = generation_;
+      server_.getSearchPathFunctionDefinition(
+            name,
+            namespace,
+            new ServerRequestCallback<SearchPathFunctionDefinition>()
+            {
+               @Override
+               public void onResponseReceived(
+                                 SearchPathFunctionDefinition functionDef)
+               {
+                  pending_.remove(key);
+                  if (generation == generation_)
+                     put(functionDef);
+
+                  for (ServerRequestCallback<SearchPathFunctionDefinition>
+                                                      callback : callbacks)
+                     callback.onResponseReceived(functionDef);
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  pending_.remove(key);
+
+                  for (ServerRequestCallback<SearchPathFunctionDefinition>
+                                                      callback : callbacks)
+                     callback.onError(error);
+               }
+            });
+   }
+
+   // returns the definition the name resolved to when it was looked up
+   // from within the namespace (or null if it hasn't been looked up or
+   // couldn't be found)
+   public SearchPathFunctionDefinition lookup(String fromNamespace,
+                                              String name)
+   {
+      return lookups_.get(lookupKey(fromNamespace, name));
+   }
+
+   // look up the functions called by the definition in the background
+   // (replacing any lookups still queued for a previous definition)
+   public void prefetchReferences(SearchPathFunctionDefinition functionDef)
+   {
+      prefetchQueue_.clear();
+
+      String code = functionDef.getCode();
+      String namespace = functionDef.getNamespace();
+      if (code == null || namespace == null)
+         return;
+
+      HashSet<String> seen = new HashSet<String>();
+      Match match = CALL_PATTERN.match(code, 0);
+      while (match != null && prefetchQueue_.size() < MAX_PREFETCH)
+      {
+         String name = match.getGroup(3);
+         boolean qualified = match.getGroup(2).length() > 0;
+         if (!qualified &&
+             !KEYWORDS.contains(name) &&
+             !name.equals(functionDef.getName()) &&
+             seen.add(name) &&
+             !lookups_.containsKey(lookupKey(namespace, name)))
+         {
+            prefetchQueue_.add(new String[] {namespace, name});
+         }
+         match = match.nextMatch();
+      }
+
+      prefetchNext();
+   }
+
+   @Override
+   public void onPackageStatusChanged(PackageStatusChangedEvent event)
+   {
+      clear();
+   }
+
+   @Override
+   public void onInstalledPackagesChanged(InstalledPackagesChangedEvent event)
+   {
+      clear();
+   }
+
+   @Override
+   public void onWorkspaceObjectAssigned(WorkspaceObjectAssignedEvent event)
+   {
+      clearGlobal(event.getObjectInfo().getName());
+   }
+
+   @Override
+   public void onWorkspaceObjectRemoved(WorkspaceObjectRemovedEvent event)
+   {
+      clearGlobal(event.getObjectName());
+   }
+
+   @Override
+   public void onWorkspaceRefresh(WorkspaceRefreshEvent event)
+   {
+      // (any global may have changed)
+      generation_++;
+      Iterator<String> keys = definitions_.keySet().iterator();
+      while (keys.hasNext())
+      {
+         if (keys.next().startsWith(GLOBAL_ENV + ":::"))
+            keys.remove();
+      }
+      lookups_.clear();
+      prefetchQueue_.clear();
+   }
+
+   // drop what may have changed with the (re)definition of a global
+   private void clearGlobal(String name)
+   {
+      // results of requests made before now are no longer cached
+      generation_++;
+      definitions_.remove(key(GLOBAL_ENV, name));
+      Iterator<String> keys = lookups_.keySet().iterator();
+      while (keys.hasNext())
+      {
+         if (keys.next().endsWith("\n" + name))
+            keys.remove();
+      }
+   }
+
+   public void clear()
+   {
+      // results of requests made before now are no longer cached
+      generation_++;
+      definitions_.clear();
+      lookups_.clear();
+      prefetchQueue_.clear();
+   }
+
+   // lookups are made one at a time so they don't hold up the session
+   private void prefetchNext()
+   {
+      if (prefetchInFlight_ || prefetchQueue_.isEmpty())
+         return;
+
+      String[] next = prefetchQueue_.removeFirst();
+      final String namespace = next[0];
+      final String name = next[1];
+      final int generation = generation_;
+
+      prefetchInFlight_ = true;
+      server_.findFunctionInSearchPath(
+            name,
+            name.length(),
+            namespace,
+            new ServerRequestCallback<SearchPathFunctionDefinition>()
+            {
+               @Override
+               public void onResponseReceived(
+                                 SearchPathFunctionDefinition functionDef)
+               {
+                  prefetchInFlight_ = false;
+                  if (generation == generation_)
+                  {
+                     // names which aren't found are remembered (as null)
+                     // so they aren't looked up again
+                     boolean found = functionDef != null &&
+                                     functionDef.getNamespace() != null;
+                     lookups_.put(lookupKey(namespace, name),
+                                  found ? functionDef : null);
+                     if (found)
+                        put(functionDef);
+                  }
+                  prefetchNext();
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  prefetchInFlight_ = false;
+                  prefetchQueue_.clear();
+               }
+            });
+   }
+
+   private static String key(String namespace, String name)
+   {
+      return namespace + ":::" + name;
+   }
+
+   private static String lookupKey(String fromNamespace, String name)
+   {
+      return fromNamespace + "\n" + name;
+   }
+
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, SearchPathFunctionDefinition>
+      definitions_ = new LinkedHashMap<String, SearchPathFunctionDefinition>(
+                                                   MAX_ENTRIES, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(
+                     Map.Entry<String, SearchPathFunctionDefinition> e)
+         {
+            return size() > MAX_ENTRIES;
+         }
+      };
+
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, SearchPathFunctionDefinition>
+      lookups_ = new LinkedHashMap<String, SearchPathFunctionDefinition>(
+                                                   MAX_LOOKUPS, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(
+                     Map.Entry<String, SearchPathFunctionDefinition> e)
+         {
+            return size() > MAX_LOOKUPS;
+         }
+      };
+
+   private final HashMap<String,
+                 ArrayList<ServerRequestCallback<SearchPathFunctionDefinition>>>
+      pending_ = new HashMap<String,
+                 ArrayList<ServerRequestCallback<SearchPathFunctionDefinition>>>();
+
+   private final LinkedList<String[]> prefetchQueue_ =
+                                                   new LinkedList<String[]>();
+   private boolean prefetchInFlight_;
+   private int generation_;
+
+   private final CodeSearchServerOperations server_;
+
+   private static final String GLOBAL_ENV = ".GlobalEnv";
+
+   // an identifier followed by an open paren; group 2 captures a preceding
+   // qualifier ($, @ or ::) so that those calls can be skipped
+   private static final Pattern CALL_PATTERN = Pattern.create(
+         "(^|[^A-Za-z0-9._$@:])([$@:]*)([A-Za-z.][A-Za-z0-9._]*)(?=\\s*\\()");
+
+   private static final HashSet<String> KEYWORDS = new HashSet<String>(
+         Arrays.asList("if", "for", "while", "function", "return", "switch",
+                       "repeat"));
+
+   private static final int MAX_ENTRIES = 100;
+   private static final int MAX_LOOKUPS = 500;
+   private static final int MAX_PREFETCH = 20;
+}
@@ -191,6 +191,9 @@ public abstract class
    public abstract AppCommand helpUsingRStudio();
    public abstract AppCommand helpKeyboardShortcuts();
    public abstract AppCommand showRequestLog();
+   public abstract AppCommand showWorkerTimings();
+   public abstract AppCommand showShellInputLatency();
+   public abstract AppCommand showGraphImageStats();
    public abstract AppCommand logFocusedElement();
    public abstract AppCommand debugForceTopsToZero();
 
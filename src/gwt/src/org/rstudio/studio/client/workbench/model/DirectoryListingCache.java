@@ -0,0 +1,233 @@
+/*
+ * DirectoryListingCache.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.rstudio.core.client.files.FileSystemItem;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.files.events.FileChangeEvent;
+import org.rstudio.studio.client.workbench.views.files.events.FileChangeHandler;
+import org.rstudio.studio.client.workbench.views.files.model.FileListingPage;
+import org.rstudio.studio.client.workbench.views.files.model.FilesServerOperations;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+// LRU cache of directory listings shared by all file dialogs. listings
+// are dropped whenever a file change is reported within the directory;
+// since changes are only reported for monitored directories, listings
+// of monitored directories become stale after a short TTL and listings of
+// other directories are stale immediately (stale listings are shown while
+// they're revalidated)
+@Singleton
+public class DirectoryListingCache implements FileChangeHandler
+{
+   public class Listing
+   {
+      private Listing(FileSystemItem[] contents, boolean monitored)
+      {
+         contents_ = contents;
+         monitored_ = monitored;
+         fetchedAt_ = System.currentTimeMillis();
+      }
+
+      public FileSystemItem[] getContents()
+      {
+         return contents_;
+      }
+
+      public boolean isStale()
+      {
+         return !monitored_ ||
+                System.currentTimeMillis() - fetchedAt_ > TTL_MS;
+      }
+
+      public boolean isMonitored()
+      {
+         return monitored_;
+      }
+
+      private final FileSystemItem[] contents_;
+      private final boolean monitored_;
+      private final long fetchedAt_;
+   }
+
+   @Inject
+   public DirectoryListingCache(FilesServerOperations server,
+                                EventBus eventBus)
+   {
+      server_ = server;
+      eventBus.addHandler(FileChangeEvent.TYPE, this);
+   }
+
+   // returns the cached listing for the path (or null if there is none)
+   public Listing get(String path)
+   {
+      return listings_.get(normalize(path));
+   }
+
+   public void invalidate(String path)
+   {
+      listings_.remove(normalize(path));
+   }
+
+   // list the directory from the server, caching the result. concurrent
+   // requests for the same directory share a single server call
+   public void fetch(String path,
+                     ServerRequestCallback<Listing> requestCallback)
+   {
+      final String key = normalize(path);
+
+      ArrayList<ServerRequestCallback<Listing>> pending = pending_.get(key);
+      if (pending != null)
+      {
+         if (requestCallback != null)
+            pending.add(requestCallback);
+         return;
+      }
+
+      final ArrayList<ServerRequestCallback<Listing>> callbacks =
+                           new ArrayList<ServerRequestCallback<Listing>>();
+      if (requestCallback != null)
+         callbacks.add(requestCallback);
+      pending_.put(key, callbacks);
+
+      // (the dialogs sort the listing themselves)
+      server_.listFilesPaged(
+            FileSystemItem.createDir(key),
+            false, // since this is used for the file dialog don't
+                   // cause the call to reset the server monitoring state
+            "name",
+            true,
+            0,
+            -1,
+            new ServerRequestCallback<FileListingPage>()
+            {
+               @Override
+               public void onResponseReceived(FileListingPage response)
+               {
+                  pending_.remove(key);
+
+                  JsArray<FileSystemItem> files = response.getFiles();
+                  FileSystemItem[] contents =
+                                    new FileSystemItem[files.length()];
+                  for (int i = 0; i < files.length(); i++)
+                     contents[i] = files.get(i);
+
+                  Listing listing = new Listing(contents,
+                                                response.isMonitored());
+                  listings_.put(key, listing);
+
+                  for (ServerRequestCallback<Listing> callback : callbacks)
+                     callback.onResponseReceived(listing);
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  pending_.remove(key);
+
+                  for (ServerRequestCallback<Listing> callback : callbacks)
+                     callback.onError(error);
+               }
+            });
+   }
+
+   // prefetch the parent of the directory as well as recently listed
+   // monitored siblings which have become stale (other siblings would be
+   // stale again by the time they're used)
+   public void prefetchNeighbors(String path)
+   {
+      FileSystemItem dir = FileSystemItem.createDir(normalize(path));
+      FileSystemItem parent = dir.getParentPath();
+      if (parent == null)
+         return;
+
+      int prefetched = 0;
+      Listing parentListing = get(parent.getPath());
+      if (parentListing == null || parentListing.isStale())
+      {
+         fetch(parent.getPath(), null);
+         prefetched++;
+      }
+
+      // iterate from most to least recently used
+      ArrayList<String> keys = new ArrayList<String>(listings_.keySet());
+      for (int i = keys.size() - 1;
+           i >= 0 && prefetched < MAX_SIBLING_PREFETCH;
+           i--)
+      {
+         String key = keys.get(i);
+         if (key.equals(dir.getPath()))
+            continue;
+
+         FileSystemItem sibling = FileSystemItem.createDir(key);
+         if (sibling.getParentPath() != null &&
+             sibling.getParentPath().equalTo(parent) &&
+             listings_.get(key).isMonitored() &&
+             listings_.get(key).isStale())
+         {
+            fetch(key, null);
+            prefetched++;
+         }
+      }
+   }
+
+   @Override
+   public void onFileChange(FileChangeEvent event)
+   {
+      FileSystemItem file = event.getFileChange().getFile();
+
+      // a directory's contents were changed (or it was removed)
+      FileSystemItem parent = file.getParentPath();
+      if (parent != null)
+         invalidate(parent.getPath());
+      if (file.isDirectory())
+         invalidate(file.getPath());
+   }
+
+   private String normalize(String path)
+   {
+      if (path.length() > 1 && path.endsWith("/"))
+         return path.substring(0, path.length() - 1);
+      else
+         return path;
+   }
+
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, Listing> listings_ =
+      new LinkedHashMap<String, Listing>(MAX_ENTRIES, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, Listing> e)
+         {
+            return size() > MAX_ENTRIES;
+         }
+      };
+
+   private final HashMap<String, ArrayList<ServerRequestCallback<Listing>>>
+      pending_ = new HashMap<String, ArrayList<ServerRequestCallback<Listing>>>();
+
+   private final FilesServerOperations server_;
+
+   private static final int MAX_ENTRIES = 50;
+   private static final int MAX_SIBLING_PREFETCH = 3;
+   private static final long TTL_MS = 10000;
+}
@@ -12,7 +12,6 @@
  */
 package org.rstudio.studio.client.workbench.model;
 
-import com.google.gwt.core.client.JsArray;
 import com.google.gwt.resources.client.ImageResource;
 import com.google.inject.Inject;
 import org.rstudio.core.client.MessageDisplay;
@@ -26,17 +25,17 @@ import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.Void;
 import org.rstudio.studio.client.workbench.views.files.model.FilesServerOperations;
 
-import java.util.ArrayList;
-
 public class RemoteFileSystemContext extends PosixFileSystemContext
 {
    @Inject
    public RemoteFileSystemContext(FilesServerOperations server,
+                                  DirectoryListingCache listingCache,
                                   FileTypeRegistry fileTypeRegistry,
                                   GlobalDisplay globalDisplay)
    {
       super();
       server_ = server;
+      listingCache_ = listingCache;
       fileTypeRegistry_ = fileTypeRegistry;
       globalDisplay_ = globalDisplay;
    }
@@ -49,38 +48,70 @@ public class RemoteFileSystemContext extends PosixFileSystemContext
    public void cd(String relativeOrAbsolutePath)
    {
       final String newPath = combine(workingDir_, relativeOrAbsolutePath);
+      final int navigation = ++navigations_;
 
-      final FileSystemItem newPathEntry = FileSystemItem.createDir(newPath);
-      
-      final ArrayList<FileSystemItem> fsi = new ArrayList<FileSystemItem>();
+      // serve cached listings immediately. if the listing is stale then
+      // it's displayed as such while it's being revalidated
+      final DirectoryListingCache.Listing cached = listingCache_.get(newPath);
+      if (cached != null)
+      {
+         workingDir_ = newPath;
+         contents_ = cached.getContents();
+         stale_ = cached.isStale();
+         callbacks_.onNavigated();
+         
+         if (!stale_)
+         {
+            listingCache_.prefetchNeighbors(newPath);
+            return;
+         }
+      }
 
-      server_.listFiles(
-            newPathEntry,
-            false, // since this is used for the file dialog don't 
-                   // cause the call to reset the server monitoring state
-            new ServerRequestCallback<JsArray<FileSystemItem>>()
+      listingCache_.fetch(
+            newPath,
+            new ServerRequestCallback<DirectoryListingCache.Listing>()
             {
                @Override
                public void onError(ServerError error)
                {
+                  // the cached listing (if any) couldn't be revalidated so
+                  // don't serve it again. if it's still displayed then it
+                  // remains marked as stale
+                  listingCache_.invalidate(newPath);
+                  
+                  // the user has since navigated elsewhere
+                  if (navigation != navigations_)
+                     return;
+                  
                   callbacks_.onError(error.getUserMessage());
                }
 
                @Override
-               public void onResponseReceived(final JsArray<FileSystemItem> response)
+               public void onResponseReceived(
+                                 DirectoryListingCache.Listing response)
                { 
-                  for (int i = 0; i < response.length(); i++)
-                     fsi.add(response.get(i));
+                  if (navigation != navigations_)
+                     return;
                   
                   workingDir_ = newPath;
-                  contents_ = fsi.toArray(new FileSystemItem[0]);
+                  contents_ = response.getContents();
+                  stale_ = false;
                   callbacks_.onNavigated();
+                  
+                  listingCache_.prefetchNeighbors(newPath);
                }
             });
    }
 
+   @Override
+   public boolean isStale()
+   {
+      return stale_;
+   }
+
    public void refresh()
    {
+      listingCache_.invalidate(workingDir_);
       cd(workingDir_);
    }
 
@@ -109,6 +140,7 @@ public class RemoteFileSystemContext extends PosixFileSystemContext
                @Override
                public void onResponseReceived(Void response)
                {
+                  listingCache_.invalidate(baseDir);
                   if (baseDir.equals(workingDir_))
                   {
                      progress.onCompleted();
@@ -124,6 +156,9 @@ public class RemoteFileSystemContext extends PosixFileSystemContext
    }
 
    private final FilesServerOperations server_;
+   private final DirectoryListingCache listingCache_;
+   private boolean stale_ = false;
+   private int navigations_ = 0;
    private final FileTypeRegistry fileTypeRegistry_;
    private final GlobalDisplay globalDisplay_;
 }
@@ -67,6 +67,20 @@ public class UIPrefsAccessor extends Prefs
       return integer("print_margin_column", 80);
    }
 
+   // how long the plots pane size has to be stable before the plot is
+   // re-rendered at the new size (it is scaled in the browser until then)
+   public PrefValue<Integer> plotResizeQuietPeriod()
+   {
+      return integer("plot_resize_quiet_period", 500);
+   }
+
+   // re-render manipulate() plots while a slider is being dragged (rather
+   // than only when it is released)
+   public PrefValue<Boolean> manipulatorLiveUpdates()
+   {
+      return bool("manipulator_live_updates", true);
+   }
+
    public PrefValue<Boolean> insertMatching()
    {
       return bool("insert_matching", true);
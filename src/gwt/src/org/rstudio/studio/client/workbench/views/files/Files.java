@@ -46,6 +46,8 @@ import org.rstudio.studio.client.workbench.model.helper.StringStateValue;
 import org.rstudio.studio.client.workbench.views.BasePresenter;
 import org.rstudio.studio.client.workbench.views.files.events.*;
 import org.rstudio.studio.client.workbench.views.files.model.FileChange;
+import org.rstudio.studio.client.workbench.views.files.model.FileListingPage;
+import org.rstudio.studio.client.workbench.views.files.model.FileListingPager;
 import org.rstudio.studio.client.workbench.views.files.model.FilesServerOperations;
 import org.rstudio.studio.client.workbench.views.files.model.PendingFileUpload;
 
@@ -80,7 +82,7 @@ public class Files
       void setColumnSortOrder(JsArray<ColumnSortInfo> sortOrder);
       
       void listDirectory(FileSystemItem directory, 
-                         ServerDataSource<JsArray<FileSystemItem>> filesDS);
+                         FileListingPager filesPager);
       
       void updateDirectoryListing(FileChange action);
       
@@ -292,7 +294,7 @@ public class Files
    @Handler
    void onRefreshFiles()
    {
-      view_.listDirectory(currentPath_, currentPathFilesDS_);
+      view_.listDirectory(currentPath_, currentPathFilesPager_);
    }
 
    @Handler
@@ -592,20 +594,30 @@ public class Files
    {
       hasNavigatedToDirectory_ = true;
       currentPath_ = directoryEntry;
-      view_.listDirectory(currentPath_, currentPathFilesDS_);
+      view_.listDirectory(currentPath_, currentPathFilesPager_);
       session_.persistClientState();
    }
    
-   // data source for listing files on the current path which can 
+   // pager for listing files on the current path which can 
    // be passed to the files view
-   ServerDataSource<JsArray<FileSystemItem>> currentPathFilesDS_ = 
-      new ServerDataSource<JsArray<FileSystemItem>>()
+   FileListingPager currentPathFilesPager_ = new FileListingPager()
       {
-         public void requestData(
-               ServerRequestCallback<JsArray<FileSystemItem>> requestCallback)
+         public void requestPage(
+               String sortKey,
+               boolean ascending,
+               int offset,
+               int limit,
+               ServerRequestCallback<FileListingPage> requestCallback)
          {
-            // pass true to enable monitoring for all calls to list_files
-            server_.listFiles(currentPath_, true, requestCallback);
+            // enable monitoring when requesting the first page (subsequent
+            // pages are covered by the monitor started for the first)
+            server_.listFilesPaged(currentPath_, 
+                                   offset == 0,
+                                   sortKey,
+                                   ascending,
+                                   offset,
+                                   limit,
+                                   requestCallback);
          }
       };
 
@@ -13,6 +13,8 @@
 package org.rstudio.studio.client.workbench.views.files;
 
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
 import com.google.gwt.user.client.ui.Widget;
@@ -26,12 +28,13 @@ import org.rstudio.core.client.widget.Toolbar;
 import org.rstudio.studio.client.common.FileDialogs;
 import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
-import org.rstudio.studio.client.server.ServerDataSource;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.model.RemoteFileSystemContext;
 import org.rstudio.studio.client.workbench.ui.WorkbenchPane;
 import org.rstudio.studio.client.workbench.views.files.model.FileChange;
+import org.rstudio.studio.client.workbench.views.files.model.FileListingPage;
+import org.rstudio.studio.client.workbench.views.files.model.FileListingPager;
 import org.rstudio.studio.client.workbench.views.files.model.PendingFileUpload;
 import org.rstudio.studio.client.workbench.views.files.ui.*;
 
@@ -94,16 +97,21 @@ public class FilesPane extends WorkbenchPane implements Files.Display
    }
     
    public void listDirectory(final FileSystemItem directory, 
-                             ServerDataSource<JsArray<FileSystemItem>> dataSource)
+                             final FileListingPager pager)
    {
       setProgress(true);
         
-      dataSource.requestData(new ServerRequestCallback<JsArray<FileSystemItem>>(){
-         public void onResponseReceived(JsArray<FileSystemItem> response)
+      pager.requestPage(
+            filesList_.getSortKey(),
+            filesList_.isSortAscending(),
+            0,
+            FilesList.PAGE_SIZE,
+            new ServerRequestCallback<FileListingPage>(){
+         public void onResponseReceived(FileListingPage response)
          {
             setProgress(false);
             filePathToolbar_.setPath(directory.getPath());
-            filesList_.displayFiles(directory, response); 
+            filesList_.displayFiles(directory, response, pager); 
          }
          public void onError(ServerError error)
          {
@@ -126,12 +134,35 @@ public class FilesPane extends WorkbenchPane implements Files.Display
       if (filesList_ != null) // can be called by file_changed event
                              // prior to widget creation
       {
-         filesList_.updateWithAction(fileAction);
+         // coalesce all changes received within the same event loop
+         // (e.g. a build step touching many files) into a single update
+         pendingFileChanges_.add(fileAction);
+         if (pendingFileChanges_.size() == 1)
+         {
+            Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+               @Override
+               public void execute()
+               {
+                  applyPendingFileChanges();
+               }
+            });
+         }
       }
    }
    
+   private void applyPendingFileChanges()
+   {
+      if (pendingFileChanges_.isEmpty())
+         return;
+      
+      ArrayList<FileChange> changes = pendingFileChanges_;
+      pendingFileChanges_ = new ArrayList<FileChange>();
+      filesList_.updateWithActions(changes);
+   }
+   
    public void renameFile(FileSystemItem from, FileSystemItem to)
    {
+      applyPendingFileChanges();
       filesList_.renameFile(from, to);
    }
     
@@ -225,6 +256,8 @@ public class FilesPane extends WorkbenchPane implements Files.Display
 
    private boolean needsInit = false;
    private FilesList filesList_ ;
+   private ArrayList<FileChange> pendingFileChanges_ = 
+                                             new ArrayList<FileChange>();
    private FilePathToolbar filePathToolbar_;
    private final GlobalDisplay globalDisplay_ ;
    private final FileDialogs fileDialogs_;
@@ -0,0 +1,50 @@
+/*
+ * FileListingPage.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.files.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+
+import org.rstudio.core.client.files.FileSystemItem;
+
+public class FileListingPage extends JavaScriptObject
+{
+   protected FileListingPage()
+   {
+   }
+
+   // files within the page (in server sort order)
+   public final native JsArray<FileSystemItem> getFiles() /*-{
+      return this.files;
+   }-*/;
+
+   // offset of the first file of the page within the full listing
+   public final native int getOffset() /*-{
+      return this.offset;
+   }-*/;
+
+   // total number of files in the directory
+   public final native int getTotal() /*-{
+      return this.total;
+   }-*/;
+
+   // whether file changes within the directory are being reported
+   public final native boolean isMonitored() /*-{
+      return !!this.monitored;
+   }-*/;
+
+   public final boolean isComplete()
+   {
+      return getOffset() == 0 && getFiles().length() >= getTotal();
+   }
+}
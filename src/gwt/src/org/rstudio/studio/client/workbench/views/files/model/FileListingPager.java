@@ -0,0 +1,30 @@
+/*
+ * FileListingPager.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.files.model;
+
+import org.rstudio.studio.client.server.ServerRequestCallback;
+
+// data source for paged listings of a directory
+public interface FileListingPager
+{
+   public static final String SORT_NAME = "name";
+   public static final String SORT_TYPE = "type";
+   public static final String SORT_SIZE = "size";
+   public static final String SORT_MODIFIED = "modified";
+
+   void requestPage(String sortKey,
+                    boolean ascending,
+                    int offset,
+                    int limit,
+                    ServerRequestCallback<FileListingPage> requestCallback);
+}
@@ -31,6 +31,16 @@ public interface FilesServerOperations extends GitServerOperations
                   boolean monitor,
                   ServerRequestCallback<JsArray<FileSystemItem>> requestCallback);
 
+   // get a page of a file listing sorted by the specified key (one of
+   // the FileListingPager sort keys). a negative limit returns all files
+   void listFilesPaged(FileSystemItem directory,
+                       boolean monitor,
+                       String sortKey,
+                       boolean ascending,
+                       int offset,
+                       int limit,
+                       ServerRequestCallback<FileListingPage> requestCallback);
+
    void listAllFiles(String path,
                      String pattern,
                      ServerRequestCallback<JsArrayString> requestCallback);
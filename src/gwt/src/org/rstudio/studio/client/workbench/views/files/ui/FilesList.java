@@ -13,11 +13,17 @@
 package org.rstudio.studio.client.workbench.views.files.ui;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.rstudio.core.client.Debug;
+import org.rstudio.core.client.Invalidation;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.cellview.ColumnSortInfo;
 import org.rstudio.core.client.cellview.LinkColumn;
@@ -25,13 +31,19 @@ import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.widget.OperationWithInput;
 import org.rstudio.studio.client.common.filetypes.FileIconResources;
 import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.files.Files;
 import org.rstudio.studio.client.workbench.views.files.model.FileChange;
+import org.rstudio.studio.client.workbench.views.files.model.FileListingPage;
+import org.rstudio.studio.client.workbench.views.files.model.FileListingPager;
 
 import com.google.gwt.cell.client.CheckboxCell;
 import com.google.gwt.cell.client.ImageResourceCell;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.resources.client.ImageResource;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.safehtml.shared.SafeHtmlUtils;
@@ -42,7 +54,9 @@ import com.google.gwt.user.cellview.client.ColumnSortList;
 import com.google.gwt.user.cellview.client.TextColumn;
 import com.google.gwt.user.cellview.client.ColumnSortEvent.Handler;
 import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.FlowPanel;
 import com.google.gwt.user.client.ui.HasVerticalAlignment;
+import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.view.client.DefaultSelectionEventManager;
 import com.google.gwt.view.client.ListDataProvider;
@@ -85,10 +99,31 @@ public class FilesList extends Composite
       // initialize sorting
       addColumnSortHandler();
       
+      // status label shown when only part of a directory is loaded
+      pagingStatus_ = new Label();
+      pagingStatus_.getElement().getStyle().setPadding(4, Unit.PX);
+      pagingStatus_.setVisible(false);
+      FlowPanel filesPanel = new FlowPanel();
+      filesPanel.add(filesCellTable_);
+      filesPanel.add(pagingStatus_);
+      
       // enclose in scroll panel
       scrollPanel_ = new ScrollPanel();
       initWidget(scrollPanel_);
-      scrollPanel_.setWidget(filesCellTable_);   
+      scrollPanel_.setWidget(filesPanel);   
+      
+      // fetch further pages as the end of the list is scrolled into view
+      scrollPanel_.addScrollHandler(new ScrollHandler() {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            int remaining = scrollPanel_.getElement().getScrollHeight() - 
+                            scrollPanel_.getVerticalScrollPosition() -
+                            scrollPanel_.getOffsetHeight();
+            if (remaining < LOAD_AHEAD_PX)
+               loadNextPage();
+         }
+      });
    }
    
    private Column<FileSystemItem, Boolean> addSelectionColumn()
@@ -140,7 +175,9 @@ public class FilesList extends Composite
                                 SafeHtmlUtils.fromSafeConstant("<br/>"));
       filesCellTable_.setColumnWidth(iconColumn, 20, Unit.PX);
     
-      sortHandler_.setComparator(iconColumn, new FilesListComparator() {
+      setComparator(iconColumn, 
+                    FileListingPager.SORT_TYPE,
+                    new FilesListComparator() {
          @Override
          public int doCompare(FileSystemItem arg0, FileSystemItem arg1)
          {
@@ -180,7 +217,9 @@ public class FilesList extends Composite
       nameColumn.setSortable(true);
       filesCellTable_.addColumn(nameColumn, "Name");
       
-      sortHandler_.setComparator(nameColumn, new FilesListComparator() {
+      setComparator(nameColumn, 
+                    FileListingPager.SORT_NAME,
+                    new FilesListComparator() {
          @Override
          public int doCompare(FileSystemItem arg0, FileSystemItem arg1)
          {
@@ -207,7 +246,9 @@ public class FilesList extends Composite
       filesCellTable_.addColumn(sizeColumn, "Size");
       filesCellTable_.setColumnWidth(sizeColumn, 80, Unit.PX);
       
-      sortHandler_.setComparator(sizeColumn, new FoldersOnBottomComparator() {
+      setComparator(sizeColumn, 
+                    FileListingPager.SORT_SIZE,
+                    new FoldersOnBottomComparator() {
          @Override
          public int doItemCompare(FileSystemItem arg0, FileSystemItem arg1)
          {
@@ -235,7 +276,9 @@ public class FilesList extends Composite
       filesCellTable_.addColumn(modColumn, "Modified");
       filesCellTable_.setColumnWidth(modColumn, 160, Unit.PX); 
       
-      sortHandler_.setComparator(modColumn, new FoldersOnBottomComparator() {
+      setComparator(modColumn, 
+                    FileListingPager.SORT_MODIFIED,
+                    new FoldersOnBottomComparator() {
          @Override
          public int doItemCompare(FileSystemItem arg0, FileSystemItem arg1)
          {
@@ -246,6 +289,15 @@ public class FilesList extends Composite
       return modColumn;
    }
    
+   private void setComparator(Column<FileSystemItem, ?> column,
+                              String sortKey,
+                              Comparator<FileSystemItem> comparator)
+   {
+      sortKeys_.put(column, sortKey);
+      comparators_.put(column, comparator);
+      sortHandler_.setComparator(column, comparator);
+   }
+   
    private void addColumnSortHandler()
    {
       filesCellTable_.addColumnSortHandler(new Handler() {
@@ -303,8 +355,17 @@ public class FilesList extends Composite
             // record active sort column ascending state
             activeSortColumnAscending_ = event.isSortAscending();
             
-            // delegate the sort
-            sortHandler_.onColumnSort(event);
+            // if we only have part of the listing then the server needs
+            // to re-sort it, otherwise delegate the sort
+            if (pager_ != null && !applyingProgrammaticSort_)
+            {
+               reloadFirstPage();
+            }
+            else
+            {
+               sortHandler_.onColumnSort(event);
+               invalidateRowIndex();
+            }
          }
          
          private native final JsArray<ColumnSortInfo> newSortOrderArray()
@@ -333,6 +394,40 @@ public class FilesList extends Composite
    }
    
    
+   // sort key and direction to request listing pages with
+   public String getSortKey()
+   {
+      ColumnSortList sortList = filesCellTable_.getColumnSortList();
+      if (sortList.size() == 0)
+         return FileListingPager.SORT_NAME;
+      
+      String sortKey = sortKeys_.get(sortList.get(0).getColumn());
+      return sortKey != null ? sortKey : FileListingPager.SORT_NAME;
+   }
+   
+   public boolean isSortAscending()
+   {
+      ColumnSortList sortList = filesCellTable_.getColumnSortList();
+      return sortList.size() == 0 || sortList.get(0).isAscending();
+   }
+   
+   // display the first page of a (possibly paged) listing. if the listing
+   // is incomplete then further pages are fetched from the pager on scroll
+   public void displayFiles(FileSystemItem containingPath,
+                            FileListingPage page,
+                            FileListingPager pager)
+   {
+      pageInvalidation_.invalidate();
+      pageRequestPending_ = false;
+      pager_ = page.isComplete() ? null : pager;
+      totalFiles_ = page.getTotal();
+      
+      displayFiles(containingPath, page.getFiles());
+      
+      scrollPanel_.scrollToTop();
+      updatePagingStatus();
+   }
+   
    public void displayFiles(FileSystemItem containingPath, 
                             JsArray<FileSystemItem> files)
    {
@@ -357,6 +452,7 @@ public class FilesList extends Composite
       // add files to table
       for (int i=0; i<files.length(); i++)
          fileList.add(files.get(i));
+      invalidateRowIndex();
            
       // apply sort list
       applyColumnSortList();
@@ -390,71 +486,168 @@ public class FilesList extends Composite
    }
    
    public void updateWithAction(FileChange viewAction)
-   {        
-      final FileSystemItem file = viewAction.getFile();
+   {
+      ArrayList<FileChange> changes = new ArrayList<FileChange>();
+      changes.add(viewAction);
+      updateWithActions(changes);
+   }
+   
+   // apply a batch of file changes to the list. changes are first reduced
+   // to their net effect per path (so e.g. a delete followed by a re-add,
+   // as occurs when gedit saves a text file, becomes a single update) and
+   // are then applied with at most one pass over the existing rows
+   public void updateWithActions(List<FileChange> changes)
+   {
+      if (containingPath_ == null || changes.isEmpty())
+         return;
+      
       final List<FileSystemItem> files = getFiles();
-      switch(viewAction.getType())
+      final Map<String, Integer> rowIndex = getRowIndex();
+      
+      // net change for each path (null value indicates a delete)
+      LinkedHashMap<String, FileSystemItem> pending = 
+                              new LinkedHashMap<String, FileSystemItem>();
+      for (FileChange change : changes)
       {
-      case FileChange.ADD:
-         if (file.getParentPath().equalTo(containingPath_))
+         FileSystemItem file = change.getFile();
+         String path = file.getPath();
+         boolean present = pending.containsKey(path) ? 
+                                          pending.get(path) != null :
+                                          rowIndex.containsKey(path);
+         switch(change.getType())
          {
-            int row = rowForFile(file);
-            if (row == -1)
+         case FileChange.ADD:
+            if (file.getParentPath().equalTo(containingPath_))
             {
-               files.add(file);
-               filesCellTable_.setPageSize(files.size() + 1);
+               if (!present)
+                  totalFiles_++;
+               pending.put(path, file);
             }
-            else
+            break;
+            
+         case FileChange.MODIFIED:
+            if (present)
+               pending.put(path, file);
+            break;
+            
+         case FileChange.DELETE:
+            if (present)
+               pending.put(path, null);
+            // (a paged listing may not have loaded the file's row, but
+            // changes are reported for other directories too)
+            if (present || (pager_ != null &&
+                            file.getParentPath().equalTo(containingPath_)))
             {
-               // since we eagerly perform renames at the client UI
-               // layer then sometimes an "added" file is really just
-               // a rename. in this case the file already exists due
-               // to the eager rename in the client but still needs its
-               // metadata updated
-               files.set(row, file);
+               totalFiles_ = Math.max(0, totalFiles_ - 1);
             }
+            break;
+            
+         default:
+            Debug.log("Unexpected file change type: " + change.getType());
+            break;
          }
-         break;
-         
-      case FileChange.MODIFIED:
+      }
+      
+      // apply updates in place and collect removals and additions
+      HashSet<Integer> removedRows = new HashSet<Integer>();
+      ArrayList<FileSystemItem> added = new ArrayList<FileSystemItem>();
+      for (Map.Entry<String, FileSystemItem> entry : pending.entrySet())
+      {
+         Integer row = rowIndex.get(entry.getKey());
+         FileSystemItem file = entry.getValue();
+         if (row != null)
          {
-            int row = rowForFile(file);
-            if (row != -1)
+            // since we eagerly perform renames at the client UI
+            // layer then sometimes an "added" file is really just
+            // a rename. in this case the file already exists due
+            // to the eager rename in the client but still needs its
+            // metadata updated
+            if (file != null)
                files.set(row, file);
+            else
+               removedRows.add(row);
          }
-         break;
- 
-      case FileChange.DELETE:
+         else if (file != null)
          {
-            int row = rowForFile(file);
-            if (row != -1)
+            added.add(file);
+         }
+      }
+      
+      Comparator<FileSystemItem> comparator = getActiveComparator();
+      
+      // when only part of the listing is loaded, additions which sort after
+      // the last loaded row will be picked up with subsequent pages
+      if (pager_ != null && comparator != null && !files.isEmpty())
+      {
+         FileSystemItem lastRow = files.get(files.size() - 1);
+         for (int i=added.size()-1; i>=0; i--)
+         {
+            if (comparator.compare(added.get(i), lastRow) > 0)
+               added.remove(i);
+         }
+      }
+      
+      if (removedRows.isEmpty() && added.isEmpty())
+      {
+         updatePagingStatus();
+         return;
+      }
+      
+      if (removedRows.isEmpty() && 
+          added.size() <= MAX_BINARY_INSERTIONS)
+      {
+         // a handful of additions: binary insert each into the sorted list
+         for (FileSystemItem file : added)
+            files.add(insertionPoint(files, file, comparator), file);
+      }
+      else
+      {
+         // merge surviving rows with the sorted additions in one pass
+         if (comparator != null)
+            Collections.sort(added, comparator);
+         
+         ArrayList<FileSystemItem> merged = new ArrayList<FileSystemItem>(
+                           files.size() - removedRows.size() + added.size());
+         int next = 0;
+         for (int i=0; i<files.size(); i++)
+         {
+            if (removedRows.contains(i))
+               continue;
+            
+            FileSystemItem file = files.get(i);
+            while (comparator != null && 
+                   next < added.size() &&
+                   comparator.compare(added.get(next), file) < 0)
             {
-               files.remove(row);
-               
-               // if a file is deleted and then re-added within the same
-               // event loop (as occurs when gedit saves a text file) the
-               // table doesn't always update correctly (it has a duplicate
-               // of the item deleted / re-added). the call to flush overcomes
-               // this issue
-               dataProvider_.flush();
+               merged.add(added.get(next++));
             }
+            merged.add(file);
          }
-         break;
-      
-      default:
-         Debug.log("Unexpected file change type: " + viewAction.getType());
+         while (next < added.size())
+            merged.add(added.get(next++));
          
-         break;
+         files.clear();
+         files.addAll(merged);
       }
+      
+      invalidateRowIndex();
+      filesCellTable_.setPageSize(files.size() + 1);
+      updatePagingStatus();
+      
+      // render the whole batch at once (this also ensures that the table
+      // doesn't end up with duplicates of rows deleted and re-added within
+      // the same event loop)
+      dataProvider_.flush();
    }
    
    public void renameFile(FileSystemItem from, FileSystemItem to)
    {
-      int index = getFiles().indexOf(from);
-      if (index != -1)
+      Integer index = getRowIndex().get(from.getPath());
+      if (index != null)
       {
          selectNone();
          getFiles().set(index, to);
+         invalidateRowIndex();
       }
    }
    
@@ -463,14 +656,175 @@ public class FilesList extends Composite
       return dataProvider_.getList();
    }
    
-   private int rowForFile(FileSystemItem file)
+   private void reloadFirstPage()
+   {
+      final FileListingPager pager = pager_;
+      final Invalidation.Token token = 
+                              pageInvalidation_.getInvalidationToken();
+      pager.requestPage(
+            getSortKey(), 
+            isSortAscending(), 
+            0, 
+            PAGE_SIZE,
+            new ServerRequestCallback<FileListingPage>() {
+               @Override
+               public void onResponseReceived(FileListingPage page)
+               {
+                  if (!token.isInvalid())
+                     displayFiles(containingPath_, page, pager);
+               }
+               
+               @Override
+               public void onError(ServerError error)
+               {
+                  Debug.logError(error);
+               }
+            });
+   }
+   
+   private void loadNextPage()
    {
+      if (pager_ == null || pageRequestPending_)
+         return;
+      
+      final int offset = getLoadedCount();
+      if (offset >= totalFiles_)
+         return;
+      
+      pageRequestPending_ = true;
+      final Invalidation.Token token = 
+                              pageInvalidation_.getInvalidationToken();
+      pager_.requestPage(
+            getSortKey(),
+            isSortAscending(),
+            offset,
+            PAGE_SIZE,
+            new ServerRequestCallback<FileListingPage>() {
+               @Override
+               public void onResponseReceived(FileListingPage page)
+               {
+                  if (token.isInvalid())
+                     return;
+                  
+                  pageRequestPending_ = false;
+                  appendPage(page);
+               }
+               
+               @Override
+               public void onError(ServerError error)
+               {
+                  if (!token.isInvalid())
+                     pageRequestPending_ = false;
+                  Debug.logError(error);
+               }
+            });
+   }
+   
+   private void appendPage(FileListingPage page)
+   {
+      // append files in server order (skipping any which were already
+      // added as a result of file change events)
       List<FileSystemItem> files = getFiles();
-      for (int i=0; i<files.size(); i++)
-         if (files.get(i).equalTo(file))
-            return i ;
+      Map<String, Integer> rowIndex = getRowIndex();
+      JsArray<FileSystemItem> pageFiles = page.getFiles();
+      for (int i=0; i<pageFiles.length(); i++)
+      {
+         FileSystemItem file = pageFiles.get(i);
+         if (!rowIndex.containsKey(file.getPath()))
+            files.add(file);
+      }
+      invalidateRowIndex();
+      filesCellTable_.setPageSize(files.size() + 1);
+      
+      totalFiles_ = page.getTotal();
+      if (pageFiles.length() == 0 || getLoadedCount() >= totalFiles_)
+         pager_ = null;
+      
+      updatePagingStatus();
+   }
+   
+   private int getLoadedCount()
+   {
+      return getFiles().size() - (parentPath_ != null ? 1 : 0);
+   }
+   
+   private void updatePagingStatus()
+   {
+      if (pager_ != null)
+      {
+         pagingStatus_.setText("Showing " + getLoadedCount() + " of " + 
+                               totalFiles_ + " items");
+         pagingStatus_.setVisible(true);
+      }
+      else
+      {
+         pagingStatus_.setVisible(false);
+      }
+   }
+   
+   // lazily (re)built index of path to row; invalidated whenever rows
+   // are added, removed, replaced, or re-sorted
+   private Map<String, Integer> getRowIndex()
+   {
+      if (rowIndex_ == null)
+      {
+         List<FileSystemItem> files = getFiles();
+         rowIndex_ = new HashMap<String, Integer>(files.size());
+         for (int i=0; i<files.size(); i++)
+         {
+            FileSystemItem file = files.get(i);
+            if (file != parentPath_)
+               rowIndex_.put(file.getPath(), i);
+         }
+      }
+      return rowIndex_;
+   }
+   
+   private void invalidateRowIndex()
+   {
+      rowIndex_ = null;
+   }
+   
+   // comparator currently used to order the list (null if not sorted)
+   private Comparator<FileSystemItem> getActiveComparator()
+   {
+      ColumnSortList sortList = filesCellTable_.getColumnSortList();
+      if (sortList.size() == 0)
+         return null;
+      
+      com.google.gwt.user.cellview.client.ColumnSortList.ColumnSortInfo sortInfo = sortList.get(0);
+      final Comparator<FileSystemItem> comparator = 
+                                    comparators_.get(sortInfo.getColumn());
+      if (comparator == null || sortInfo.isAscending())
+         return comparator;
       
-      return -1;
+      return new Comparator<FileSystemItem>() {
+         @Override
+         public int compare(FileSystemItem arg0, FileSystemItem arg1)
+         {
+            return -comparator.compare(arg0, arg1);
+         }
+      };
+   }
+   
+   private int insertionPoint(List<FileSystemItem> files,
+                              FileSystemItem file,
+                              Comparator<FileSystemItem> comparator)
+   {
+      if (comparator == null)
+         return files.size();
+      
+      int low = 0;
+      int high = files.size();
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if (comparator.compare(files.get(mid), file) <= 0)
+            low = mid + 1;
+         else
+            high = mid;
+      }
+      return low;
    }
    
    private void applyColumnSortList()
@@ -563,6 +917,20 @@ public class FilesList extends Composite
    private final TextColumn<FileSystemItem> modifiedColumn_;
    private boolean activeSortColumnAscending_ = true;
    private boolean applyingProgrammaticSort_ = false;
+   private Map<String, Integer> rowIndex_ = null;
+   private final Map<Object, Comparator<FileSystemItem>> comparators_ = 
+                              new HashMap<Object, Comparator<FileSystemItem>>();
+   private static final int MAX_BINARY_INSERTIONS = 8;
+   private final Map<Object, String> sortKeys_ = new HashMap<Object, String>();
+   
+   private FileListingPager pager_ = null;
+   private int totalFiles_ = 0;
+   private boolean pageRequestPending_ = false;
+   private final Invalidation pageInvalidation_ = new Invalidation();
+   private final Label pagingStatus_;
+   
+   public static final int PAGE_SIZE = 500;
+   private static final int LOAD_AHEAD_PX = 200;
    
    
    private final MultiSelectionModel<FileSystemItem> selectionModel_;
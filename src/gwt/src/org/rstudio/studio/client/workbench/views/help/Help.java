@@ -21,6 +21,7 @@ import org.rstudio.core.client.CsvReader;
 import org.rstudio.core.client.CsvWriter;
 import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.command.Handler;
+import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.workbench.WorkbenchList;
 import org.rstudio.studio.client.workbench.WorkbenchListManager;
 import org.rstudio.studio.client.workbench.WorkbenchView;
@@ -31,6 +32,8 @@ import org.rstudio.studio.client.workbench.views.BasePresenter;
 import org.rstudio.studio.client.workbench.views.help.events.*;
 import org.rstudio.studio.client.workbench.views.help.model.HelpServerOperations;
 import org.rstudio.studio.client.workbench.views.help.model.Link;
+import org.rstudio.studio.client.workbench.views.packages.events.InstalledPackagesChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.InstalledPackagesChangedHandler;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -51,6 +54,12 @@ public class Help extends BasePresenter implements ShowHelpHandler
       void popout() ;
       void refresh() ;
       
+      /**
+       * Drops recently viewed pages kept for back/forward navigation, so
+       * that they are loaded from the server when next shown.
+       */
+      void clearPageCache() ;
+      
       LinkMenu getHistory() ;
 
       /**
@@ -73,12 +82,23 @@ public class Help extends BasePresenter implements ShowHelpHandler
                HelpServerOperations server,
                WorkbenchListManager listManager,
                Commands commands,
-               Binder binder)
+               Binder binder,
+               EventBus eventBus)
    {
       super(view);
       server_ = server ;
       helpHistoryList_ = listManager.getHelpHistoryList();
       view_ = view;
+      
+      // cached pages may describe packages which have since changed
+      eventBus.addHandler(InstalledPackagesChangedEvent.TYPE,
+                          new InstalledPackagesChangedHandler() {
+         public void onInstalledPackagesChanged(
+                                    InstalledPackagesChangedEvent event)
+         {
+            view_.clearPageCache();
+         }
+      });
 
       binder.bind(commands, this);
 
@@ -32,7 +32,11 @@ import com.google.gwt.user.client.ui.*;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.rstudio.core.client.BrowseCap;
+import org.rstudio.core.client.Point;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.dom.ElementEx;
 import org.rstudio.core.client.dom.IFrameElementEx;
@@ -86,11 +90,20 @@ public class HelpPane extends WorkbenchPane
    @Override 
    protected Widget createMainWidget()
    {
-      frame_ = new Frame() ;
-      frame_.setSize("100%", "100%");
-      frame_.setStylePrimaryName("rstudio-HelpFrame") ;
+      framePanel_ = new FlowPanel() ;
+      framePanel_.setSize("100%", "100%");
+      frame_ = createFrame() ;
+      framePanel_.add(frame_) ;
 
-      return new AutoGlassPanel(frame_);
+      return new AutoGlassPanel(framePanel_);
+   }
+   
+   private Frame createFrame()
+   {
+      Frame frame = new Frame() ;
+      frame.setSize("100%", "100%");
+      frame.setStylePrimaryName("rstudio-HelpFrame") ;
+      return frame ;
    }
 
    @Override
@@ -150,7 +163,7 @@ public class HelpPane extends WorkbenchPane
       $wnd.helpNavigated = function(document, win) {
          thiz.@org.rstudio.studio.client.workbench.views.help.HelpPane::helpNavigated(Lcom/google/gwt/dom/client/Document;)(document);
          addEventHandler(win, "unload", function () {
-            thiz.@org.rstudio.studio.client.workbench.views.help.HelpPane::unload()();
+            thiz.@org.rstudio.studio.client.workbench.views.help.HelpPane::unload(Lorg/rstudio/core/client/dom/WindowEx;)(win);
          });
       } ;
       $wnd.helpNavigate = function(url) {
@@ -160,6 +173,11 @@ public class HelpPane extends WorkbenchPane
    
    private void helpNavigated(Document doc)
    {
+      // ignore pages in the page cache
+      WindowEx contentWindow = getContentWindow();
+      if (contentWindow == null || contentWindow.getDocument() != doc)
+         return;
+      
       NodeList<Element> elements = doc.getElementsByTagName("a") ;
       for (int i = 0; i < elements.getLength(); i++)
       {
@@ -197,8 +215,12 @@ public class HelpPane extends WorkbenchPane
       this.fireEvent(new HelpNavigateEvent(doc.getURL(), effectiveTitle)) ;
    }
 
-   private void unload()
+   private void unload(WindowEx win)
    {
+      // pages dropped from the page cache are unloaded too
+      if (win != getContentWindow())
+         return;
+      
       title_.setText("") ;
    }
 
@@ -331,9 +353,74 @@ public class HelpPane extends WorkbenchPane
       ensureWidget();
       bringToFront();
       navStack_.navigate(url) ;
-      setLocation(url);
+      showPage(url);
       navigated_ = true;
    }
+   
+   // Shows the page in a frame of its own, so that the page being left
+   // (with its scroll position) can be kept in the page cache. Going back
+   // to a cached page is then immediate, rather than R having to generate
+   // it again.
+   private void showPage(String url)
+   {
+      String currentUrl = getUrl();
+      String key = pageKey(url);
+      if (currentUrl == null || 
+          currentUrl.startsWith("about:") ||
+          key.equals(pageKey(currentUrl)))
+      {
+         // nothing to keep, or a link within the current page
+         setLocation(url);
+         return;
+      }
+      
+      CachedPage cached = pageCache_.remove(key);
+
+      // keep the page we're leaving (replacing any copy of it which is
+      // already cached, e.g. if a link within the frame went back to it)
+      CachedPage replaced = pageCache_.remove(pageKey(currentUrl));
+      if (replaced != null && replaced.frame != frame_)
+         framePanel_.remove(replaced.frame);
+      pageCache_.put(pageKey(currentUrl), 
+                     new CachedPage(frame_, 
+                                    getContentWindow().getScrollPosition()));
+      frame_.setVisible(false);
+      
+      if (cached != null)
+      {
+         frame_ = cached.frame;
+         frame_.setVisible(true);
+         
+         WindowEx contentWindow = getContentWindow();
+         contentWindow.setScrollPosition(cached.scrollPosition);
+         
+         // (a different anchor within the page doesn't reload it)
+         if (!url.equals(contentWindow.getLocationHref()))
+            contentWindow.replaceLocationHref(url);
+         
+         // the page doesn't load again, so update the title and history
+         // as if it had
+         helpNavigated(contentWindow.getDocument());
+      }
+      else
+      {
+         frame_ = createFrame();
+         framePanel_.add(frame_);
+         frame_.setUrl(url);
+      }
+   }
+   
+   public void clearPageCache()
+   {
+      for (CachedPage page : pageCache_.values())
+         framePanel_.remove(page.frame);
+      pageCache_.clear();
+   }
+   
+   private static String pageKey(String url)
+   {
+      return url.split("#")[0];
+   }
      
    private void setLocation(final String url)
    {
@@ -375,14 +462,14 @@ public class HelpPane extends WorkbenchPane
    {
       String backUrl = navStack_.back() ;
       if (backUrl != null)
-         setLocation(backUrl) ;
+         showPage(backUrl) ;
    }
 
    public void forward()
    {
       String fwdUrl = navStack_.forward() ;
       if (fwdUrl != null)
-         setLocation(fwdUrl) ;
+         showPage(fwdUrl) ;
    }
 
    public void print()
@@ -436,14 +523,48 @@ public class HelpPane extends WorkbenchPane
       }     
    }
 
+   private static class CachedPage
+   {
+      CachedPage(Frame frame, Point scrollPosition)
+      {
+         this.frame = frame;
+         this.scrollPosition = scrollPosition;
+      }
+      
+      final Frame frame;
+      final Point scrollPosition;
+   }
+
    private final VirtualHistory navStack_ = new VirtualHistory() ;
+   
+   // hidden frames holding recently viewed pages, keyed by url (without
+   // any anchor). least recently viewed are dropped first
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, CachedPage> pageCache_ =
+         new LinkedHashMap<String, CachedPage>(MAX_CACHED_PAGES, 0.75f, true)
+         {
+            @Override
+            protected boolean removeEldestEntry(
+                                 Map.Entry<String, CachedPage> eldest)
+            {
+               if (size() > MAX_CACHED_PAGES)
+               {
+                  framePanel_.remove(eldest.getValue().frame);
+                  return true;
+               }
+               return false;
+            }
+         };
    private final ToolbarLinkMenu history_ ;
  
    private Label title_ ;
    private Frame frame_ ;
+   private FlowPanel framePanel_ ;
    private final Provider<HelpSearch> searchProvider_ ;
    private GlobalDisplay globalDisplay_;
    private final Commands commands_;
    private boolean navigated_;
    private boolean initialized_;
+   
+   private static final int MAX_CACHED_PAGES = 5;
 }
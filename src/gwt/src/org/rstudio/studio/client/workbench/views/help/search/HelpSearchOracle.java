@@ -13,27 +13,105 @@
 package org.rstudio.studio.client.workbench.views.help.search;
 
 import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.SuggestOracle;
 import com.google.inject.Inject;
+import org.rstudio.core.client.Invalidation;
+import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.help.model.HelpServerOperations;
+import org.rstudio.studio.client.workbench.views.packages.events.InstalledPackagesChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.InstalledPackagesChangedHandler;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedEvent;
+import org.rstudio.studio.client.workbench.views.packages.events.PackageStatusChangedHandler;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class HelpSearchOracle extends SuggestOracle
 {
    @Inject
-   public HelpSearchOracle(HelpServerOperations server)
+   public HelpSearchOracle(HelpServerOperations server, EventBus eventBus)
    {
       server_ = server ;
+
+      // the available topics depend on which packages are loaded
+      eventBus.addHandler(PackageStatusChangedEvent.TYPE,
+                          new PackageStatusChangedHandler() {
+         public void onPackageStatusChanged(PackageStatusChangedEvent event)
+         {
+            resultCache_.clear();
+         }
+      });
+      eventBus.addHandler(InstalledPackagesChangedEvent.TYPE,
+                          new InstalledPackagesChangedHandler() {
+         public void onInstalledPackagesChanged(
+                                    InstalledPackagesChangedEvent event)
+         {
+            resultCache_.clear();
+         }
+      });
    }
 
    @Override
-   public void requestSuggestions(final Request request, 
+   public void requestSuggestions(final Request request,
                                   final Callback callback)
    {
+      // invalidate any outstanding search
+      searchInvalidation_.invalidate();
+      searchTimer_.cancel();
+
       String query = request.getQuery() ;
+
+      // exact match of a previous query
+      ArrayList<String> topics = resultCache_.get(query);
+      if (topics != null)
+      {
+         respond(request, callback, topics);
+         return;
+      }
+
+      // the server returns every topic which starts with the query, so a
+      // refinement of a previous query can be answered by filtering that
+      // query's topics (use the longest such query, it has the fewest)
+      ArrayList<String> previous = null;
+      int previousLength = 0;
+      for (Map.Entry<String, ArrayList<String>> entry : resultCache_.entrySet())
+      {
+         String previousQuery = entry.getKey();
+         if (previousQuery.length() > previousLength &&
+             query.startsWith(previousQuery))
+         {
+            previous = entry.getValue();
+            previousLength = previousQuery.length();
+         }
+      }
+      if (previous != null)
+      {
+         topics = new ArrayList<String>();
+         for (String topic : previous)
+         {
+            if (topic.startsWith(query))
+               topics.add(topic);
+         }
+         resultCache_.put(query, topics);
+         respond(request, callback, topics);
+         return;
+      }
+
+      // hit the server once typing pauses
+      pendingRequest_ = request;
+      pendingCallback_ = callback;
+      searchTimer_.schedule(SEARCH_DELAY_MILLIS);
+   }
+
+   private void search(final Request request, final Callback callback)
+   {
+      final String query = request.getQuery() ;
+      final Invalidation.Token token =
+                              searchInvalidation_.getInvalidationToken();
       server_.suggestTopics(query,
                              new ServerRequestCallback<JsArrayString>() {
          @Override
@@ -44,18 +122,34 @@ public class HelpSearchOracle extends SuggestOracle
          @Override
          public void onResponseReceived(JsArrayString suggestions)
          {
-            int maxCount = Math.min(suggestions.length(), request.getLimit());
-
-            ArrayList<SearchSuggestion> results =
-               new ArrayList<SearchSuggestion>() ;
-            for (int i = 0; i< maxCount; i++)
-               results.add(new SearchSuggestion(suggestions.get(i))) ;
-            
-            callback.onSuggestionsReady(request, new Response(results)) ;
+            ArrayList<String> topics = new ArrayList<String>();
+            for (int i = 0; i < suggestions.length(); i++)
+               topics.add(suggestions.get(i));
+            resultCache_.put(query, topics);
+
+            // a newer query has superseded this one
+            if (token.isInvalid())
+               return;
+
+            respond(request, callback, topics);
          }
       }); ;
    }
-   
+
+   private void respond(Request request,
+                        Callback callback,
+                        ArrayList<String> topics)
+   {
+      int maxCount = Math.min(topics.size(), request.getLimit());
+
+      ArrayList<SearchSuggestion> results =
+         new ArrayList<SearchSuggestion>() ;
+      for (int i = 0; i< maxCount; i++)
+         results.add(new SearchSuggestion(topics.get(i))) ;
+
+      callback.onSuggestionsReady(request, new Response(results)) ;
+   }
+
    private class SearchSuggestion implements Suggestion
    {
       public SearchSuggestion(String value)
@@ -72,9 +166,40 @@ public class HelpSearchOracle extends SuggestOracle
       {
          return value_ ;
       }
-      
+
       private final String value_ ;
    }
 
    private final HelpServerOperations server_ ;
+
+   private final Invalidation searchInvalidation_ = new Invalidation();
+
+   private Request pendingRequest_;
+   private Callback pendingCallback_;
+   private final Timer searchTimer_ = new Timer() {
+      @Override
+      public void run()
+      {
+         search(pendingRequest_, pendingCallback_);
+      }
+   };
+
+   // recent queries and the topics they matched (least recently used
+   // are dropped first)
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, ArrayList<String>> resultCache_ =
+         new LinkedHashMap<String, ArrayList<String>>(MAX_CACHED_QUERIES,
+                                                      0.75f,
+                                                      true)
+         {
+            @Override
+            protected boolean removeEldestEntry(
+                              Map.Entry<String, ArrayList<String>> eldest)
+            {
+               return size() > MAX_CACHED_QUERIES;
+            }
+         };
+
+   private static final int SEARCH_DELAY_MILLIS = 150;
+   private static final int MAX_CACHED_QUERIES = 20;
 }
@@ -13,10 +13,15 @@
 package org.rstudio.studio.client.workbench.views.packages;
 
 import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 
+import org.rstudio.core.client.Invalidation;
+import org.rstudio.core.client.Invalidation.Token;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.files.FileSystemItem;
@@ -51,14 +56,15 @@ import org.rstudio.studio.client.workbench.views.packages.model.PackageInfo;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallContext;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallOptions;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallRequest;
+import org.rstudio.studio.client.workbench.views.packages.model.PackageList;
+import org.rstudio.studio.client.workbench.views.packages.model.PackageListChanges;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageStatus;
 import org.rstudio.studio.client.workbench.views.packages.model.PackageUpdate;
 import org.rstudio.studio.client.workbench.views.packages.model.PackagesServerOperations;
 import org.rstudio.studio.client.workbench.views.packages.ui.CheckForUpdatesDialog;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 
@@ -470,8 +476,9 @@ public class Packages
    public void listPackages()
    {
       view_.setProgress(true);
-      server_.listPackages(
-            new SimpleRequestCallback<JsArray<PackageInfo>>("Error Listing Packages")
+      server_.listPackageChanges(
+            packageListFingerprint_,
+            new SimpleRequestCallback<PackageListChanges>("Error Listing Packages")
       {
          @Override
          public void onError(ServerError error)
@@ -481,21 +488,21 @@ public class Packages
          }
 
          @Override
-         public void onResponseReceived(JsArray<PackageInfo> response)
+         public void onResponseReceived(PackageListChanges changes)
          {
-            // sort the packages
-            allPackages_ = new ArrayList<PackageInfo>();
-            for (int i=0; i<response.length(); i++)
-               allPackages_.add(response.get(i));
-            Collections.sort(allPackages_, new Comparator<PackageInfo>() {
-               public int compare(PackageInfo o1, PackageInfo o2)
-               {
-                  return o1.getName().compareToIgnoreCase(o2.getName());
-               }
-            });
-            
+            packageListFingerprint_ = changes.getFingerprint();
             view_.setProgress(false);
-            setViewPackageList();
+            
+            if (changes.isEmpty())
+            {
+               // nothing installed or removed, just bring status up to date
+               updatePackageStatus(changes.getLoaded());
+            }
+            else
+            {
+               packageList_ = packageList_.withChanges(changes);
+               setViewPackageList();
+            }
          }
       });
    }
@@ -547,42 +554,100 @@ public class Packages
    public void onPackageStatusChanged(PackageStatusChangedEvent event)
    {
       PackageStatus status = event.getPackageStatus();
-      view_.setPackageStatus(status.getName(), status.isLoaded());
+      setPackageStatus(status.getName(), status.isLoaded());
+   }
+   
+   private void updatePackageStatus(JsArrayString loadedPackages)
+   {
+      HashSet<String> loaded = new HashSet<String>();
+      for (int i=0; i<loadedPackages.length(); i++)
+         loaded.add(loadedPackages.get(i));
+      
+      for (int i=0; i<packageList_.size(); i++)
+      {
+         String name = packageList_.get(i).getName();
+         setPackageStatus(name, loaded.contains(name));
+      }
+   }
+   
+   private void setPackageStatus(String packageName, boolean loaded)
+   {
+      // only the affected rows are updated (a filter in progress picks up 
+      // the new status from the package list)
+      if (packageList_.setLoaded(packageName, loaded))
+         view_.setPackageStatus(packageName, loaded);
    }
    
    private void setViewPackageList()
    {
-      ArrayList<PackageInfo> packages = null; ;
+      // abandon any filtering in progress
+      filterInvalidation_.invalidate();
       
-      // apply filter (if any)
       if (packageFilter_.length() > 0)
       {
-         packages = new ArrayList<PackageInfo>();
+         Scheduler.get().scheduleIncremental(new FilterCommand(
+                        packageList_, 
+                        packageFilter_,
+                        filterInvalidation_.getInvalidationToken()));
+      }
+      else
+      {
+         view_.listPackages(packageList_.getPackages());
+      }
+   }
+   
+   // Lists the packages whose name starts with the filter, followed by
+   // those whose name or description otherwise contains it. The list is
+   // scanned in time slices so that typing in the filter box stays
+   // responsive with many packages installed; a filter which changes again
+   // before the scan completes is abandoned.
+   private class FilterCommand implements RepeatingCommand
+   {
+      public FilterCommand(PackageList packageList, String filter, Token token)
+      {
+         list_ = packageList;
+         filter_ = filter;
+         token_ = token;
+      }
+      
+      @Override
+      public boolean execute()
+      {
+         if (token_.isInvalid())
+            return false;
          
-         // first do prefix search
-         for (PackageInfo pkgInfo : allPackages_)
+         long deadline = System.currentTimeMillis() + FILTER_SLICE_MS;
+         while (next_ < list_.size())
          {
-            if (pkgInfo.getName().toLowerCase().startsWith(packageFilter_))
-               packages.add(pkgInfo);
-         }
-         
-         // then do contains search on name & desc
-         for (PackageInfo pkgInfo : allPackages_)
-         { 
-            if (pkgInfo.getName().toLowerCase().contains(packageFilter_) ||
-                pkgInfo.getDesc().toLowerCase().contains(packageFilter_))
+            if (list_.nameStartsWith(next_, filter_))
+               prefixMatches_.add(next_);
+            else if (list_.nameOrDescContains(next_, filter_))
+               otherMatches_.add(next_);
+            next_++;
+            
+            if ((next_ % FILTER_CHECK_INTERVAL) == 0 && 
+                System.currentTimeMillis() >= deadline)
             {
-               if (!packages.contains(pkgInfo))
-                  packages.add(pkgInfo);
+               return true;
             }
          }
-      }
-      else
-      {
-         packages = allPackages_;
+         
+         ArrayList<PackageInfo> packages = new ArrayList<PackageInfo>(
+                        prefixMatches_.size() + otherMatches_.size());
+         for (Integer index : prefixMatches_)
+            packages.add(list_.get(index));
+         for (Integer index : otherMatches_)
+            packages.add(list_.get(index));
+         view_.listPackages(packages);
+         return false;
       }
       
-      view_.listPackages(packages);
+      private final PackageList list_;
+      private final String filter_;
+      private final Token token_;
+      private int next_ = 0;
+      private final ArrayList<Integer> prefixMatches_ = new ArrayList<Integer>();
+      private final ArrayList<Integer> otherMatches_ = new ArrayList<Integer>();
    }
    
    private void checkPackageStatusOnNextConsolePrompt(final String packageName)
@@ -604,7 +669,7 @@ public class Packages
                   @Override
                   public void onResponseReceived(Boolean loaded)
                   {
-                     view_.setPackageStatus(packageName, loaded);
+                     setPackageStatus(packageName, loaded);
                   }
 
                   @Override
@@ -653,12 +718,17 @@ public class Packages
 
    private final Display view_;
    private final PackagesServerOperations server_;
-   private ArrayList<PackageInfo> allPackages_ = new ArrayList<PackageInfo>();
+   private PackageList packageList_ = new PackageList();
+   private String packageListFingerprint_ = "";
    private String packageFilter_ = new String();
+   private final Invalidation filterInvalidation_ = new Invalidation();
    private HandlerRegistration consolePromptHandlerReg_ = null;
    private final EventBus events_ ;
    private final GlobalDisplay globalDisplay_ ;
    private final DefaultCRANMirror defaultCRANMirror_;
    private PackageInstallOptions installOptions_ = 
                                   PackageInstallOptions.create(true, "", true);
+   
+   private static final int FILTER_SLICE_MS = 20;
+   private static final int FILTER_CHECK_INTERVAL = 50;
 }
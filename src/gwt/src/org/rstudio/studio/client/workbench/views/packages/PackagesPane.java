@@ -43,6 +43,7 @@ import org.rstudio.studio.client.workbench.views.packages.ui.InstallPackageDialo
 import org.rstudio.studio.client.workbench.views.packages.ui.PackagesCellTableResources;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 public class PackagesPane extends WorkbenchPane implements Packages.Display
@@ -63,8 +64,19 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
 
    public void listPackages(List<PackageInfo> packages)
    {
+      // index the rows by package name (rows for the same package in 
+      // different libraries are adjacent, so only the first is indexed)
+      packageRows_.clear();
+      for (int i=0; i<packages.size(); i++)
+      {
+         String name = packages.get(i).getName();
+         if (!packageRows_.containsKey(name))
+            packageRows_.put(name, i);
+      }
+      
+      // the table updates the rows we change, so it needs a list of its own
       packagesTable_.setPageSize(packages.size());
-      packagesDataProvider_.setList(packages);
+      packagesDataProvider_.setList(new ArrayList<PackageInfo>(packages));
    }
    
    public void installPackage(PackageInstallContext installContext,
@@ -82,37 +94,20 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
    
    public void setPackageStatus(String packageName, boolean loaded)
    {
-      int row = packageRow(packageName) ;
-      
-      if (row != -1)
-      {
-         List<PackageInfo> packages = packagesDataProvider_.getList();
-        
-         packages.set(row, loaded ? packages.get(row).asLoaded() :
-                                    packages.get(row).asUnloaded());
-      }
-   }
-   
-   private int packageRow(String packageName)
-   {
-      // if we haven't retreived packages yet then return not found
-      if (packagesDataProvider_ == null)
-         return -1;
+      // (not listed if we haven't retreived packages yet, or it's filtered)
+      Integer row = packageRows_.get(packageName);
+      if (row == null)
+         return;
       
+      // only the rows which are set are redrawn
       List<PackageInfo> packages = packagesDataProvider_.getList();
-      
-      // figure out which row of the table includes this package
-      int row = -1;
-      for (int i=0; i<packages.size(); i++)
+      for (int i = row; 
+           i < packages.size() && packages.get(i).getName().equals(packageName);
+           i++)
       {
-         PackageInfo packageInfo = packages.get(i);
-         if (packageInfo.getName().equals(packageName))
-         {
-            row = i ;
-            break;
-         }
+         packages.set(i, loaded ? packages.get(i).asLoaded() :
+                                  packages.get(i).asUnloaded());
       }
-      return row ;
    }
    
    @Override
@@ -246,6 +241,8 @@ public class PackagesPane extends WorkbenchPane implements Packages.Display
          
    private CellTable<PackageInfo> packagesTable_;
    private ListDataProvider<PackageInfo> packagesDataProvider_;
+   private final HashMap<String, Integer> packageRows_ = 
+                                          new HashMap<String, Integer>();
    private SearchWidget searchWidget_;
    private PackagesDisplayObserver observer_ ;
    private final Commands commands_;
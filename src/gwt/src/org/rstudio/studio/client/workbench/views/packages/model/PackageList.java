@@ -0,0 +1,169 @@
+/*
+ * PackageList.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.packages.model;
+
+import com.google.gwt.core.client.JsArray;
+import org.rstudio.core.client.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+// The installed packages sorted by name, with the position of each package
+// indexed by name and the lowercase name and description kept for
+// filtering. A package installed in more than one library appears once
+// for each library, in adjacent positions.
+public class PackageList
+{
+   public PackageList()
+   {
+   }
+
+   public PackageList(JsArray<PackageInfo> packages)
+   {
+      this(toList(packages));
+   }
+   
+   private PackageList(List<PackageInfo> packages)
+   {
+      packages_.addAll(packages);
+      Collections.sort(packages_, new Comparator<PackageInfo>() {
+         public int compare(PackageInfo o1, PackageInfo o2)
+         {
+            return o1.getName().compareToIgnoreCase(o2.getName());
+         }
+      });
+
+      for (int i=0; i<packages_.size(); i++)
+      {
+         PackageInfo packageInfo = packages_.get(i);
+         if (!positions_.containsKey(packageInfo.getName()))
+            positions_.put(packageInfo.getName(), i);
+         lowerNames_.add(packageInfo.getName().toLowerCase());
+         lowerDescs_.add(StringUtil.notNull(packageInfo.getDesc()).toLowerCase());
+      }
+   }
+
+   // returns a new list with the changes applied
+   public PackageList withChanges(PackageListChanges changes)
+   {
+      if (changes.isFull())
+         return new PackageList(changes.getPackages());
+      
+      // keep the packages which haven't been removed or reinstalled
+      HashSet<String> replaced = new HashSet<String>();
+      JsArray<PackageInfo> removed = changes.getRemoved();
+      for (int i=0; i<removed.length(); i++)
+         replaced.add(key(removed.get(i)));
+      JsArray<PackageInfo> installed = changes.getPackages();
+      for (int i=0; i<installed.length(); i++)
+         replaced.add(key(installed.get(i)));
+      
+      HashSet<String> loaded = new HashSet<String>();
+      for (int i=0; i<changes.getLoaded().length(); i++)
+         loaded.add(changes.getLoaded().get(i));
+      
+      ArrayList<PackageInfo> packages = new ArrayList<PackageInfo>();
+      for (PackageInfo packageInfo : packages_)
+      {
+         if (replaced.contains(key(packageInfo)))
+            continue;
+         
+         // (installing a package can attach or detach others)
+         boolean isLoaded = loaded.contains(packageInfo.getName());
+         if (packageInfo.isLoaded() != isLoaded)
+         {
+            packageInfo = isLoaded ? packageInfo.asLoaded() : 
+                                     packageInfo.asUnloaded();
+         }
+         packages.add(packageInfo);
+      }
+      packages.addAll(toList(installed));
+      
+      return new PackageList(packages);
+   }
+   
+   public int size()
+   {
+      return packages_.size();
+   }
+
+   public PackageInfo get(int index)
+   {
+      return packages_.get(index);
+   }
+
+   public List<PackageInfo> getPackages()
+   {
+      return Collections.unmodifiableList(packages_);
+   }
+
+   // filter must be lowercase
+   public boolean nameStartsWith(int index, String filter)
+   {
+      return lowerNames_.get(index).startsWith(filter);
+   }
+
+   // filter must be lowercase
+   public boolean nameOrDescContains(int index, String filter)
+   {
+      return lowerNames_.get(index).contains(filter) ||
+             lowerDescs_.get(index).contains(filter);
+   }
+
+   // returns false if the package isn't in the list or already had
+   // that status
+   public boolean setLoaded(String packageName, boolean loaded)
+   {
+      Integer position = positions_.get(packageName);
+      if (position == null)
+         return false;
+
+      boolean changed = false;
+      for (int i = position;
+           i < packages_.size() && packages_.get(i).getName().equals(packageName);
+           i++)
+      {
+         PackageInfo packageInfo = packages_.get(i);
+         if (packageInfo.isLoaded() != loaded)
+         {
+            packages_.set(i, loaded ? packageInfo.asLoaded() :
+                                      packageInfo.asUnloaded());
+            changed = true;
+         }
+      }
+      return changed;
+   }
+
+   private static String key(PackageInfo packageInfo)
+   {
+      return packageInfo.getLibrary() + "/" + packageInfo.getName();
+   }
+   
+   private static List<PackageInfo> toList(JsArray<PackageInfo> packages)
+   {
+      ArrayList<PackageInfo> list = new ArrayList<PackageInfo>();
+      for (int i=0; i<packages.length(); i++)
+         list.add(packages.get(i));
+      return list;
+   }
+
+   private final ArrayList<PackageInfo> packages_ = new ArrayList<PackageInfo>();
+   private final HashMap<String, Integer> positions_ =
+                                          new HashMap<String, Integer>();
+   private final ArrayList<String> lowerNames_ = new ArrayList<String>();
+   private final ArrayList<String> lowerDescs_ = new ArrayList<String>();
+}
@@ -0,0 +1,60 @@
+/*
+ * PackageListChanges.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.packages.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+
+// The installed packages which have changed since the package list with
+// the given fingerprint was fetched (or all of them, if the server no
+// longer knows about that list)
+public class PackageListChanges extends JavaScriptObject
+{
+   protected PackageListChanges()
+   {
+   }
+   
+   // identifies this version of the package list, pass it when asking
+   // for the next changes
+   public final native String getFingerprint() /*-{
+      return this.fingerprint;
+   }-*/;
+   
+   // true if getPackages() is the complete list of installed packages
+   public final native boolean isFull() /*-{
+      return this.full;
+   }-*/;
+   
+   // packages which have been installed or reinstalled
+   public final native JsArray<PackageInfo> getPackages() /*-{
+      return this.packages;
+   }-*/;
+   
+   // packages which have been removed (only name and library are set)
+   public final native JsArray<PackageInfo> getRemoved() /*-{
+      return this.removed;
+   }-*/;
+   
+   // names of all of the loaded packages
+   public final native JsArrayString getLoaded() /*-{
+      return this.loaded;
+   }-*/;
+   
+   public final boolean isEmpty()
+   {
+      return !isFull() && 
+             getPackages().length() == 0 && 
+             getRemoved().length() == 0;
+   }
+}
@@ -21,9 +21,11 @@ import org.rstudio.studio.client.workbench.views.packages.model.PackageInstallCo
 
 public interface PackagesServerOperations
 {
-   // list installed packages
-   void listPackages(
-         ServerRequestCallback<JsArray<PackageInfo>> requestCallback);
+   // list installed packages which have changed since the list with the
+   // given fingerprint (pass an empty fingerprint to list all of them)
+   void listPackageChanges(
+         String fingerprint,
+         ServerRequestCallback<PackageListChanges> requestCallback);
    
    void availablePackages(
          String repository,
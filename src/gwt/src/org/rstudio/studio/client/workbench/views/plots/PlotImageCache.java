@@ -0,0 +1,136 @@
+/*
+ * PlotImageCache.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.plots;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+// Images of the plots in the plot history, keyed by plot index, size and
+// device pixel ratio, so that moving back and forth through the history can
+// show a plot without waiting for the server. Each entry holds on to a
+// loaded image element so the browser keeps the decoded bitmap around. The
+// neighbors of the active plot are loaded in the background whenever the
+// server has already rendered them at the current size. Everything is
+// dropped when the number of plots (and therefore possibly their indexes)
+// or the size changes.
+class PlotImageCache
+{
+   public void update(int plotIndex,
+                      int plotCount,
+                      int width,
+                      int height,
+                      String url,
+                      String previousUrl,
+                      String nextUrl)
+   {
+      double pixelRatio = getDevicePixelRatio();
+      if (plotCount != plotCount_ ||
+          width != width_ ||
+          height != height_ ||
+          pixelRatio != pixelRatio_)
+      {
+         images_.clear();
+         plotCount_ = plotCount;
+         width_ = width;
+         height_ = height;
+         pixelRatio_ = pixelRatio;
+      }
+
+      // the active plot is always replaced (it may have been drawn on)
+      put(plotIndex, url);
+
+      if (previousUrl != null && plotIndex > 0)
+         putIfAbsent(plotIndex - 1, previousUrl);
+      if (nextUrl != null && plotIndex < plotCount - 1)
+         putIfAbsent(plotIndex + 1, nextUrl);
+   }
+
+   // returns the url of the plot's image if it is loaded (or being loaded)
+   // at the current size, otherwise null
+   public String get(int plotIndex)
+   {
+      if (getDevicePixelRatio() != pixelRatio_)
+         return null;
+
+      Entry entry = images_.get(key(plotIndex));
+      return entry != null ? entry.url : null;
+   }
+
+   public void clear()
+   {
+      images_.clear();
+      plotCount_ = -1;
+   }
+
+   private void put(int plotIndex, String url)
+   {
+      String key = key(plotIndex);
+      Entry entry = images_.get(key);
+      if (entry == null || !entry.url.equals(url))
+         images_.put(key, new Entry(url));
+   }
+
+   private void putIfAbsent(int plotIndex, String url)
+   {
+      if (!images_.containsKey(key(plotIndex)))
+         images_.put(key(plotIndex), new Entry(url));
+   }
+
+   private String key(int plotIndex)
+   {
+      return plotIndex + "," + width_ + "x" + height_ + "@" + pixelRatio_;
+   }
+
+   private static class Entry
+   {
+      Entry(String url)
+      {
+         this.url = url;
+         this.image = loadImage(url);
+      }
+
+      final String url;
+      @SuppressWarnings("unused")
+      final JavaScriptObject image;
+   }
+
+   private static native JavaScriptObject loadImage(String url) /*-{
+      var img = new $wnd.Image();
+      img.src = url;
+      return img;
+   }-*/;
+
+   private static native double getDevicePixelRatio() /*-{
+      return $wnd.devicePixelRatio || 1;
+   }-*/;
+
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, Entry> images_ =
+         new LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true)
+         {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> e)
+            {
+               return size() > MAX_ENTRIES;
+            }
+         };
+
+   private int plotCount_ = -1;
+   private int width_;
+   private int height_;
+   private double pixelRatio_;
+
+   private static final int MAX_ENTRIES = 60;
+}
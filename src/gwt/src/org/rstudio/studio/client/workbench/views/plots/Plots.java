@@ -60,6 +60,7 @@ import org.rstudio.studio.client.workbench.views.plots.model.SavePlotAsPdfOption
 import org.rstudio.studio.client.workbench.views.plots.ui.export.ExportPlot;
 import org.rstudio.studio.client.workbench.views.plots.ui.manipulator.ManipulatorChangedHandler;
 import org.rstudio.studio.client.workbench.views.plots.ui.manipulator.ManipulatorManager;
+import org.rstudio.studio.client.workbench.views.plots.ui.manipulator.ManipulatorUpdateQueue;
 
 public class Plots extends BasePresenter implements PlotsChangedHandler,
                                                     LocatorHandler,
@@ -118,6 +119,18 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       });
 
       // manipulator
+      manipulatorUpdates_ = new ManipulatorUpdateQueue(
+         new ManipulatorUpdateQueue.Sender()
+         {
+            @Override
+            public void send(JSONObject values,
+                             ServerRequestCallback<Void> callback)
+            {
+               server_.setManipulatorValues(
+                                 values,
+                                 new ManipulatorRequestCallback(callback));
+            }
+         });
       manipulatorManager_ = new ManipulatorManager(
          view_.getPlotsSurface(),
          commands,
@@ -127,9 +140,15 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
             @Override
             public void onManipulatorChanged(JSONObject values)
             { 
-               server_.setManipulatorValues(values, 
-                                            new ManipulatorRequestCallback()); 
-            }           
+               manipulatorUpdates_.submit(values);
+            }
+
+            @Override
+            public void onManipulatorChanging(JSONObject values)
+            {
+               if (uiPrefs_.get().manipulatorLiveUpdates().getValue())
+                  manipulatorUpdates_.submitIntermediate(values);
+            }
          },
          
          new ClickHandler() 
@@ -163,12 +182,22 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       if (plotsState.getFilename().startsWith("empty."))
       {
          view_.showEmptyPlot(); 
+         imageCache_.clear();
       }
       else
       {
          String url = server_.getGraphicsUrl(plotsState.getFilename());
          view_.showPlot(url);
+         imageCache_.update(plotsState.getPlotIndex(),
+                            plotsState.getPlotCount(),
+                            plotsState.getWidth(),
+                            plotsState.getHeight(),
+                            url,
+                            getGraphicsUrl(plotsState.getPreviousFilename()),
+                            getGraphicsUrl(plotsState.getNextFilename()));
       }
+      plotIndex_ = plotsState.getPlotIndex();
+      plotCount_ = plotsState.getPlotCount();
 
       // activate plots tab if requested
       if (plotsState.getActivatePlots())
@@ -189,14 +218,14 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    void onNextPlot()
    {
       view_.bringToFront();
-      setChangePlotProgress();
+      showCachedPlotOrProgress(plotIndex_ + 1);
       server_.nextPlot(new PlotRequestCallback());
    }
 
    void onPreviousPlot()
    {
       view_.bringToFront();
-      setChangePlotProgress();
+      showCachedPlotOrProgress(plotIndex_ - 1);
       server_.previousPlot(new PlotRequestCallback());
    }
    
@@ -449,6 +478,32 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
       }
    }
    
+   // if we already have the image of the plot we're moving to then show it
+   // right away (the server still makes it the active plot, and will report
+   // the same image unless the plot needed re-rendering)
+   private void showCachedPlotOrProgress(int plotIndex)
+   {
+      String url = plotIndex >= 0 && plotIndex < plotCount_ ?
+                                       imageCache_.get(plotIndex) : null;
+      if (url != null)
+      {
+         view_.showPlot(url);
+         plotIndex_ = plotIndex;
+      }
+      else
+      {
+         setChangePlotProgress();
+      }
+   }
+
+   private String getGraphicsUrl(String filename)
+   {
+      if (filename.length() > 0)
+         return server_.getGraphicsUrl(filename);
+      else
+         return null;
+   }
+
    private void setChangePlotProgress()
    {
       if (!Desktop.isDesktop())
@@ -508,6 +563,13 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    {
       public ManipulatorRequestCallback()
       {
+         this(null);
+      }
+      
+      public ManipulatorRequestCallback(
+                                 ServerRequestCallback<Void> queueCallback)
+      {
+         queueCallback_ = queueCallback;
          manipulatorManager_.setProgress(true);
       }
       
@@ -517,6 +579,9 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
          // we don't clear the progress until the GraphicsOutput
          // event is received (enables us to wait for rendering
          // to complete before clearing progress)
+         
+         if (queueCallback_ != null)
+            queueCallback_.onResponseReceived(response);
       }
 
       @Override
@@ -526,8 +591,11 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
          globalDisplay_.showErrorMessage("Server Error", 
                                          error.getUserMessage());
          
+         if (queueCallback_ != null)
+            queueCallback_.onError(error);
       }
       
+      private final ServerRequestCallback<Void> queueCallback_;
    }
 
    private final Display view_;
@@ -538,10 +606,16 @@ public class Plots extends BasePresenter implements PlotsChangedHandler,
    private final Provider<UIPrefs> uiPrefs_;
    private final Locator locator_;
    private final ManipulatorManager manipulatorManager_;
+   private final ManipulatorUpdateQueue manipulatorUpdates_;
    
    // export plot impl
    private final ExportPlot exportPlot_ ;
    
    // size of most recently rendered plot
    Size plotSize_ = null;
+
+   // position in the plot history (as last shown)
+   private int plotIndex_ = 0;
+   private int plotCount_ = 0;
+   private final PlotImageCache imageCache_ = new PlotImageCache();
 }
@@ -137,6 +137,11 @@ public class PlotsPane extends WorkbenchPane implements Plots.Display,
    public void onResize()
    {
       super.onResize();
+
+      // the plot is only re-rendered once the size has settled; until then
+      // scale the one we have
+      frame_.scaleImageToFit();
+
       ResizeEvent.fire(this, getOffsetWidth(), getOffsetHeight());
    }
 
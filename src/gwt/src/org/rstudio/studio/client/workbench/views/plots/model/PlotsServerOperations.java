@@ -30,6 +30,13 @@ public interface PlotsServerOperations
                            int height, 
                            boolean attachment);
    
+   // previews with the same id are cached by the browser, so a new id
+   // must be used whenever the plot may have changed
+   String getPlotPreviewUrl(String type, 
+                            int width, 
+                            int height, 
+                            int previewId);
+   
    void nextPlot(ServerRequestCallback<Void> requestCallback);
    void previousPlot(ServerRequestCallback<Void> requestCallback);
    
@@ -44,6 +44,16 @@ public class PlotsState extends JavaScriptObject
       return this.plotCount;
    }-*/;
    
+   // images of the neighboring plots, if they are already rendered at
+   // this size (empty otherwise)
+   public final native String getPreviousFilename() /*-{
+      return this.previousFilename || "";
+   }-*/;
+
+   public final native String getNextFilename() /*-{
+      return this.nextFilename || "";
+   }-*/;
+   
    public final native boolean getActivatePlots() /*-{
       return this.activatePlots;
    }-*/;
@@ -21,6 +21,8 @@ import com.google.gwt.event.dom.client.ChangeEvent;
 import com.google.gwt.event.dom.client.ChangeHandler;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.user.client.Random;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.CellPanel;
 import com.google.gwt.user.client.ui.CheckBox;
 import com.google.gwt.user.client.ui.Composite;
@@ -126,6 +128,8 @@ public class ExportPlotSizeEditor extends Composite
   
             // set width
             setWidthTextBox(width);
+            
+            schedulePreviewUpdate();
          }
          
       });
@@ -156,6 +160,8 @@ public class ExportPlotSizeEditor extends Composite
            
             // always set height
             setHeightTextBox(height);
+            
+            schedulePreviewUpdate();
          }
          
       });
@@ -175,7 +181,8 @@ public class ExportPlotSizeEditor extends Composite
       
       // image and sizer in layout panel (create now so we can call
       // setSize in update button click handler)
-      final LayoutPanel previewPanel = new LayoutPanel(); 
+      previewPanel_ = new LayoutPanel(); 
+      final LayoutPanel previewPanel = previewPanel_;
      
       
       // update button
@@ -230,6 +237,9 @@ public class ExportPlotSizeEditor extends Composite
          @Override
          public void onResizingStarted()
          {    
+            // wait until this resize is done
+            previewTimer_.cancel();
+            
             int startWidth = getImageWidth();
             int startHeight = getImageHeight();
             
@@ -272,7 +282,7 @@ public class ExportPlotSizeEditor extends Composite
          public void onResizingCompleted()
          {
             glassPanel.setGlass(false);
-            updateImage();
+            schedulePreviewUpdate();
             observer.onPlotResized(true);
          } 
          
@@ -419,12 +429,34 @@ public class ExportPlotSizeEditor extends Composite
   
    
    
+   // preview once the size has stopped changing (e.g. the user has
+   // finished typing or let go of the gripper and not grabbed it again)
+   private void schedulePreviewUpdate()
+   {
+      previewTimer_.schedule(PREVIEW_DELAY_MILLIS);
+   }
+   
+   // previews are cached by the browser for the life of the dialog (the
+   // plot can't change while it's up) so going back to a size which was
+   // already previewed doesn't render it again. until a new preview
+   // arrives the frame stretches the previous one
    private void updateImage()
    {
-      imageFrame_.setImageUrl(server_.getPlotExportUrl("png", 
-                                                       getImageWidth(),
-                                                       getImageHeight(),
-                                                       false));
+      previewTimer_.cancel();
+      
+      // the size may have been typed in
+      previewPanel_.setSize((getImageWidth() + IMAGE_INSET) + "px", 
+                            (getImageHeight() + IMAGE_INSET) + "px");
+      
+      String url = server_.getPlotPreviewUrl(PREVIEW_FORMAT, 
+                                             getImageWidth(),
+                                             getImageHeight(),
+                                             previewId_);
+      if (!url.equals(previewUrl_))
+      {
+         previewUrl_ = url;
+         imageFrame_.setImageUrl(url);
+      }
    }
    
    private void configureHorizontalOptionsPanel(HorizontalPanel panel)
@@ -436,7 +468,10 @@ public class ExportPlotSizeEditor extends Composite
    
    
    private static final int IMAGE_INSET = 6;
+   private static final int PREVIEW_DELAY_MILLIS = 400;
+   private static final String PREVIEW_FORMAT = "png";
    
+   private final LayoutPanel previewPanel_;
    private final ImageFrame imageFrame_;
    private final TextBox widthTextBox_;
    private final TextBox heightTextBox_;
@@ -451,5 +486,15 @@ public class ExportPlotSizeEditor extends Composite
   
    private boolean settingDimenensionInProgress_ = false;
    
+   private final Timer previewTimer_ = new Timer() {
+      @Override
+      public void run()
+      {
+         updateImage();
+      }
+   };
+   private final int previewId_ = Random.nextInt();
+   private String previewUrl_;
+   
    private final int MIN_SIZE = 100;
 }
@@ -17,4 +17,8 @@ import com.google.gwt.json.client.JSONObject;
 public interface ManipulatorChangedHandler
 {
    void onManipulatorChanged(JSONObject values);
+   
+   // intermediate values (e.g. while a slider is being dragged), which may
+   // be dropped
+   void onManipulatorChanging(JSONObject values);
 }
\ No newline at end of file
@@ -52,6 +52,13 @@ public abstract class ManipulatorControl extends Composite implements CanFocus
       changedHandler_.onManipulatorChanged(values);
    }
    
+   protected void onValueChanging(JSONValue value)
+   {
+      JSONObject values = new JSONObject();
+      values.put(variable_, value);
+      changedHandler_.onManipulatorChanging(values);
+   }
+   
    
    private final String variable_;
    private final String label_;
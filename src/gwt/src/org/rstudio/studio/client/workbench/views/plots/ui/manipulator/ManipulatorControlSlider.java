@@ -95,6 +95,17 @@ public class ManipulatorControlSlider extends ManipulatorControl
       });
       sliderBar_.setCurrentValue(value);
       
+      // report values while sliding (added after the initial value is set
+      // so that isn't reported)
+      sliderBar_.addChangeListener(new ChangeListener() {
+         @Override
+         public void onChange(Widget sender)
+         {
+            ManipulatorControlSlider.this.onValueChanging(
+                        new JSONNumber(sliderBar_.getCurrentValue()));
+         } 
+      });
+      
       // fire changed even on slide completed
       sliderBar_.addSlideCompletedListener(new ChangeListener() {
          @Override
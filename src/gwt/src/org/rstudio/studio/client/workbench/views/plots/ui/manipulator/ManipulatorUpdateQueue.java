@@ -0,0 +1,172 @@
+/*
+ * ManipulatorUpdateQueue.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.plots.ui.manipulator;
+
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.server.Void;
+
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.user.client.Timer;
+
+// Sends manipulator values to the server, each send re-evaluating the
+// manipulate expression. At most one send is in flight; values which
+// change in the meantime are merged into a single pending send (the latest
+// value of each variable wins), so a fast moving control never builds up
+// a backlog of stale renders.
+//
+// Intermediate values (e.g. while dragging a slider) are sent no more often
+// than renders are taking, and not at all when renders are slow enough
+// that the plot couldn't keep up anyway.
+public class ManipulatorUpdateQueue
+{
+   public interface Sender
+   {
+      void send(JSONObject values, ServerRequestCallback<Void> callback);
+   }
+
+   public ManipulatorUpdateQueue(Sender sender)
+   {
+      sender_ = sender;
+   }
+
+   public void submit(JSONObject values)
+   {
+      merge(values);
+      pendingIsFinal_ = true;
+      timer_.cancel();
+      pump();
+   }
+
+   public void submitIntermediate(JSONObject values)
+   {
+      if (renderMillis_ > MAX_LIVE_RENDER_MILLIS)
+         return;
+
+      merge(values);
+      pump();
+   }
+
+   private void merge(JSONObject values)
+   {
+      if (pending_ == null)
+         pending_ = new JSONObject();
+      for (String key : values.keySet())
+         pending_.put(key, values.get(key));
+   }
+
+   private void pump()
+   {
+      if (inFlight_ || pending_ == null)
+         return;
+
+      // intermediate values wait until the previous render has had about
+      // as long again to be displayed
+      if (!pendingIsFinal_)
+      {
+         long wait = lastSentAt_ + Math.max(MIN_LIVE_INTERVAL_MILLIS,
+                                            renderMillis_)
+                     - System.currentTimeMillis();
+         if (wait > 0)
+         {
+            timer_.schedule((int) wait);
+            return;
+         }
+      }
+
+      JSONObject values = pending_;
+      final boolean isFinal = pendingIsFinal_;
+      pending_ = null;
+      pendingIsFinal_ = false;
+
+      // the final values of a drag are usually the same as the last
+      // intermediate ones, which have already been rendered
+      if (isFinal && lastIntermediate_ != null)
+      {
+         JSONObject changed = new JSONObject();
+         for (String key : values.keySet())
+         {
+            if (lastIntermediate_.get(key) == null ||
+                !lastIntermediate_.get(key).toString().equals(
+                                             values.get(key).toString()))
+            {
+               changed.put(key, values.get(key));
+            }
+         }
+         lastIntermediate_ = null;
+         if (changed.size() == 0)
+            return;
+         values = changed;
+      }
+      else if (!isFinal)
+      {
+         if (lastIntermediate_ == null)
+            lastIntermediate_ = new JSONObject();
+         for (String key : values.keySet())
+            lastIntermediate_.put(key, values.get(key));
+      }
+
+      inFlight_ = true;
+      final long sentAt = System.currentTimeMillis();
+      lastSentAt_ = sentAt;
+      sender_.send(values, new ServerRequestCallback<Void>()
+      {
+         @Override
+         public void onResponseReceived(Void response)
+         {
+            // the response comes back once the plot has been rendered
+            long millis = System.currentTimeMillis() - sentAt;
+            if (renderMillis_ < 0)
+               renderMillis_ = millis;
+            else
+               renderMillis_ = (renderMillis_ * 2 + millis) / 3;
+
+            inFlight_ = false;
+            pump();
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            // the error has been reported, don't follow it with more
+            // renders of intermediate values
+            inFlight_ = false;
+            if (!pendingIsFinal_)
+               pending_ = null;
+            lastIntermediate_ = null;
+            pump();
+         }
+      });
+   }
+
+   private final Sender sender_;
+   private final Timer timer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         pump();
+      }
+   };
+
+   private JSONObject pending_;
+   private boolean pendingIsFinal_;
+   private boolean inFlight_;
+   private JSONObject lastIntermediate_;
+   private long lastSentAt_;
+   // moving average of how long renders take (-1 until one has completed)
+   private long renderMillis_ = -1;
+
+   private static final long MIN_LIVE_INTERVAL_MILLIS = 100;
+   private static final long MAX_LIVE_RENDER_MILLIS = 1000;
+}
@@ -45,6 +45,7 @@ import org.rstudio.studio.client.common.filetypes.FileIconResources;
 import org.rstudio.studio.client.common.filetypes.FileType;
 import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
 import org.rstudio.studio.client.server.Void;
+import org.rstudio.studio.client.workbench.codesearch.model.FunctionDefinitionCache;
 import org.rstudio.studio.client.workbench.codesearch.model.SearchPathFunctionDefinition;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
@@ -83,9 +84,11 @@ public class CodeBrowserEditingTarget implements EditingTarget
                                    UIPrefs prefs,
                                    FontSizeManager fontSizeManager,
                                    GlobalDisplay globalDisplay,
-                                   DocDisplay docDisplay)
+                                   DocDisplay docDisplay,
+                                   FunctionDefinitionCache functionCache)
    {
       server_ = server;
+      functionCache_ = functionCache;
       commands_ = commands;
       events_ = events;
       prefs_ = prefs;
@@ -128,7 +131,8 @@ public class CodeBrowserEditingTarget implements EditingTarget
                                                  events_,
                                                  prefs_, 
                                                  server_, 
-                                                 docDisplay_);
+                                                 docDisplay_,
+                                                 functionCache_);
       
       TextEditingTarget.registerPrefs(releaseOnDismiss_, prefs_, docDisplay_);
       
@@ -173,6 +177,11 @@ public class CodeBrowserEditingTarget implements EditingTarget
       view_.showFunction(functionDef);
       view_.scrollToLeft();
       
+      // cache it (for navigating back to it) and look up the functions
+      // it calls in the background (for navigating to them)
+      functionCache_.put(functionDef);
+      functionCache_.prefetchReferences(functionDef);
+      
       // update document properties if necessary
       final CodeBrowserContents contents = 
                         CodeBrowserContents.create(getContext());
@@ -475,7 +484,9 @@ public class CodeBrowserEditingTarget implements EditingTarget
          String namespace = contextElements[0];
          String name = contextElements[1];
          
-         server_.getSearchPathFunctionDefinition(
+         // navigating back and forth is typically between functions which
+         // have already been shown, so this is usually served from cache
+         functionCache_.getDefinition(
                name, 
                namespace, 
                new SimpleRequestCallback<SearchPathFunctionDefinition>(
@@ -501,6 +512,7 @@ public class CodeBrowserEditingTarget implements EditingTarget
    private ArrayList<HandlerRegistration> releaseOnDismiss_ =
          new ArrayList<HandlerRegistration>();
    private final SourceServerOperations server_;
+   private final FunctionDefinitionCache functionCache_;
    private final Commands commands_;
    private final EventBus events_;
    private final GlobalDisplay globalDisplay_;
@@ -39,6 +39,7 @@ import org.rstudio.studio.client.common.filetypes.TextFileType;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.Void;
+import org.rstudio.studio.client.workbench.codesearch.model.FunctionDefinitionCache;
 import org.rstudio.studio.client.workbench.codesearch.model.SearchPathFunctionDefinition;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
@@ -62,13 +63,15 @@ public class CodeBrowserEditingTargetWidget extends ResizeComposite
                                          final EventBus eventBus,
                                          final UIPrefs uiPrefs,
                                          final CodeToolsServerOperations server,
-                                         final DocDisplay docDisplay)
+                                         final DocDisplay docDisplay,
+                                         FunctionDefinitionCache functionCache)
    {
       commands_ = commands;
       uiPrefs_ = uiPrefs;
       globalDisplay_ = globalDisplay;
       eventBus_ = eventBus;
       server_ = server;
+      functionCache_ = functionCache;
       
       docDisplay_ = docDisplay;
       
@@ -217,6 +220,21 @@ public class CodeBrowserEditingTargetWidget extends ResizeComposite
    private void navigateToFunction(
          InputEditorLineWithCursorPosition lineWithPos)
    {
+      // functions called by the current function are looked up in the
+      // background, so the result is usually already known
+      String name = getUnqualifiedName(lineWithPos.getLine(),
+                                       lineWithPos.getPosition());
+      if (name != null)
+      {
+         SearchPathFunctionDefinition def =
+               functionCache_.lookup(currentFunctionNamespace_, name);
+         if (def != null)
+         {
+            new FunctionSearchRequestCallback(true).onResponseReceived(def);
+            return;
+         }
+      }
+      
       server_.findFunctionInSearchPath(
             lineWithPos.getLine(),
             lineWithPos.getPosition(), 
@@ -224,6 +242,31 @@ public class CodeBrowserEditingTargetWidget extends ResizeComposite
             new FunctionSearchRequestCallback(true));
    }
    
+   // the identifier at the cursor, or null if there isn't one or it is
+   // qualified (which is left to the server to resolve)
+   private String getUnqualifiedName(String line, int pos)
+   {
+      int start = Math.min(pos, line.length());
+      while (start > 0 && isIdentifierChar(line.charAt(start - 1)))
+         start--;
+      int end = Math.min(pos, line.length());
+      while (end < line.length() && isIdentifierChar(line.charAt(end)))
+         end++;
+      
+      if (start == end || Character.isDigit(line.charAt(start)) ||
+          line.charAt(start) == '_')
+         return null;
+      if (start > 0 && "$@:".indexOf(line.charAt(start - 1)) != -1)
+         return null;
+      
+      return line.substring(start, end);
+   }
+   
+   private static boolean isIdentifierChar(char c)
+   {
+      return Character.isLetterOrDigit(c) || c == '.' || c == '_';
+   }
+   
    private class FunctionSearchRequestCallback
                     extends ServerRequestCallback<SearchPathFunctionDefinition>
    {
@@ -389,6 +432,7 @@ public class CodeBrowserEditingTargetWidget extends ResizeComposite
    private final PanelWithToolbars panel_;
    private CodeBrowserContextWidget contextWidget_;
    private final CodeToolsServerOperations server_;
+   private final FunctionDefinitionCache functionCache_;
    private final GlobalDisplay globalDisplay_;
    private final EventBus eventBus_;
    private final Commands commands_;
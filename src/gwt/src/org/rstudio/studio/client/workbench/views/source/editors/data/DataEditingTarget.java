@@ -71,11 +71,33 @@ public class DataEditingTarget extends UrlContentEditingTarget
    {
       DataEditingTargetWidget view = new DataEditingTargetWidget(
             commands_,
+            server_,
             getDataItem());
       view.setSize("100%", "100%");
       progressPanel_.setWidget(view);
    }
 
+   @Override
+   public void onDismiss()
+   {
+      super.onDismiss();
+      removeCachedData(getDataItem().getCacheKey());
+   }
+
+   private void removeCachedData(String cacheKey)
+   {
+      if (cacheKey.length() == 0)
+         return;
+
+      server_.removeCachedData(cacheKey, new ServerRequestCallback<Void>() {
+         @Override
+         public void onError(ServerError error)
+         {
+            Debug.logError(error);
+         }
+      });
+   }
+
    @Override
    public String getPath()
    {
@@ -115,6 +137,7 @@ public class DataEditingTarget extends UrlContentEditingTarget
       clearDisplay();
       
       final String oldContentUrl = getContentUrl();
+      final String oldCacheKey = getDataItem().getCacheKey();
 
       HashMap<String, String> props = new HashMap<String, String>();
       data.fillProperties(props);
@@ -136,6 +159,7 @@ public class DataEditingTarget extends UrlContentEditingTarget
                               Debug.logError(error);
                            }
                         });
+                  removeCachedData(oldCacheKey);
 
                   data.fillProperties(doc_.getProperties());
                   reloadDisplay();
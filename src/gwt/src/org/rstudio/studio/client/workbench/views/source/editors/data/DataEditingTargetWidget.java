@@ -14,8 +14,12 @@ package org.rstudio.studio.client.workbench.views.source.editors.data;
 
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.dom.client.Style.Visibility;
+import com.google.gwt.event.dom.client.LoadEvent;
+import com.google.gwt.event.dom.client.LoadHandler;
 import com.google.gwt.resources.client.ClientBundle;
 import com.google.gwt.resources.client.CssResource;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.ui.*;
 
 import org.rstudio.core.client.StringUtil;
@@ -26,8 +30,9 @@ import org.rstudio.studio.client.workbench.views.source.PanelWithToolbars;
 import org.rstudio.studio.client.workbench.views.source.editors.EditingTargetToolbar;
 import org.rstudio.studio.client.workbench.views.source.editors.urlcontent.UrlContentEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.model.DataItem;
+import org.rstudio.studio.client.workbench.views.source.model.SourceServerOperations;
 
-public class DataEditingTargetWidget extends Composite
+public class DataEditingTargetWidget extends ResizeComposite
    implements UrlContentEditingTarget.Display
 {
    interface Resources extends ClientBundle
@@ -51,18 +56,45 @@ public class DataEditingTargetWidget extends Composite
       resources.styles().ensureInjected();
    }
 
-   public DataEditingTargetWidget(Commands commands, DataItem dataItem)
+   public DataEditingTargetWidget(Commands commands,
+                                  SourceServerOperations server,
+                                  DataItem dataItem)
    {
       Styles styles = resources.styles();
 
       commands_ = commands;
+      contentUrl_ = dataItem.getContentUrl();
 
-      frame_ = new Frame(dataItem.getContentUrl());
-      frame_.setSize("100%", "100%");
+      Widget mainWidget;
 
-      Widget mainWidget = frame_;
+      if (dataItem.getCacheKey().length() > 0)
+      {
+         // page through all of the data, falling back on the rows rendered
+         // when the data was viewed if the server no longer has it
+         container_ = new LayoutPanel();
+         grid_ = new DataViewerGrid(server,
+                                    dataItem.getCacheKey(),
+                                    dataItem.getTotalObservations(),
+                                    dataItem.getVariables(),
+                                    new Command()
+                                    {
+                                       public void execute()
+                                       {
+                                          showFrame();
+                                       }
+                                    });
+         container_.add(grid_);
+         mainWidget = container_;
+      }
+      else
+      {
+         frame_ = new Frame(contentUrl_);
+         frame_.setSize("100%", "100%");
+         mainWidget = frame_;
+      }
 
-      if (dataItem.getDisplayedObservations() != dataItem.getTotalObservations())
+      if (grid_ == null &&
+          dataItem.getDisplayedObservations() != dataItem.getTotalObservations())
       {
          FlowPanel statusBar = new FlowPanel();
          statusBar.setStylePrimaryName(styles.statusBar());
@@ -116,7 +148,43 @@ public class DataEditingTargetWidget extends Composite
       return toolbar;
    }
 
+   private void showFrame()
+   {
+      if (frame_ == null)
+         createFrame();
+      container_.remove(grid_);
+      frame_.getElement().getStyle().clearVisibility();
+   }
+
+   private void createFrame()
+   {
+      frame_ = new Frame(contentUrl_);
+      frame_.setSize("100%", "100%");
+      frame_.getElement().getStyle().setVisibility(Visibility.HIDDEN);
+      container_.insert(frame_, 0);
+   }
+
    public void print()
+   {
+      // the grid only renders the cells in view, so print the rows
+      // rendered when the data was viewed (loading them first if need be)
+      if (frame_ == null)
+      {
+         createFrame();
+         frame_.addLoadHandler(new LoadHandler()
+         {
+            public void onLoad(LoadEvent event)
+            {
+               printFrame();
+            }
+         });
+         return;
+      }
+
+      printFrame();
+   }
+
+   private void printFrame()
    {
       IFrameElementEx frameEl = (IFrameElementEx) frame_.getElement().cast();
       frameEl.getContentWindow().print();
@@ -128,5 +196,8 @@ public class DataEditingTargetWidget extends Composite
    }
 
    private final Commands commands_;
+   private final String contentUrl_;
+   private LayoutPanel container_;
+   private DataViewerGrid grid_;
    private Frame frame_;
 }
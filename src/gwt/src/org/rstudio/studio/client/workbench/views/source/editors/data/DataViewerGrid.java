@@ -0,0 +1,489 @@
+/*
+ * DataViewerGrid.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.data;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.SpanElement;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
+import com.google.gwt.resources.client.ClientBundle;
+import com.google.gwt.resources.client.CssResource;
+import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.HTML;
+import com.google.gwt.user.client.ui.LayoutPanel;
+import com.google.gwt.user.client.ui.ResizeComposite;
+import com.google.gwt.user.client.ui.ScrollPanel;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.views.source.model.DataBlock;
+import org.rstudio.studio.client.workbench.views.source.model.SourceServerOperations;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Shows a viewed data frame a screenful at a time. Only the cells in view
+// are rendered; their values are fetched from the server in blocks of rows
+// and columns as they scroll into view, and the most recently used blocks
+// are kept. Column widths come from the widest value in the first rows of
+// each column, and the column headers stay in place as the rows scroll.
+public class DataViewerGrid extends ResizeComposite
+{
+   interface Resources extends ClientBundle
+   {
+      @Source("DataViewerGrid.css")
+      Styles styles();
+   }
+   private static Resources resources = GWT.create(Resources.class);
+
+   public interface Styles extends CssResource
+   {
+      String header();
+      String headerCell();
+      String cell();
+      String rowNumber();
+      String spacer();
+      String viewport();
+   }
+
+   static
+   {
+      resources.styles().ensureInjected();
+   }
+
+   public DataViewerGrid(SourceServerOperations server,
+                         String cacheKey,
+                         int rowCount,
+                         int columnCount,
+                         Command onUnavailable)
+   {
+      server_ = server;
+      cacheKey_ = cacheKey;
+      rowCount_ = rowCount;
+      columnCount_ = columnCount;
+      onUnavailable_ = onUnavailable;
+      styles_ = resources.styles();
+
+      names_ = new String[columnCount];
+      columnWidths_ = new int[columnCount];
+      columnMeasured_ = new boolean[columnCount];
+      columnOffsets_ = new int[columnCount + 1];
+      for (int i = 0; i < columnCount; i++)
+         columnWidths_[i] = DEFAULT_COLUMN_WIDTH;
+
+      header_ = new HTML();
+      header_.setStylePrimaryName(styles_.header());
+
+      viewport_ = new HTML();
+      viewport_.setStylePrimaryName(styles_.viewport());
+      spacer_ = new FlowPanel();
+      spacer_.setStylePrimaryName(styles_.spacer());
+      spacer_.add(viewport_);
+
+      scrollPanel_ = new ScrollPanel(spacer_);
+      scrollPanel_.addScrollHandler(new ScrollHandler()
+      {
+         public void onScroll(ScrollEvent event)
+         {
+            render();
+         }
+      });
+
+      LayoutPanel panel = new LayoutPanel();
+      panel.add(header_);
+      panel.setWidgetTopHeight(header_, 0, Unit.PX, HEADER_HEIGHT, Unit.PX);
+      panel.add(scrollPanel_);
+      panel.setWidgetTopBottom(scrollPanel_, HEADER_HEIGHT, Unit.PX, 0, Unit.PX);
+
+      initWidget(panel);
+   }
+
+   @Override
+   protected void onLoad()
+   {
+      super.onLoad();
+
+      if (charWidth_ == 0)
+      {
+         charWidth_ = measureCharWidth();
+         String lastRow = Integer.toString(rowCount_);
+         rowNumberWidth_ = lastRow.length() * charWidth_ + CELL_CHROME + 6;
+         layoutColumns();
+      }
+      render();
+   }
+
+   @Override
+   public void onResize()
+   {
+      super.onResize();
+      render();
+   }
+
+   private void render()
+   {
+      if (!isAttached() || charWidth_ == 0)
+         return;
+
+      int clientHeight = scrollPanel_.getElement().getClientHeight();
+      int clientWidth = scrollPanel_.getElement().getClientWidth();
+      int scrollTop = scrollPanel_.getVerticalScrollPosition();
+      int scrollLeft = scrollPanel_.getHorizontalScrollPosition();
+
+      // the viewport moves with the scroll position, and shows the rows at
+      // that position (when there are too many rows for the browser to
+      // scroll through at full height the scroll position is scaled)
+      long virtualTop = scrollTop;
+      int spacerHeight = spacer_.getOffsetHeight();
+      long fullHeight = (long) rowCount_ * ROW_HEIGHT;
+      if (fullHeight > spacerHeight && spacerHeight > clientHeight)
+      {
+         virtualTop = Math.round((double) scrollTop *
+                                 (fullHeight - clientHeight) /
+                                 (spacerHeight - clientHeight));
+      }
+
+      firstRow_ = (int) (virtualTop / ROW_HEIGHT);
+      lastRow_ = Math.min(rowCount_ - 1,
+                          (int) ((virtualTop + clientHeight) / ROW_HEIGHT));
+      firstColumn_ = columnAt(scrollLeft - rowNumberWidth_);
+      lastColumn_ = columnCount_ > 0 ? 
+                  columnAt(scrollLeft + clientWidth - rowNumberWidth_) : -1;
+
+      viewport_.getElement().getStyle().setTop(scrollTop, Unit.PX);
+      viewport_.getElement().getStyle().setHeight(clientHeight, Unit.PX);
+      viewport_.getElement().getStyle().setWidth(
+                  rowNumberWidth_ + columnOffsets_[columnCount_], Unit.PX);
+
+      SafeHtmlBuilder cells = new SafeHtmlBuilder();
+      for (int row = firstRow_; row <= lastRow_; row++)
+      {
+         int top = (int) ((long) row * ROW_HEIGHT - virtualTop);
+         appendCell(cells,
+                    styles_.cell() + " " + styles_.rowNumber(),
+                    top,
+                    0,
+                    rowNumberWidth_,
+                    Integer.toString(row + 1));
+
+         for (int column = firstColumn_; column <= lastColumn_; column++)
+         {
+            appendCell(cells,
+                       styles_.cell(),
+                       top,
+                       rowNumberWidth_ + columnOffsets_[column],
+                       columnWidths_[column],
+                       getValue(row, column));
+         }
+      }
+      viewport_.setHTML(cells.toSafeHtml());
+
+      SafeHtmlBuilder header = new SafeHtmlBuilder();
+      appendCell(header, styles_.headerCell(), 0, -scrollLeft,
+                 rowNumberWidth_, "");
+      for (int column = firstColumn_; column <= lastColumn_; column++)
+      {
+         appendCell(header,
+                    styles_.headerCell(),
+                    0,
+                    rowNumberWidth_ + columnOffsets_[column] - scrollLeft,
+                    columnWidths_[column],
+                    names_[column] != null ? names_[column] : "");
+      }
+      header_.setHTML(header.toSafeHtml());
+
+      // fetch what's missing once scrolling pauses, rather than every
+      // block which is scrolled past
+      if (hasMissingBlocks())
+         fetchTimer_.schedule(FETCH_DELAY_MS);
+   }
+
+   private void appendCell(SafeHtmlBuilder sb,
+                           String className,
+                           int top,
+                           int left,
+                           int width,
+                           String text)
+   {
+      sb.appendHtmlConstant("<div class=\"" + className + "\" style=\"" +
+                            "top:" + top + "px;" +
+                            "left:" + left + "px;" +
+                            "width:" + Math.max(0, width - CELL_CHROME) +
+                            "px\">");
+      sb.appendEscaped(text);
+      sb.appendHtmlConstant("</div>");
+   }
+
+   private String getValue(int row, int column)
+   {
+      DataBlock block = blocks_.get(blockKey(row / BLOCK_ROWS,
+                                             column / BLOCK_COLUMNS));
+      if (block == null)
+         return "";
+
+      JsArray<JsArrayString> values = block.getValues();
+      int blockColumn = column % BLOCK_COLUMNS;
+      int blockRow = row % BLOCK_ROWS;
+      if (blockColumn >= values.length() ||
+          blockRow >= values.get(blockColumn).length())
+      {
+         return "";
+      }
+      return values.get(blockColumn).get(blockRow);
+   }
+
+   private boolean hasMissingBlocks()
+   {
+      if (lastRow_ < 0 || lastColumn_ < 0)
+         return false;
+      
+      for (int rb = firstRow_ / BLOCK_ROWS; rb <= lastRow_ / BLOCK_ROWS; rb++)
+      {
+         for (int cb = firstColumn_ / BLOCK_COLUMNS;
+              cb <= lastColumn_ / BLOCK_COLUMNS;
+              cb++)
+         {
+            if (!blocks_.containsKey(blockKey(rb, cb)))
+               return true;
+         }
+      }
+      return false;
+   }
+
+   // fetches the missing blocks of the cells last rendered
+   private void fetchVisibleBlocks()
+   {
+      if (!isAttached() || unavailable_ || lastRow_ < 0 || lastColumn_ < 0)
+         return;
+
+      for (int rb = firstRow_ / BLOCK_ROWS; rb <= lastRow_ / BLOCK_ROWS; rb++)
+      {
+         for (int cb = firstColumn_ / BLOCK_COLUMNS;
+              cb <= lastColumn_ / BLOCK_COLUMNS;
+              cb++)
+         {
+            String key = blockKey(rb, cb);
+            if (!blocks_.containsKey(key) && !pendingBlocks_.contains(key))
+               fetchBlock(rb, cb);
+         }
+      }
+   }
+
+   private void fetchBlock(final int rowBlock, final int columnBlock)
+   {
+      final String key = blockKey(rowBlock, columnBlock);
+      pendingBlocks_.add(key);
+
+      // the columns are measured by the first block fetched for them
+      final int firstColumn = columnBlock * BLOCK_COLUMNS;
+      final boolean measure = !columnMeasured_[firstColumn] &&
+                              measuringBlocks_.add(columnBlock);
+
+      int firstRow = rowBlock * BLOCK_ROWS;
+      server_.getDataBlock(
+            cacheKey_,
+            firstRow,
+            Math.min(BLOCK_ROWS, rowCount_ - firstRow),
+            firstColumn,
+            BLOCK_COLUMNS,
+            measure,
+            new ServerRequestCallback<DataBlock>()
+            {
+               @Override
+               public void onResponseReceived(DataBlock block)
+               {
+                  pendingBlocks_.remove(key);
+                  if (measure)
+                     measuringBlocks_.remove(columnBlock);
+
+                  // the data is gone (e.g. the session has been restarted)
+                  if (!block.isAvailable())
+                  {
+                     if (!unavailable_)
+                     {
+                        unavailable_ = true;
+                        onUnavailable_.execute();
+                     }
+                     return;
+                  }
+
+                  blocks_.put(key, block);
+
+                  if (measure && measureColumns(firstColumn, block))
+                     layoutColumns();
+                  render();
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  // the block is fetched again the next time it's needed
+                  pendingBlocks_.remove(key);
+                  if (measure)
+                     measuringBlocks_.remove(columnBlock);
+                  Debug.logError(error);
+               }
+            });
+   }
+
+   // takes the names and widths of columns from their first block,
+   // returns true if any widths changed
+   private boolean measureColumns(int firstColumn, DataBlock block)
+   {
+      JsArrayString names = block.getNames();
+      JsArrayNumber widths = block.getWidths();
+
+      boolean changed = false;
+      for (int i = 0; i < names.length(); i++)
+      {
+         int column = firstColumn + i;
+         if (column >= columnCount_ || columnMeasured_[column])
+            continue;
+
+         names_[column] = names.get(i);
+         int width = (int) widths.get(i) * charWidth_ + CELL_CHROME;
+         width = Math.max(MIN_COLUMN_WIDTH, Math.min(MAX_COLUMN_WIDTH, width));
+         columnMeasured_[column] = true;
+         if (width != columnWidths_[column])
+         {
+            columnWidths_[column] = width;
+            changed = true;
+         }
+      }
+      return changed;
+   }
+
+   private void layoutColumns()
+   {
+      for (int i = 0; i < columnCount_; i++)
+         columnOffsets_[i + 1] = columnOffsets_[i] + columnWidths_[i];
+
+      long fullHeight = (long) rowCount_ * ROW_HEIGHT;
+      spacer_.getElement().getStyle().setHeight(
+                  Math.min(fullHeight, MAX_SCROLL_HEIGHT), Unit.PX);
+      spacer_.getElement().getStyle().setWidth(
+                  rowNumberWidth_ + columnOffsets_[columnCount_], Unit.PX);
+   }
+
+   // returns the column at the given offset from the first column (clamped
+   // to the first and last columns)
+   private int columnAt(int x)
+   {
+      int low = 0;
+      int high = columnCount_ - 1;
+      while (low < high)
+      {
+         int mid = (low + high + 1) / 2;
+         if (columnOffsets_[mid] <= x)
+            low = mid;
+         else
+            high = mid - 1;
+      }
+      return low;
+   }
+
+   private int measureCharWidth()
+   {
+      // (cells use a fixed width font)
+      SpanElement span = Document.get().createSpanElement();
+      span.setClassName(styles_.cell());
+      span.getStyle().setLeft(-10000, Unit.PX);
+      span.getStyle().setPadding(0, Unit.PX);
+      span.getStyle().setProperty("border", "none");
+      span.setInnerText("0000000000");
+      Document.get().getBody().appendChild(span);
+      int width = span.getOffsetWidth() / 10;
+      span.removeFromParent();
+      return Math.max(width, 1);
+   }
+
+   private static String blockKey(int rowBlock, int columnBlock)
+   {
+      return rowBlock + "," + columnBlock;
+   }
+
+   private final SourceServerOperations server_;
+   private final String cacheKey_;
+   private final int rowCount_;
+   private final int columnCount_;
+   private final Command onUnavailable_;
+   private final Styles styles_;
+
+   private final HTML header_;
+   private final HTML viewport_;
+   private final FlowPanel spacer_;
+   private final ScrollPanel scrollPanel_;
+
+   private final String[] names_;
+   private final int[] columnWidths_;
+   private final boolean[] columnMeasured_;
+   // left edge of each column, from the left of the first column
+   private final int[] columnOffsets_;
+   private int rowNumberWidth_;
+   private int charWidth_;
+   // the cells last rendered
+   private int firstRow_;
+   private int lastRow_ = -1;
+   private int firstColumn_;
+   private int lastColumn_ = -1;
+
+   private boolean unavailable_;
+   private final HashSet<String> pendingBlocks_ = new HashSet<String>();
+   // column blocks with a request outstanding which measures them
+   private final HashSet<Integer> measuringBlocks_ = new HashSet<Integer>();
+   // recently used blocks, keyed by blockKey
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, DataBlock> blocks_ =
+         new LinkedHashMap<String, DataBlock>(MAX_BLOCKS, 0.75f, true)
+         {
+            @Override
+            protected boolean removeEldestEntry(
+                                    Map.Entry<String, DataBlock> eldest)
+            {
+               return size() > MAX_BLOCKS;
+            }
+         };
+
+   private final Timer fetchTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         fetchVisibleBlocks();
+      }
+   };
+
+   private static final int ROW_HEIGHT = 20;
+   private static final int HEADER_HEIGHT = 20;
+   // horizontal padding and border of a cell
+   private static final int CELL_CHROME = 13;
+   private static final int DEFAULT_COLUMN_WIDTH = 100;
+   private static final int MIN_COLUMN_WIDTH = 40;
+   private static final int MAX_COLUMN_WIDTH = 400;
+   // browsers can't scroll elements much taller than this
+   private static final long MAX_SCROLL_HEIGHT = 1000000;
+   private static final int BLOCK_ROWS = 100;
+   private static final int BLOCK_COLUMNS = 20;
+   private static final int MAX_BLOCKS = 200;
+   private static final int FETCH_DELAY_MS = 100;
+}
@@ -0,0 +1,46 @@
+/*
+ * DataBlock.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayString;
+
+// A block of rows and columns of a viewed data frame
+public class DataBlock extends JavaScriptObject
+{
+   protected DataBlock()
+   {
+   }
+   
+   // false if the server no longer has the data
+   public final native boolean isAvailable() /*-{
+      return !!this.available;
+   }-*/;
+   
+   public final native JsArrayString getNames() /*-{
+      return this.names;
+   }-*/;
+   
+   // formatted values, by column then row
+   public final native JsArray<JsArrayString> getValues() /*-{
+      return this.values;
+   }-*/;
+   
+   // the widest value of each column (in characters), taken from its name
+   // and first rows (empty unless the block was requested with measure)
+   public final native JsArrayNumber getWidths() /*-{
+      return this.widths;
+   }-*/;
+}
@@ -154,6 +154,19 @@ public interface SourceServerOperations extends FilesServerOperations,
    void removeContentUrl(String contentUrl,
                          ServerRequestCallback<Void> requestCallback);
 
+   // get the formatted values of a block of a viewed data frame (and if
+   // measure is true the widths of its columns)
+   void getDataBlock(String cacheKey,
+                     int firstRow,
+                     int rowCount,
+                     int firstColumn,
+                     int columnCount,
+                     boolean measure,
+                     ServerRequestCallback<DataBlock> requestCallback);
+
+   void removeCachedData(String cacheKey,
+                         ServerRequestCallback<Void> requestCallback);
+
    void detectFreeVars(String code,
                        ServerRequestCallback<JsArrayString> requestCallback);
 
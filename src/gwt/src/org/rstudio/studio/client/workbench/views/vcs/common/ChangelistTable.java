@@ -26,6 +26,8 @@ import com.google.gwt.text.shared.SafeHtmlRenderer;
 import com.google.gwt.user.cellview.client.CellTable;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.ColumnSortEvent;
+import com.google.gwt.user.cellview.client.ColumnSortList;
+import com.google.gwt.user.cellview.client.ColumnSortList.ColumnSortInfo;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.LayoutPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
@@ -35,10 +37,13 @@ import org.rstudio.core.client.widget.InfoBar;
 import org.rstudio.core.client.widget.MultiSelectCellTable;
 import org.rstudio.core.client.widget.ProgressPanel;
 import org.rstudio.studio.client.common.vcs.StatusAndPath;
+import org.rstudio.studio.client.workbench.views.vcs.common.model.StatusDelta;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public abstract class ChangelistTable extends Composite
@@ -125,13 +130,55 @@ public abstract class ChangelistTable extends Composite
       private Set<String> consumedEvents_ = new HashSet<String>();
    }
 
+   // keeps track of the comparators so that rows can be inserted at their
+   // sorted position without resorting the whole list
+   protected static class ChangelistSortHandler
+         extends ColumnSortEvent.ListHandler<StatusAndPath>
+   {
+      public ChangelistSortHandler(List<StatusAndPath> list)
+      {
+         super(list);
+      }
+
+      @Override
+      public void setComparator(Column<StatusAndPath, ?> column,
+                                Comparator<StatusAndPath> comparator)
+      {
+         super.setComparator(column, comparator);
+         comparators_.put(column, comparator);
+      }
+
+      public Comparator<StatusAndPath> getComparator(ColumnSortList sortList)
+      {
+         if (sortList.size() == 0)
+            return null;
+
+         ColumnSortInfo info = sortList.get(0);
+         final Comparator<StatusAndPath> comparator =
+                                       comparators_.get(info.getColumn());
+         if (comparator == null || info.isAscending())
+            return comparator;
+
+         return new Comparator<StatusAndPath>()
+         {
+            @Override
+            public int compare(StatusAndPath a, StatusAndPath b)
+            {
+               return -comparator.compare(a, b);
+            }
+         };
+      }
+
+      private final HashMap<Column<?, ?>, Comparator<StatusAndPath>>
+         comparators_ = new HashMap<Column<?, ?>, Comparator<StatusAndPath>>();
+   }
+
    public ChangelistTable()
    {
       table_ = new MultiSelectCellTable<StatusAndPath>(100, resources_);
 
       dataProvider_ = new ListDataProvider<StatusAndPath>();
-      sortHandler_ = new ColumnSortEvent.ListHandler<StatusAndPath>(
-            dataProvider_.getList());
+      sortHandler_ = new ChangelistSortHandler(dataProvider_.getList());
       table_.addColumnSortHandler(sortHandler_);
 
       selectionModel_ = new MultiSelectionModel<StatusAndPath>(
@@ -282,6 +329,7 @@ public abstract class ChangelistTable extends Composite
 
    public void setItems(ArrayList<StatusAndPath> items)
    {
+      itemsLoaded_ = true;
       setProgress(false);
       table_.setPageSize(items.size());
       dataProvider_.getList().clear();
@@ -306,6 +354,100 @@ public abstract class ChangelistTable extends Composite
       }
    }
 
+   // apply the rows which changed since the last update. only the changed
+   // rows are touched (so only they are redrawn); if there is no delta or
+   // it's large the table is reloaded from items instead
+   public void updateItems(ArrayList<StatusAndPath> items, StatusDelta delta)
+   {
+      if (!itemsLoaded_ || delta == null || delta.size() > MAX_DELTA_SIZE)
+      {
+         setItems(items);
+         return;
+      }
+
+      List<StatusAndPath> list = dataProvider_.getList();
+      Comparator<StatusAndPath> comparator =
+                  sortHandler_.getComparator(table_.getColumnSortList());
+
+      for (StatusAndPath item : delta.getRemoved())
+      {
+         int index = indexOfRow(list, item);
+         if (index >= 0)
+            list.remove(index);
+      }
+
+      for (int i = 0; i < delta.getModified().size(); i++)
+      {
+         StatusAndPath item = delta.getModified().get(i);
+         int index = indexOfRow(list, delta.getReplaced().get(i));
+         if (index >= 0 && isSortedAt(list, index, item, comparator))
+         {
+            list.set(index, item);
+         }
+         else
+         {
+            if (index >= 0)
+               list.remove(index);
+            insertSorted(list, item, comparator);
+         }
+      }
+
+      for (StatusAndPath item : delta.getAdded())
+         insertSorted(list, item, comparator);
+
+      if (list.size() > table_.getPageSize())
+         table_.setPageSize(list.size());
+   }
+
+   private int indexOfRow(List<StatusAndPath> list, StatusAndPath item)
+   {
+      for (int i = 0; i < list.size(); i++)
+      {
+         if (list.get(i).isSameAs(item))
+            return i;
+      }
+      return -1;
+   }
+
+   private boolean isSortedAt(List<StatusAndPath> list,
+                              int index,
+                              StatusAndPath item,
+                              Comparator<StatusAndPath> comparator)
+   {
+      if (comparator == null)
+         return true;
+      if (index > 0 && comparator.compare(list.get(index - 1), item) > 0)
+         return false;
+      if (index < list.size() - 1 &&
+          comparator.compare(item, list.get(index + 1)) > 0)
+         return false;
+      return true;
+   }
+
+   private void insertSorted(List<StatusAndPath> list,
+                             StatusAndPath item,
+                             Comparator<StatusAndPath> comparator)
+   {
+      if (comparator == null)
+      {
+         list.add(item);
+         return;
+      }
+
+      // insert after any equal rows
+      int low = 0;
+      int high = list.size();
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if (comparator.compare(list.get(mid), item) <= 0)
+            low = mid + 1;
+         else
+            high = mid;
+      }
+      list.add(low, item);
+   }
+
    public ArrayList<StatusAndPath> getSelectedItems()
    {
       SelectionModel<? super StatusAndPath> selectionModel = table_.getSelectionModel();
@@ -416,12 +558,14 @@ public abstract class ChangelistTable extends Composite
 
    protected final MultiSelectCellTable<StatusAndPath> table_;
    protected final MultiSelectionModel<StatusAndPath> selectionModel_;
-   protected final ColumnSortEvent.ListHandler<StatusAndPath> sortHandler_;
+   protected final ChangelistSortHandler sortHandler_;
    private final ListDataProvider<StatusAndPath> dataProvider_;
    private final ProgressPanel progressPanel_;
    private LayoutPanel layout_;
    private ScrollPanel scrollPanel_;
    private ChangelistInfoBar infoBar_;
    private boolean selectFirstItemByDefault_;
+   private boolean itemsLoaded_;
+   private static final int MAX_DELTA_SIZE = 100;
    private static final ChangelistTableCellTableResources resources_ = GWT.<ChangelistTableCellTableResources>create(ChangelistTableCellTableResources.class);
 }
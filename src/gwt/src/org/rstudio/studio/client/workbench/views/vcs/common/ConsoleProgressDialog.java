@@ -12,6 +12,8 @@
  */
 package org.rstudio.studio.client.workbench.views.vcs.common;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.Style;
 import com.google.gwt.dom.client.Style.Unit;
@@ -24,15 +26,17 @@ import com.google.gwt.event.logical.shared.CloseHandler;
 import com.google.gwt.resources.client.ClientBundle;
 import com.google.gwt.resources.client.CssResource;
 import com.google.gwt.resources.client.ImageResource;
+import com.google.gwt.safehtml.shared.SafeHtmlUtils;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.user.client.Event;
 import com.google.gwt.user.client.Event.NativePreviewEvent;
 import com.google.gwt.user.client.ui.*;
 import org.rstudio.core.client.BrowseCap;
+import org.rstudio.core.client.ConsoleOutputBuffer;
 import org.rstudio.core.client.HandlerRegistrations;
+import org.rstudio.core.client.Size;
 import org.rstudio.core.client.StringUtil;
-import org.rstudio.core.client.VirtualConsole;
 import org.rstudio.core.client.command.KeyboardShortcut;
 import org.rstudio.core.client.widget.*;
 import org.rstudio.studio.client.common.SimpleRequestCallback;
@@ -62,6 +66,7 @@ public class ConsoleProgressDialog extends ModalDialogBase
       String progressCell();
       String buttonCell();
       String scrollPanel();
+      String fullLogCell();
    }
 
    interface Binder extends UiBinder<Widget, ConsoleProgressDialog>
@@ -108,14 +113,24 @@ public class ConsoleProgressDialog extends ModalDialogBase
 
       stopButton_ = new ThemedButton("Stop", this);
 
+      showFullLog_ = new HyperlinkLabel("Show full log", new ClickHandler()
+      {
+         @Override
+         public void onClick(ClickEvent event)
+         {
+            showFullLog();
+         }
+      });
+      showFullLog_.setVisible(false);
+
       centralWidget_ = GWT.<Binder>create(Binder.class).createAndBindUi(this);
 
       label_.setText(title);
 
       if (!StringUtil.isNullOrEmpty(initialOutput))
       {
-         console_.submit(initialOutput);
-         output_.setText(console_.toString());
+         buffer_.submit(initialOutput);
+         render();
       }
 
       Style style = scrollPanel_.getElement().getStyle();
@@ -196,17 +211,50 @@ public class ConsoleProgressDialog extends ModalDialogBase
 
    @Override
    public void onConsoleOutput(ConsoleOutputEvent event)
+   {
+      buffer_.submit(event.getOutput());
+
+      // output can arrive much faster than it can be shown, so it's
+      // rendered at most once per frame
+      if (!renderPending_)
+      {
+         renderPending_ = true;
+         AnimationScheduler.get().requestAnimationFrame(new AnimationCallback()
+         {
+            @Override
+            public void execute(double timestamp)
+            {
+               renderPending_ = false;
+               render();
+            }
+         });
+      }
+   }
+
+   private void render()
    {
       boolean scrolledToBottom = scrollPanel_.isScrolledToBottom();
-      appendOutput(event);
+      output_.setText(buffer_.getText(MAX_VISIBLE_LINES));
       if (scrolledToBottom)
          scrollPanel_.scrollToBottom();
+
+      showFullLog_.setVisible(buffer_.getLineCount() > MAX_VISIBLE_LINES ||
+                              buffer_.getDiscardedLineCount() > 0);
    }
 
-   private void appendOutput(ConsoleOutputEvent event)
+   private void showFullLog()
    {
-      console_.submit(event.getOutput());
-      output_.setText(console_.toString());
+      StringBuilder log = new StringBuilder();
+      if (buffer_.getDiscardedLineCount() > 0)
+      {
+         log.append("[" + buffer_.getDiscardedLineCount() +
+                    " earlier lines not shown]\n");
+      }
+      log.append(buffer_.getText());
+
+      new ShowContentDialog(getText(),
+                            SafeHtmlUtils.htmlEscape(log.toString()),
+                            new Size(700, 500)).showModal();
    }
 
    @Override
@@ -259,7 +307,9 @@ public class ConsoleProgressDialog extends ModalDialogBase
    private final ConsoleProcess consoleProcess_;
    private final PreWidget output_;
    private HandlerRegistrations registrations_;
-   private VirtualConsole console_ = new VirtualConsole();
+   private final ConsoleOutputBuffer buffer_ =
+                                 new ConsoleOutputBuffer(MAX_BUFFERED_LINES);
+   private boolean renderPending_;
 
    @UiField(provided = true)
    BottomScrollPanel scrollPanel_;
@@ -269,7 +319,13 @@ public class ConsoleProgressDialog extends ModalDialogBase
    Label label_;
    @UiField(provided = true)
    ThemedButton stopButton_;
+   @UiField(provided = true)
+   HyperlinkLabel showFullLog_;
    private Widget centralWidget_;
 
+   // lines shown in the dialog, and lines kept for the full log
+   private static final int MAX_VISIBLE_LINES = 500;
+   private static final int MAX_BUFFERED_LINES = 10000;
+
    private static final Resources resources_ = GWT.<Resources>create(Resources.class);
 }
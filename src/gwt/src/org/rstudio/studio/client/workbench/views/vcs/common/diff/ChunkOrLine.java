@@ -20,8 +20,19 @@ public class ChunkOrLine
    {
       ArrayList<ChunkOrLine> list = new ArrayList<ChunkOrLine>();
       list.add(new ChunkOrLine(chunk));
-      for (Line line : chunk.getLines())
-         list.add(new ChunkOrLine(line));
+
+      // Lines of compact chunks are referred to by index so they're only
+      // turned into Line objects once they're needed (e.g. rendered)
+      if (chunk.getCompactLines() != null)
+      {
+         for (int i = 0; i < chunk.getLineCount(); i++)
+            list.add(new ChunkOrLine(chunk, i));
+      }
+      else
+      {
+         for (Line line : chunk.getLines())
+            list.add(new ChunkOrLine(line));
+      }
       return list;
    }
 
@@ -29,24 +40,54 @@ public class ChunkOrLine
    {
       chunk_ = chunk;
       line_ = null;
+      lineIndex_ = -1;
    }
 
    public ChunkOrLine(Line line)
    {
       line_ = line;
       chunk_ = null;
+      lineIndex_ = -1;
+   }
+
+   private ChunkOrLine(DiffChunk chunk, int lineIndex)
+   {
+      chunk_ = chunk;
+      line_ = null;
+      lineIndex_ = lineIndex;
    }
 
    public DiffChunk getChunk()
    {
-      return chunk_;
+      return lineIndex_ >= 0 ? null : chunk_;
    }
 
    public Line getLine()
    {
-      return line_;
+      return lineIndex_ >= 0 ? chunk_.getLine(lineIndex_) : line_;
+   }
+
+   public boolean isChunk()
+   {
+      return lineIndex_ < 0 && chunk_ != null;
+   }
+
+   public int getDiffIndex()
+   {
+      if (lineIndex_ >= 0)
+         return chunk_.getCompactLines().getDiffIndex(lineIndex_);
+      return chunk_ != null ? chunk_.getDiffIndex() : line_.getDiffIndex();
+   }
+
+   // Returns null for chunk rows
+   public Line.Type getLineType()
+   {
+      if (lineIndex_ >= 0)
+         return chunk_.getLineType(lineIndex_);
+      return line_ != null ? line_.getType() : null;
    }
 
    private final DiffChunk chunk_;
    private final Line line_;
+   private final int lineIndex_;
 }
@@ -0,0 +1,300 @@
+/*
+ * CompactEmitter.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.diff;
+
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.Line.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Like UnifiedEmitter, subsets an existing patch down to the changes on a
+ * set of selected lines, but works directly off the chunks' line types and
+ * indexes (so compact chunks never have their lines turned into Line
+ * objects) and only emits hunks around the selected changes, with at most
+ * CONTEXT lines of context on either side.
+ *
+ * Reverse patches (which undo the selected changes on the changed file) are
+ * generated by passing reverse=true rather than by reversing the chunks.
+ *
+ * To allow several operations on the same chunks to be applied one after
+ * the other, lines whose changes have already been applied to the target
+ * can be passed to addApplied(); the patch is then generated against the
+ * target with those changes in place.
+ */
+public class CompactEmitter
+{
+   public CompactEmitter(String relPath, boolean reverse)
+   {
+      this("a/" + relPath, "b/" + relPath, reverse);
+   }
+
+   public CompactEmitter(String fileA, String fileB, boolean reverse)
+   {
+      fileA_ = fileA;
+      fileB_ = fileB;
+      reverse_ = reverse;
+   }
+
+   /**
+    * Add chunks of the diff. Chunks must be added in order, and every chunk
+    * of the file preceding a selected line must be included (they are needed
+    * to compute the line numbers of the target).
+    */
+   public void addChunks(List<DiffChunk> chunks)
+   {
+      chunks_.addAll(chunks);
+   }
+
+   public void addDiffs(List<Line> lines)
+   {
+      selectedLines_.addAll(lines);
+   }
+
+   public void addApplied(List<Line> lines)
+   {
+      appliedLines_.addAll(lines);
+   }
+
+   public String createPatch(boolean includeFileHeader)
+   {
+      if (chunks_.size() == 0 || selectedLines_.size() == 0)
+         return "";
+
+      minDiffIndex_ = Integer.MAX_VALUE;
+      int maxDiffIndex = Integer.MIN_VALUE;
+      for (DiffChunk chunk : chunks_)
+      {
+         if (chunk.getLineCount() == 0)
+            continue;
+         minDiffIndex_ = Math.min(minDiffIndex_, chunk.getLineDiffIndex(0));
+         maxDiffIndex = Math.max(
+               maxDiffIndex,
+               chunk.getLineDiffIndex(chunk.getLineCount() - 1));
+      }
+      if (minDiffIndex_ > maxDiffIndex)
+         return "";
+
+      selected_ = toLookup(selectedLines_, maxDiffIndex);
+      applied_ = toLookup(appliedLines_, maxDiffIndex);
+      appliedSkew_ = 0;
+      skew_ = 0;
+
+      StringBuilder p = new StringBuilder();
+      for (DiffChunk chunk : chunks_)
+         emitChunk(chunk, p);
+
+      if (p.length() == 0)
+         return "";
+
+      if (includeFileHeader)
+         p.insert(0, "--- " + fileA_ + EOL + "+++ " + fileB_ + EOL);
+
+      return p.toString();
+   }
+
+   private void emitChunk(DiffChunk chunk, StringBuilder p)
+   {
+      Range[] ranges = chunk.getRanges();
+      if (ranges.length != 2)
+         throw new UnsupportedOperationException(
+               "Can't emit a patch for a combined diff");
+
+      // the number of lines of the target preceding the chunk
+      Range source = ranges[reverse_ ? 1 : 0];
+      int targetLine = appliedSkew_ +
+            (source.rowCount == 0 ? source.startRow : source.startRow - 1);
+
+      // lines of this type are present in the target (unless applied)
+      Type removal = reverse_ ? Type.Insertion : Type.Deletion;
+
+      int count = chunk.getLineCount();
+      char[] ops = new char[count];
+      int[] lines = new int[count];
+      int[] oldBefore = new int[count];
+      int[] newBefore = new int[count];
+      int n = 0;
+
+      for (int i = 0; i < count; i++)
+      {
+         Type type = chunk.getLineType(i);
+         int diffIndex = chunk.getLineDiffIndex(i);
+
+         char op;
+         if (type == Type.Same)
+         {
+            op = ' ';
+         }
+         else if (type == Type.Comment)
+         {
+            // only meaningful following the line it was attached to
+            op = n > 0 && lines[n - 1] == i - 1 ? '\\' : 0;
+         }
+         else if (type == removal)
+         {
+            if (isSet(applied_, diffIndex))
+            {
+               op = 0;
+               appliedSkew_--;
+            }
+            else
+            {
+               op = isSet(selected_, diffIndex) ? '-' : ' ';
+            }
+         }
+         else
+         {
+            if (isSet(applied_, diffIndex))
+            {
+               op = ' ';
+               appliedSkew_++;
+            }
+            else
+            {
+               op = isSet(selected_, diffIndex) ? '+' : 0;
+            }
+         }
+
+         if (op == 0)
+            continue;
+
+         ops[n] = op;
+         lines[n] = i;
+         oldBefore[n] = targetLine;
+         newBefore[n] = targetLine + skew_;
+         n++;
+
+         if (op == ' ' || op == '-')
+            targetLine++;
+         if (op == '-')
+            skew_--;
+         else if (op == '+')
+            skew_++;
+      }
+
+      // keep the changes and up to CONTEXT lines of context around them
+      boolean[] keep = new boolean[n];
+      for (int k = 0; k < n; k++)
+      {
+         if (!isChange(ops[k]))
+            continue;
+
+         keep[k] = true;
+         for (int j = k - 1, context = 0;
+              j >= 0 && context < CONTEXT && !isChange(ops[j]);
+              j--)
+         {
+            keep[j] = true;
+            if (ops[j] == ' ')
+               context++;
+         }
+         for (int j = k + 1, context = 0;
+              j < n && context < CONTEXT && !isChange(ops[j]);
+              j++)
+         {
+            keep[j] = true;
+            if (ops[j] == ' ')
+               context++;
+         }
+      }
+      for (int k = 1; k < n; k++)
+      {
+         if (ops[k] == '\\')
+            keep[k] = keep[k - 1];
+      }
+
+      // each run of kept lines becomes a hunk
+      int start = 0;
+      while (start < n)
+      {
+         if (!keep[start])
+         {
+            start++;
+            continue;
+         }
+
+         int end = start;
+         while (end < n && keep[end])
+            end++;
+
+         int oldCount = 0;
+         int newCount = 0;
+         for (int k = start; k < end; k++)
+         {
+            if (ops[k] == ' ' || ops[k] == '-')
+               oldCount++;
+            if (ops[k] == ' ' || ops[k] == '+')
+               newCount++;
+         }
+
+         p.append("@@ -")
+          .append(oldCount == 0 ? oldBefore[start] : oldBefore[start] + 1)
+          .append(',').append(oldCount)
+          .append(" +")
+          .append(newCount == 0 ? newBefore[start] : newBefore[start] + 1)
+          .append(',').append(newCount)
+          .append(" @@").append(EOL);
+
+         for (int k = start; k < end; k++)
+         {
+            p.append(ops[k]);
+            chunk.appendLineText(lines[k], p);
+            p.append(EOL);
+         }
+
+         start = end;
+      }
+   }
+
+   private boolean[] toLookup(ArrayList<Line> lines, int maxDiffIndex)
+   {
+      boolean[] lookup = new boolean[maxDiffIndex - minDiffIndex_ + 1];
+      for (Line line : lines)
+      {
+         int index = line.getDiffIndex() - minDiffIndex_;
+         if (index >= 0 && index < lookup.length)
+            lookup[index] = true;
+      }
+      return lookup;
+   }
+
+   private boolean isSet(boolean[] lookup, int diffIndex)
+   {
+      return lookup[diffIndex - minDiffIndex_];
+   }
+
+   private static boolean isChange(char op)
+   {
+      return op == '+' || op == '-';
+   }
+
+   private final ArrayList<DiffChunk> chunks_ = new ArrayList<DiffChunk>();
+   private final ArrayList<Line> selectedLines_ = new ArrayList<Line>();
+   private final ArrayList<Line> appliedLines_ = new ArrayList<Line>();
+   private final String fileA_;
+   private final String fileB_;
+   private final boolean reverse_;
+
+   // state used while creating the patch
+   private boolean[] selected_;
+   private boolean[] applied_;
+   private int minDiffIndex_;
+   // offset of the target's lines from the chunks' source lines due to
+   // already applied changes
+   private int appliedSkew_;
+   // offset of the patched lines from the target's lines
+   private int skew_;
+
+   private static final int CONTEXT = 3;
+   private static final String EOL = "\n";
+}
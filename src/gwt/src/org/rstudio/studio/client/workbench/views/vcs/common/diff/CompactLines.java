@@ -0,0 +1,158 @@
+/*
+ * CompactLines.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.diff;
+
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.Line.Type;
+
+/**
+ * The lines of a diff chunk, stored column-wise. The text of each line is
+ * an offset range into the original diff, and the line numbers and masks
+ * of all the lines are kept in flat primitive arrays (one entry per line
+ * per file compared). Line objects are only created for the lines that
+ * are actually asked for.
+ */
+public class CompactLines
+{
+   CompactLines(String source, int width, int firstDiffIndex, int capacity)
+   {
+      source_ = source;
+      width_ = width;
+      firstDiffIndex_ = firstDiffIndex;
+
+      capacity = Math.max(capacity, 1);
+      types_ = new byte[capacity];
+      textStarts_ = new int[capacity];
+      textEnds_ = new int[capacity];
+      positions_ = new int[capacity * width];
+      appliesTo_ = new boolean[capacity * width];
+   }
+
+   void add(Type type,
+            int[] positions,
+            boolean[] appliesTo,
+            int textStart,
+            int textEnd)
+   {
+      if (size_ == types_.length)
+         grow();
+
+      types_[size_] = (byte) type.ordinal();
+      textStarts_[size_] = textStart;
+      textEnds_[size_] = textEnd;
+      System.arraycopy(positions, 0, positions_, size_ * width_, width_);
+      System.arraycopy(appliesTo, 0, appliesTo_, size_ * width_, width_);
+      size_++;
+   }
+
+   public int size()
+   {
+      return size_;
+   }
+
+   public Type getType(int index)
+   {
+      return TYPES[types_[index]];
+   }
+
+   // lines are numbered consecutively from the line after the chunk header
+   public int getDiffIndex(int index)
+   {
+      return firstDiffIndex_ + index;
+   }
+
+   public int getLineNumber(int index, int column)
+   {
+      return positions_[index * width_ + column];
+   }
+
+   public boolean appliesTo(int index, int column)
+   {
+      return appliesTo_[index * width_ + column];
+   }
+
+   public String getText(int index)
+   {
+      return source_.substring(textStarts_[index], textEnds_[index]);
+   }
+
+   public void appendText(int index, StringBuilder sb)
+   {
+      sb.append(source_, textStarts_[index], textEnds_[index]);
+   }
+
+   public Line getLine(int index)
+   {
+      if (lines_ == null || lines_.length < size_)
+      {
+         Line[] lines = new Line[size_];
+         if (lines_ != null)
+            System.arraycopy(lines_, 0, lines, 0, lines_.length);
+         lines_ = lines;
+      }
+
+      if (lines_[index] == null)
+      {
+         int[] positions = new int[width_];
+         boolean[] appliesTo = new boolean[width_];
+         System.arraycopy(positions_, index * width_, positions, 0, width_);
+         System.arraycopy(appliesTo_, index * width_, appliesTo, 0, width_);
+
+         lines_[index] = new Line(getType(index),
+                                  appliesTo,
+                                  positions,
+                                  source_,
+                                  textStarts_[index],
+                                  textEnds_[index],
+                                  getDiffIndex(index));
+      }
+      return lines_[index];
+   }
+
+   private void grow()
+   {
+      int capacity = types_.length * 2;
+
+      byte[] types = new byte[capacity];
+      System.arraycopy(types_, 0, types, 0, size_);
+      types_ = types;
+
+      textStarts_ = copyOf(textStarts_, capacity);
+      textEnds_ = copyOf(textEnds_, capacity);
+      positions_ = copyOf(positions_, capacity * width_);
+
+      boolean[] appliesTo = new boolean[capacity * width_];
+      System.arraycopy(appliesTo_, 0, appliesTo, 0, size_ * width_);
+      appliesTo_ = appliesTo;
+   }
+
+   private static int[] copyOf(int[] array, int length)
+   {
+      int[] newArray = new int[length];
+      System.arraycopy(array, 0, newArray, 0, Math.min(array.length, length));
+      return newArray;
+   }
+
+   private final String source_;
+   private final int width_;
+   private final int firstDiffIndex_;
+   private int size_;
+   private byte[] types_;
+   private int[] textStarts_;
+   private int[] textEnds_;
+   private int[] positions_;
+   private boolean[] appliesTo_;
+   // lines which have been materialized (created on first use)
+   private Line[] lines_;
+
+   private static final Type[] TYPES = Type.values();
+}
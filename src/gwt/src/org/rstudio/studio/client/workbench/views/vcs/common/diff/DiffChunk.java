@@ -24,6 +24,19 @@ public class DiffChunk
       this.ranges_ = ranges;
       this.lineText_ = lineText;
       this.diffLines_ = diffLines;
+      this.compactLines_ = null;
+      diffIndex_ = diffIndex;
+   }
+
+   // A chunk whose lines are only turned into Line objects when needed
+   public DiffChunk(Range[] ranges,
+                    String lineText,
+                    CompactLines compactLines,
+                    int diffIndex)
+   {
+      this.ranges_ = ranges;
+      this.lineText_ = lineText;
+      this.compactLines_ = compactLines;
       diffIndex_ = diffIndex;
    }
 
@@ -39,14 +52,57 @@ public class DiffChunk
 
       return new DiffChunk(newRanges,
                            lineText_,
-                           Line.reverseLines(diffLines_), diffIndex_);
+                           Line.reverseLines(getLines()), diffIndex_);
    }
 
    public ArrayList<Line> getLines()
    {
+      if (diffLines_ == null)
+      {
+         diffLines_ = new ArrayList<Line>(compactLines_.size());
+         for (int i = 0; i < compactLines_.size(); i++)
+            diffLines_.add(compactLines_.getLine(i));
+      }
       return diffLines_;
    }
 
+   public int getLineCount()
+   {
+      return compactLines_ != null ? compactLines_.size() : diffLines_.size();
+   }
+
+   public Line getLine(int index)
+   {
+      return compactLines_ != null ? compactLines_.getLine(index)
+                                   : diffLines_.get(index);
+   }
+
+   public Line.Type getLineType(int index)
+   {
+      return compactLines_ != null ? compactLines_.getType(index)
+                                   : diffLines_.get(index).getType();
+   }
+
+   public int getLineDiffIndex(int index)
+   {
+      return compactLines_ != null ? compactLines_.getDiffIndex(index)
+                                   : diffLines_.get(index).getDiffIndex();
+   }
+
+   public void appendLineText(int index, StringBuilder sb)
+   {
+      if (compactLines_ != null)
+         compactLines_.appendText(index, sb);
+      else
+         diffLines_.get(index).appendText(sb);
+   }
+
+   // Returns null unless the chunk was parsed in compact mode
+   public CompactLines getCompactLines()
+   {
+      return compactLines_;
+   }
+
    public Range[] getRanges()
    {
       return ranges_;
@@ -63,7 +119,8 @@ public class DiffChunk
    }
 
    private final String lineText_;
-   private final ArrayList<Line> diffLines_;
+   private ArrayList<Line> diffLines_;
+   private final CompactLines compactLines_;
    private final int diffIndex_;
    private final Range[] ranges_;
 }
@@ -0,0 +1,222 @@
+/*
+ * DiffParseTask.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.diff;
+
+import java.util.ArrayList;
+
+import org.rstudio.core.client.worker.WorkerTask;
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.Line.Type;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayInteger;
+import com.google.gwt.resources.client.ClientBundle;
+import com.google.gwt.resources.client.TextResource;
+
+/**
+ * Parses the chunks of the first file pair of a diff into compact chunks
+ * (as UnifiedParser does in compact mode), in a web worker when the diff
+ * is large. The worker side is unified_parser_worker.js.
+ */
+public class DiffParseTask extends WorkerTask<String, ArrayList<DiffChunk>>
+{
+   interface Resources extends ClientBundle
+   {
+      @Source("unified_parser_worker.js")
+      TextResource unified_parser_worker();
+   }
+
+   @Override
+   public String getName()
+   {
+      return "Diff parser";
+   }
+
+   @Override
+   public String getScript()
+   {
+      return ((Resources) GWT.create(Resources.class))
+                                    .unified_parser_worker().getText();
+   }
+
+   @Override
+   public boolean isWorthOffloading(String diff)
+   {
+      return diff.length() >= MIN_WORKER_LENGTH;
+   }
+
+   @Override
+   public JavaScriptObject serializeInput(String diff)
+   {
+      return createInput(diff);
+   }
+
+   @Override
+   public ArrayList<DiffChunk> deserializeOutput(String diff,
+                                                 JavaScriptObject output)
+   {
+      ParsedDiff parsed = output.cast();
+      JsArrayInteger types = parsed.getTypes();
+      JsArrayInteger textStarts = parsed.getTextStarts();
+      JsArrayInteger textEnds = parsed.getTextEnds();
+      JsArrayInteger positionValues = parsed.getPositions();
+      JsArrayInteger appliesToValues = parsed.getAppliesTo();
+
+      JsArray<ParsedChunk> parsedChunks = parsed.getChunks();
+      ArrayList<DiffChunk> chunks =
+                           new ArrayList<DiffChunk>(parsedChunks.length());
+      for (int i = 0; i < parsedChunks.length(); i++)
+      {
+         ParsedChunk parsedChunk = parsedChunks.get(i);
+
+         JsArrayInteger rangeValues = parsedChunk.getRanges();
+         int width = rangeValues.length() / 2;
+         Range[] ranges = new Range[width];
+         for (int j = 0; j < width; j++)
+            ranges[j] = new Range(rangeValues.get(j * 2),
+                                  rangeValues.get(j * 2 + 1));
+
+         int lineCount = parsedChunk.getLineCount();
+         CompactLines lines = new CompactLines(diff,
+                                               width,
+                                               parsedChunk.getFirstDiffIndex(),
+                                               lineCount);
+
+         // the arrays are copied by CompactLines, so they can be reused
+         int[] positions = new int[width];
+         boolean[] appliesTo = new boolean[width];
+         int line = parsedChunk.getLineOffset();
+         int value = parsedChunk.getValueOffset();
+         for (int j = 0; j < lineCount; j++, line++)
+         {
+            for (int k = 0; k < width; k++, value++)
+            {
+               positions[k] = positionValues.get(value);
+               appliesTo[k] = appliesToValues.get(value) != 0;
+            }
+            lines.add(toType(types.get(line)),
+                      positions,
+                      appliesTo,
+                      textStarts.get(line),
+                      textEnds.get(line));
+         }
+
+         chunks.add(new DiffChunk(ranges,
+                                  parsedChunk.getExtraInfo(),
+                                  lines,
+                                  parsedChunk.getDiffIndex()));
+      }
+      return chunks;
+   }
+
+   @Override
+   public ArrayList<DiffChunk> computeSync(String diff)
+   {
+      UnifiedParser parser = new UnifiedParser(diff, true);
+      parser.nextFilePair();
+
+      ArrayList<DiffChunk> chunks = new ArrayList<DiffChunk>();
+      DiffChunk chunk;
+      while (null != (chunk = parser.nextChunk()))
+         chunks.add(chunk);
+      return chunks;
+   }
+
+   private static Type toType(int directive)
+   {
+      switch (directive)
+      {
+         case '-':
+            return Type.Deletion;
+         case '+':
+            return Type.Insertion;
+         case '\\':
+            return Type.Comment;
+         default:
+            return Type.Same;
+      }
+   }
+
+   private static native JavaScriptObject createInput(String data) /*-{
+      return { data: data };
+   }-*/;
+
+   private static class ParsedDiff extends JavaScriptObject
+   {
+      protected ParsedDiff()
+      {
+      }
+
+      public final native JsArray<ParsedChunk> getChunks() /*-{
+         return this.chunks;
+      }-*/;
+
+      public final native JsArrayInteger getTypes() /*-{
+         return this.types;
+      }-*/;
+
+      public final native JsArrayInteger getTextStarts() /*-{
+         return this.textStarts;
+      }-*/;
+
+      public final native JsArrayInteger getTextEnds() /*-{
+         return this.textEnds;
+      }-*/;
+
+      public final native JsArrayInteger getPositions() /*-{
+         return this.positions;
+      }-*/;
+
+      public final native JsArrayInteger getAppliesTo() /*-{
+         return this.appliesTo;
+      }-*/;
+   }
+
+   private static class ParsedChunk extends JavaScriptObject
+   {
+      protected ParsedChunk()
+      {
+      }
+
+      public final native JsArrayInteger getRanges() /*-{
+         return this.ranges;
+      }-*/;
+
+      public final native String getExtraInfo() /*-{
+         return this.extraInfo;
+      }-*/;
+
+      public final native int getDiffIndex() /*-{
+         return this.diffIndex;
+      }-*/;
+
+      public final native int getFirstDiffIndex() /*-{
+         return this.firstDiffIndex;
+      }-*/;
+
+      public final native int getLineOffset() /*-{
+         return this.lineOffset;
+      }-*/;
+
+      public final native int getValueOffset() /*-{
+         return this.valueOffset;
+      }-*/;
+
+      public final native int getLineCount() /*-{
+         return this.lineCount;
+      }-*/;
+   }
+
+   private static final int MIN_WORKER_LENGTH = 64 * 1024;
+}
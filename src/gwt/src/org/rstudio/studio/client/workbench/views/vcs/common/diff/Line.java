@@ -81,6 +81,41 @@ public class Line implements Comparable<Line>
       diffIndex_ = diffIndex;
    }
 
+   // A line whose text is the given range of the source (the text is only
+   // extracted from the source if it's asked for)
+   Line(Type type,
+        boolean[] appliesTo,
+        int[] lines,
+        String source,
+        int textStart,
+        int textEnd,
+        int diffIndex)
+   {
+      type_ = type;
+      appliesTo_ = appliesTo;
+      lines_ = lines;
+      source_ = source;
+      textStart_ = textStart;
+      textEnd_ = textEnd;
+      diffIndex_ = diffIndex;
+   }
+
+   // A two-column copy of this line with a new type and line numbers (the
+   // text is shared with this line)
+   public Line withLines(Type type, int oldLine, int newLine)
+   {
+      if (text_ != null)
+         return new Line(type, oldLine, newLine, text_, diffIndex_);
+
+      return new Line(type,
+                      new boolean[] { true },
+                      new int[] {oldLine, newLine},
+                      source_,
+                      textStart_,
+                      textEnd_,
+                      diffIndex_);
+   }
+
    public Type getType()
    {
       return type_;
@@ -98,9 +133,19 @@ public class Line implements Comparable<Line>
 
    public String getText()
    {
+      if (text_ == null)
+         text_ = source_.substring(textStart_, textEnd_);
       return text_;
    }
 
+   public void appendText(StringBuilder sb)
+   {
+      if (text_ != null)
+         sb.append(text_);
+      else
+         sb.append(source_, textStart_, textEnd_);
+   }
+
    public int getDiffIndex()
    {
       return diffIndex_;
@@ -111,11 +156,7 @@ public class Line implements Comparable<Line>
       if (appliesTo_.length > 2)
          throw new UnsupportedOperationException("Can't reverse combined diff");
 
-      return new Line(type_.getInverse(),
-                      lines_[1],
-                      lines_[0],
-                      text_,
-                      diffIndex_);
+      return withLines(type_.getInverse(), lines_[1], lines_[0]);
    }
 
    @Override
@@ -157,6 +198,9 @@ public class Line implements Comparable<Line>
    private final Type type_;
    private final int[] lines_;
    private final boolean[] appliesTo_;
-   private final String text_;
+   private String text_;
+   private String source_;
+   private int textStart_;
+   private int textEnd_;
    private final int diffIndex_;
 }
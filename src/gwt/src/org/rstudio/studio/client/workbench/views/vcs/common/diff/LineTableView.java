@@ -15,16 +15,21 @@ package org.rstudio.studio.client.workbench.views.vcs.common.diff;
 import com.google.gwt.cell.client.AbstractCell;
 import com.google.gwt.cell.client.ValueUpdater;
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.user.cellview.client.CellTable;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.RowStyles;
 import com.google.gwt.user.cellview.client.TextColumn;
+import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.view.client.MultiSelectionModel;
 import com.google.gwt.view.client.ProvidesKey;
 import com.google.gwt.view.client.SelectionChangeEvent;
@@ -46,6 +51,7 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.DiffLinesActi
 import org.rstudio.studio.client.workbench.views.vcs.common.events.DiffLinesActionHandler;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 
 public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements Display
@@ -326,16 +332,14 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
          @Override
          public Object getKey(ChunkOrLine item)
          {
-            if (item.getChunk() != null)
-               return item.getChunk().getDiffIndex();
-            else
-               return item.getLine().getDiffIndex();
+            return item.getDiffIndex();
          }
       }) {
          @Override
          public void setSelected(ChunkOrLine object, boolean selected)
          {
-            if (object.getLine() != null && object.getLine().getType() != Line.Type.Same)
+            Line.Type type = object.getLineType();
+            if (type != null && type != Line.Type.Same)
                super.setSelected(object, selected);
          }
       };
@@ -373,7 +377,7 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    private void refreshValue(ChunkOrLine value)
    {
       int index = lines_.indexOf(value);
-      if (index >= 0)
+      if (index >= 0 && isRendered(index))
       {
          ArrayList<ChunkOrLine> list = new ArrayList<ChunkOrLine>();
          list.add(value);
@@ -400,6 +404,23 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       selectionModel_.setEnabled(showActions);
    }
 
+   // Once a scroll panel is provided only the rows near its viewport are
+   // rendered (the rest of the table's height is made up by margins);
+   // otherwise all rows are rendered
+   public void setScrollPanel(ScrollPanel scrollPanel)
+   {
+      scrollPanel_ = scrollPanel;
+      scrollPanel_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            updateWindow();
+         }
+      });
+      render();
+   }
+
    @Override
    public void setData(ArrayList<ChunkOrLine> diffData, PatchMode patchMode)
    {
@@ -415,52 +436,198 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
             break;
       }
 
-      lines_ = diffData;
-      setPageSize(diffData.size());
+      lines_ = new ArrayList<ChunkOrLine>(diffData);
       selectionModel_.clear();
       firstSelectedLine_ = null;
-      setRowData(diffData);
 
       startRows_.clear();
       endRows_.clear();
+      borderState_ = Line.Type.Same;
+      suppressNextStart_ = true; // Suppress at start to avoid 2px border
+      updateBorders(0);
+
+      // The window is kept where it was since a refreshed diff is usually
+      // shown at the same scroll position
+      render();
+   }
+
+   // Add rows to the end of the table (used as a diff is parsed)
+   @Override
+   public void appendData(ArrayList<ChunkOrLine> diffData)
+   {
+      if (diffData.size() == 0)
+         return;
+
+      int oldSize = lines_.size();
+      lines_.addAll(diffData);
+      updateBorders(oldSize);
+
+      // The last of the existing rows may have had its border changed
+      if (isRendered(oldSize - 1) || isRendered(oldSize))
+         render();
+      else
+         scheduleUpdateSpacers();
+   }
+
+   private void updateBorders(int start)
+   {
+      // The last row is no longer the last row, so it only keeps the
+      // border which was added for the edge case if the loop adds it again
+      if (start > 0 && lastRowEnd_)
+         endRows_.remove(start - 1);
+      lastRowEnd_ = false;
 
-      Line.Type state = Line.Type.Same;
-      boolean suppressNextStart = true; // Suppress at start to avoid 2px border
-      for (int i = 0; i < lines_.size(); i++)
+      for (int i = start; i < lines_.size(); i++)
       {
          ChunkOrLine chunkOrLine = lines_.get(i);
-         Line line = chunkOrLine.getLine();
-         boolean isChunk = line == null;
-         Line.Type newState = isChunk ? Line.Type.Same : line.getType();
+         boolean isChunk = chunkOrLine.isChunk();
+         Line.Type newState = isChunk ? Line.Type.Same
+                                      : chunkOrLine.getLineType();
 
          // Edge case: last line is a diff line
          if (newState != Line.Type.Same && i == lines_.size() - 1)
+         {
             endRows_.add(i);
+            lastRowEnd_ = true;
+         }
 
-         if (newState != state)
+         if (newState != borderState_)
          {
             // Note: endRows_ doesn't include the borders between insertions and
             // deletions, or vice versa. This is to avoid 2px borders between
             // these regions when just about everything else is 1px.
-            if (state != Line.Type.Same && newState == Line.Type.Same)
+            if (borderState_ != Line.Type.Same && newState == Line.Type.Same)
                endRows_.add(i-1);
-            if (!suppressNextStart && newState != Line.Type.Same)
+            if (!suppressNextStart_ && newState != Line.Type.Same)
                startRows_.add(i);
 
-            state = newState;
+            borderState_ = newState;
          }
 
-         suppressNextStart = isChunk;
+         suppressNextStart_ = isChunk;
       }
    }
 
+   private boolean isWindowed()
+   {
+      return scrollPanel_ != null && lines_.size() > WINDOW_SIZE;
+   }
+
+   private boolean isRendered(int row)
+   {
+      if (row < 0 || row >= lines_.size())
+         return false;
+      if (!isWindowed())
+         return true;
+      return row >= windowStart_ && row < windowStart_ + WINDOW_SIZE;
+   }
+
+   private void render()
+   {
+      int start = 0;
+      int length = lines_.size();
+      if (isWindowed())
+      {
+         windowStart_ = Math.max(0, Math.min(windowStart_,
+                                             lines_.size() - WINDOW_SIZE));
+         start = windowStart_;
+         length = WINDOW_SIZE;
+      }
+      else
+      {
+         windowStart_ = 0;
+      }
+
+      setRowCount(lines_.size(), true);
+      setVisibleRange(start, length);
+      setRowData(start, new ArrayList<ChunkOrLine>(
+                                    lines_.subList(start, start + length)));
+      scheduleUpdateSpacers();
+   }
+
+   // Move the rendered window when the viewport nears either of its edges
+   private void updateWindow()
+   {
+      if (!isWindowed())
+         return;
+
+      measureRowHeight();
+
+      int firstVisible = scrollPanel_.getVerticalScrollPosition() / rowHeight_;
+      int visibleRows = scrollPanel_.getOffsetHeight() / rowHeight_ + 1;
+      int windowEnd = windowStart_ + WINDOW_SIZE;
+
+      boolean nearStart = windowStart_ > 0
+                          && firstVisible < windowStart_ + visibleRows;
+      boolean nearEnd = windowEnd < lines_.size()
+                        && firstVisible + 2 * visibleRows > windowEnd;
+      if (nearStart || nearEnd)
+      {
+         windowStart_ = Math.max(0,
+                                 firstVisible - (WINDOW_SIZE - visibleRows) / 2);
+         render();
+      }
+   }
+
+   private void scheduleUpdateSpacers()
+   {
+      if (spacersUpdatePending_)
+         return;
+      spacersUpdatePending_ = true;
+
+      // Finally commands run in the order scheduled, so this runs after the
+      // table has rendered the rows set just before it
+      Scheduler.get().scheduleFinally(new ScheduledCommand()
+      {
+         @Override
+         public void execute()
+         {
+            spacersUpdatePending_ = false;
+            updateSpacers();
+         }
+      });
+   }
+
+   private void updateSpacers()
+   {
+      int above = 0;
+      int below = 0;
+      if (isWindowed())
+      {
+         measureRowHeight();
+         above = windowStart_;
+         below = Math.max(0, lines_.size() - (windowStart_ + WINDOW_SIZE));
+      }
+
+      getElement().getStyle().setMarginTop(above * rowHeight_, Unit.PX);
+      getElement().getStyle().setMarginBottom(below * rowHeight_, Unit.PX);
+   }
+
+   // Estimate the height of the rows which aren't rendered from the
+   // average height of the ones which are
+   private void measureRowHeight()
+   {
+      int rendered = getVisibleItemCount();
+      int height = getTableBodyElement().getOffsetHeight();
+      if (rendered > 0 && height > 0)
+         rowHeight_ = Math.max(1, height / rendered);
+   }
+
+   @Override
+   protected void selectAll()
+   {
+      for (ChunkOrLine line : lines_)
+         selectionModel_.setSelected(line, true);
+   }
+
    @Override
    protected boolean canSelectVisibleRow(int visibleRow)
    {
-      if (visibleRow < 0 || visibleRow >= lines_.size())
+      int row = getVisibleRange().getStart() + visibleRow;
+      if (row < 0 || row >= lines_.size())
          return false;
 
-      Line line = lines_.get(visibleRow).getLine();
+      Line line = lines_.get(row).getLine();
       return line != null && (line.getType() == Type.Insertion
                               || line.getType() == Type.Deletion);
    }
@@ -474,10 +641,13 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    @Override
    public ArrayList<Line> getSelectedLines()
    {
+      // Only selected rows are looked at (rather than every row) so lines
+      // which were never rendered aren't created just to be skipped
       ArrayList<Line> selected = new ArrayList<Line>();
-      for (ChunkOrLine line : lines_)
-         if (line.getLine() != null && selectionModel_.isSelected(line))
+      for (ChunkOrLine line : selectionModel_.getSelectedSet())
+         if (line.getLine() != null)
             selected.add(line.getLine());
+      Collections.sort(selected);
       return selected;
    }
 
@@ -519,6 +689,17 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    private SwitchableSelectionModel<ChunkOrLine> selectionModel_;
    private HashSet<Integer> startRows_ = new HashSet<Integer>();
    private HashSet<Integer> endRows_ = new HashSet<Integer>();
+   // Border state as of the last row (so rows can be appended)
+   private Line.Type borderState_ = Line.Type.Same;
+   private boolean suppressNextStart_ = true;
+   private boolean lastRowEnd_;
+
+   private ScrollPanel scrollPanel_;
+   private int windowStart_;
+   private int rowHeight_ = DEFAULT_ROW_HEIGHT;
+   private boolean spacersUpdatePending_;
+   private static final int WINDOW_SIZE = 400;
+   private static final int DEFAULT_ROW_HEIGHT = 15;
    // Keep explicit track of the first selected line so we can render it differently
    private ChunkOrLine firstSelectedLine_;
    private static final LineTableViewCellTableResources RES = GWT.create(LineTableViewCellTableResources.class);
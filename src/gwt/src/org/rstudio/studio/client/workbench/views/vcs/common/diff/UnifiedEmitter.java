@@ -51,6 +51,17 @@ public class UnifiedEmitter
 
    public void addContext(DiffChunk chunk)
    {
+      // Insertions are never used as context, so for compact chunks they
+      // don't need to be turned into Line objects
+      if (chunk.getCompactLines() != null)
+      {
+         CompactLines lines = chunk.getCompactLines();
+         for (int i = 0; i < lines.size(); i++)
+            if (lines.getType(i) != Type.Insertion)
+               contextLines_.add(lines.getLine(i));
+         return;
+      }
+
       contextLines_.addAll(chunk.getLines());
    }
 
@@ -95,7 +106,8 @@ public class UnifiedEmitter
                default:
                   throw new IllegalArgumentException();
             }
-            p.append(line.getText()).append(EOL);
+            line.appendText(p);
+            p.append(EOL);
          }
       }
 
@@ -326,19 +338,15 @@ public class UnifiedEmitter
          {
             case Same:
             case Comment:
-               output.add(new Line(ctx.getType(), ctx.getOldLine(),
-                                   ctx.getOldLine() + skew,
-                                   ctx.getText(),
-                                   ctx.getDiffIndex()));
+               output.add(ctx.withLines(ctx.getType(), ctx.getOldLine(),
+                                        ctx.getOldLine() + skew));
                break;
             case Deletion:
                // This is a line that, in the source diff, was deleted from orig.
                // But since we're processing it as context, we ignore the delete,
                // so we turn it back into "Same".
-               output.add(new Line(Type.Same, ctx.getOldLine(),
-                                   ctx.getOldLine() + skew,
-                                   ctx.getText(),
-                                   ctx.getDiffIndex()));
+               output.add(ctx.withLines(Type.Same, ctx.getOldLine(),
+                                        ctx.getOldLine() + skew));
                break;
             default:
                assert false : "Unexpected context line type";
@@ -351,17 +359,13 @@ public class UnifiedEmitter
          switch (dff.getType())
          {
             case Deletion:
-               output.add(new Line(Type.Deletion, dff.getOldLine(),
-                                   dff.getOldLine() + skew,
-                                   dff.getText(),
-                                   dff.getDiffIndex()));
+               output.add(dff.withLines(Type.Deletion, dff.getOldLine(),
+                                        dff.getOldLine() + skew));
                skew--;
                break;
             case Insertion:
-               output.add(new Line(Type.Insertion, dff.getOldLine(),
-                                   dff.getOldLine() + skew,
-                                   dff.getText(),
-                                   dff.getDiffIndex()));
+               output.add(dff.withLines(Type.Insertion, dff.getOldLine(),
+                                        dff.getOldLine() + skew));
                skew++;
                break;
             default:
@@ -19,8 +19,19 @@ import java.util.ArrayList;
 public class UnifiedParser
 {
    public UnifiedParser(String data)
+   {
+      this(data, false);
+   }
+
+   /**
+    * In compact mode chunks store their lines as offsets into the diff text
+    * (see CompactLines) rather than as Line objects, and the text of a line
+    * is only extracted when it is needed.
+    */
+   public UnifiedParser(String data, boolean compact)
    {
       data_ = data;
+      compact_ = compact;
       diffIndex_ = 0;
    }
 
@@ -53,23 +64,24 @@ public class UnifiedParser
 
    public DiffChunk nextChunk()
    {
-      String nextLine = peekLine();
-      if (nextLine != null && nextLine.startsWith("diff "))
+      if (data_.startsWith("diff ", pos_))
          return null;
 
-      String line;
-      while (null != (line = nextLine()) && !(line.startsWith("@@") || line.startsWith("--- ")))
+      boolean found;
+      while ((found = advanceLine()) &&
+             !(lineStartsWith("@@") || lineStartsWith("--- ")))
       {
       }
 
-      if (line == null)
+      if (!found)
          return null;
 
-      if (line.startsWith("--- "))
+      if (lineStartsWith("--- "))
          return null;
 
 
-      ChunkHeaderInfo chunkHeaderInfo = new ChunkHeaderParser(line).parse();
+      ChunkHeaderInfo chunkHeaderInfo = new ChunkHeaderParser(
+                              data_.substring(lineStart_, lineEnd_)).parse();
       if (chunkHeaderInfo == null)
          throw new DiffFormatException("Malformed chunk header");
 
@@ -89,31 +101,72 @@ public class UnifiedParser
       int columns = ranges.length - 1;
 
       boolean[] mask = new boolean[ranges.length];
+      boolean[] unmask = new boolean[ranges.length];
 
-      ArrayList<Line> lines = new ArrayList<Line>();
+      ArrayList<Line> lines = compact_ ? null : new ArrayList<Line>();
+      CompactLines compactLines = !compact_ ? null : new CompactLines(
+            data_, ranges.length, diffIndex_, sum(counts));
       for (;
            !isEmpty(counts) || nextLineIsComment();
            diffIndex_++)
       {
-         String diffLine = nextLine();
-         if (diffLine == null)
+         if (!advanceLine())
             throw new DiffFormatException("Diff ended prematurely");
-         if (diffLine.length() < columns)
+         if (lineEnd_ - lineStart_ < columns)
             throw new DiffFormatException("Unexpected line format");
 
          int directive = ' ';
          for (int i = 0; i < columns; i++)
          {
-            mask[i] = diffLine.charAt(i) != ' ';
+            char c = data_.charAt(lineStart_ + i);
+            mask[i] = c != ' ';
             if (mask[i])
             {
                if (directive == ' ')
-                  directive = diffLine.charAt(i);
-               else if (directive != diffLine.charAt(i))
+                  directive = c;
+               else if (directive != c)
                   throw new DiffFormatException("Conflicting directives");
             }
          }
 
+         int textStart = lineStart_ + columns;
+
+         if (compact_)
+         {
+            // The arrays are copied by CompactLines, so they can be reused
+            switch (directive)
+            {
+               case ' ':
+                  addToSelected(positions, MASK_ALL, +1);
+                  addToSelected(counts, MASK_ALL, -1);
+                  compactLines.add(Type.Same, positions, MASK_ALL,
+                                   textStart, lineEnd_);
+                  break;
+               case '-':
+                  addToSelected(positions, mask, +1);
+                  addToSelected(counts, mask, -1);
+                  compactLines.add(Type.Deletion, positions, mask,
+                                   textStart, lineEnd_);
+                  break;
+               case '+':
+                  addToUnselected(positions, mask, +1);
+                  addToUnselected(counts, mask, -1);
+                  complement(mask, unmask);
+                  compactLines.add(Type.Insertion, positions, unmask,
+                                   textStart, lineEnd_);
+                  break;
+               case '\\':
+                  compactLines.add(Type.Comment, positions, MASK_NONE,
+                                   textStart, lineEnd_);
+                  break;
+               default:
+                  throw new DiffFormatException("Unexpected leading character");
+            }
+            continue;
+         }
+
+         String diffLine = data_.substring(textStart, lineEnd_);
+
          switch (directive)
          {
             case ' ':
@@ -124,7 +177,7 @@ public class UnifiedParser
                lines.add(new Line(Type.Same,
                                   MASK_ALL,
                                   clone(positions),
-                                  diffLine.substring(columns),
+                                  diffLine,
                                   diffIndex_));
                break;
             case '-':
@@ -135,7 +188,7 @@ public class UnifiedParser
                lines.add(new Line(Type.Deletion,
                                   clone(mask),
                                   clone(positions),
-                                  diffLine.substring(columns),
+                                  diffLine,
                                   diffIndex_));
                break;
             case '+':
@@ -146,7 +199,7 @@ public class UnifiedParser
                lines.add(new Line(Type.Insertion,
                                   complement(mask),
                                   clone(positions),
-                                  diffLine.substring(columns),
+                                  diffLine,
                                   diffIndex_));
                break;
             case '\\':
@@ -156,7 +209,7 @@ public class UnifiedParser
                lines.add(new Line(Type.Comment,
                                   MASK_NONE,
                                   clone(positions),
-                                  diffLine.substring(columns),
+                                  diffLine,
                                   diffIndex_));
                break;
             default:
@@ -167,17 +220,37 @@ public class UnifiedParser
       if (!isZero(counts))
          throw new DiffFormatException("Diff didn't match header ranges");
 
+      if (compact_)
+      {
+         return new DiffChunk(ranges,
+                              chunkHeaderInfo.extraInfo,
+                              compactLines,
+                              chunkDiffIndex);
+      }
       return new DiffChunk(ranges, chunkHeaderInfo.extraInfo, lines, chunkDiffIndex);
    }
 
    private boolean[] complement(boolean[] array)
    {
       boolean[] newArray = new boolean[array.length];
-      for (int i = 0; i < array.length; i++)
-         newArray[i] = !array[i];
+      complement(array, newArray);
       return newArray;
    }
 
+   private void complement(boolean[] array, boolean[] result)
+   {
+      for (int i = 0; i < array.length; i++)
+         result[i] = !array[i];
+   }
+
+   private int sum(int[] array)
+   {
+      int sum = 0;
+      for (int i : array)
+         sum += i;
+      return sum;
+   }
+
    private int[] clone(int[] array)
    {
       int[] newArray = new int[array.length];
@@ -240,50 +313,53 @@ public class UnifiedParser
       return !isEOD() && data_.charAt(pos_) == '\\';
    }
 
-   private String peekLine()
-   {
-      return nextLine(true);
-   }
-
    private String nextLine()
    {
-      return nextLine(false);
+      if (!advanceLine())
+         return null;
+      return data_.substring(lineStart_, lineEnd_);
    }
 
-   private String nextLine(boolean peek)
+   /**
+    * Moves past the next line without copying it: lineStart_ and lineEnd_
+    * are set to the bounds of the line (excluding the line terminator).
+    * Returns false if there are no more lines.
+    */
+   private boolean advanceLine()
    {
       if (isEOD())
-         return null;
+         return false;
 
-      int head = pos_;
-      // i will point to the tail (exclusive) of the string to be returned
-      int i = data_.indexOf('\n', head);
-      // length will indicate how far past i we should set pos_ to (unless peek)
-      int length;
+      lineStart_ = pos_;
+      int i = data_.indexOf('\n', lineStart_);
 
       if (i == -1)
       {
-         i = data_.length();
-         length = 0;
-      }
-      else if (i > 0 && data_.charAt(i-1) == '\r')
-      {
-         i--;
-         length = 2;
+         lineEnd_ = data_.length();
+         pos_ = lineEnd_;
       }
       else
       {
-         length = 1;
+         pos_ = i + 1;
+         if (i > lineStart_ && data_.charAt(i-1) == '\r')
+            i--;
+         lineEnd_ = i;
       }
 
-      if (!peek)
-         pos_ = i + length;
+      return true;
+   }
 
-      return data_.substring(head, i);
+   private boolean lineStartsWith(String prefix)
+   {
+      return lineEnd_ - lineStart_ >= prefix.length() &&
+             data_.startsWith(prefix, lineStart_);
    }
 
    private final String data_;
+   private final boolean compact_;
    private int pos_;
+   private int lineStart_;
+   private int lineEnd_;
    private int diffIndex_;
 }
 
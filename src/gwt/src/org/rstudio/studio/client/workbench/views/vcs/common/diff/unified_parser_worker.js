@@ -0,0 +1,268 @@
+/*
+ * unified_parser_worker.js
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+
+// Worker side of DiffParseTask: parses the chunks of the first file pair of
+// a unified diff the same way UnifiedParser does in compact mode. The lines
+// of all the chunks are returned column-wise in flat typed arrays, which
+// DiffParseTask turns into CompactLines. Any problem with the diff is
+// thrown, and the diff is then parsed by UnifiedParser (which reports it).
+
+function compute(input)
+{
+   var data = input.data;
+   var pos = 0;
+   var lineStart = 0;
+   var lineEnd = 0;
+   var diffIndex = 0;
+
+   function isEOD()
+   {
+      return pos >= data.length;
+   }
+
+   function advanceLine()
+   {
+      if (isEOD())
+         return false;
+
+      lineStart = pos;
+      var i = data.indexOf('\n', lineStart);
+      if (i == -1)
+      {
+         lineEnd = data.length;
+         pos = lineEnd;
+      }
+      else
+      {
+         pos = i + 1;
+         if (i > lineStart && data.charAt(i-1) == '\r')
+            i--;
+         lineEnd = i;
+      }
+      return true;
+   }
+
+   function lineStartsWith(prefix)
+   {
+      return lineEnd - lineStart >= prefix.length &&
+             data.substr(lineStart, prefix.length) == prefix;
+   }
+
+   function parseHeader(s)
+   {
+      var p = 0;
+      function peek() { return p < s.length ? s.charAt(p) : ''; }
+      function matchChar(c)
+      {
+         if (peek() == c)
+         {
+            p++;
+            return true;
+         }
+         return false;
+      }
+      function matchNumber()
+      {
+         var start = p;
+         while (peek() >= '0' && peek() <= '9')
+            p++;
+         return p == start ? null : parseInt(s.substring(start, p), 10);
+      }
+      function matchWhitespace()
+      {
+         while (peek() == ' ' || peek() == '\t')
+            p++;
+      }
+
+      var atCount = 0;
+      while (matchChar('@'))
+         atCount++;
+      if (atCount < 2)
+         return null;
+
+      var ranges = [];
+      for (var i = 0; i < atCount; i++)
+      {
+         matchWhitespace();
+         var start, count;
+         if (!matchChar(i < atCount-1 ? '-' : '+') ||
+             null === (start = matchNumber()))
+            return null;
+         if (matchChar(','))
+         {
+            if (null === (count = matchNumber()))
+               return null;
+         }
+         else
+         {
+            count = 1;
+         }
+         ranges.push(start, count);
+      }
+
+      matchWhitespace();
+      for (var j = 0; j < atCount; j++)
+      {
+         if (!matchChar('@'))
+            return null;
+      }
+
+      return { ranges: ranges, extraInfo: s.substring(p) };
+   }
+
+   // file header (see UnifiedParser.nextFilePair)
+   var found = false;
+   while (advanceLine())
+   {
+      if (lineStartsWith("--- "))
+      {
+         found = true;
+         break;
+      }
+   }
+   if (found && !(advanceLine() && lineStartsWith("+++ ")))
+      throw new Error("Incomplete file header");
+
+   var chunks = [];
+   var types = [];
+   var textStarts = [];
+   var textEnds = [];
+   var positionValues = [];
+   var appliesToValues = [];
+
+   // chunks (see UnifiedParser.nextChunk)
+   while (data.substr(pos, 5) != "diff ")
+   {
+      var foundHeader;
+      while ((foundHeader = advanceLine()) &&
+             !(lineStartsWith("@@") || lineStartsWith("--- ")))
+      {
+      }
+      if (!foundHeader || lineStartsWith("--- "))
+         break;
+
+      var header = parseHeader(data.substring(lineStart, lineEnd));
+      if (header == null)
+         throw new Error("Malformed chunk header");
+
+      var chunk = {
+         ranges: header.ranges,
+         extraInfo: header.extraInfo,
+         diffIndex: diffIndex++,
+         firstDiffIndex: diffIndex,
+         lineOffset: types.length,
+         valueOffset: positionValues.length
+      };
+
+      var width = header.ranges.length / 2;
+      var columns = width - 1;
+      var counts = [];
+      var positions = [];
+      var mask = [];
+      for (var k = 0; k < width; k++)
+      {
+         positions.push(header.ranges[k*2] - 1);
+         counts.push(header.ranges[k*2+1]);
+      }
+
+      while (true)
+      {
+         var remaining = false;
+         for (k = 0; k < width; k++)
+            remaining = remaining || counts[k] > 0;
+         if (!remaining && !(!isEOD() && data.charAt(pos) == '\\'))
+            break;
+
+         if (!advanceLine())
+            throw new Error("Diff ended prematurely");
+         if (lineEnd - lineStart < columns)
+            throw new Error("Unexpected line format");
+
+         var directive = ' ';
+         for (k = 0; k < columns; k++)
+         {
+            var c = data.charAt(lineStart + k);
+            mask[k] = c != ' ';
+            if (mask[k])
+            {
+               if (directive == ' ')
+                  directive = c;
+               else if (directive != c)
+                  throw new Error("Conflicting directives");
+            }
+         }
+         // the last column is the new file, which is never masked
+         mask[columns] = false;
+
+         var applies = [];
+         for (k = 0; k < width; k++)
+         {
+            var selected;
+            switch (directive)
+            {
+               case ' ':
+                  selected = true;
+                  applies[k] = true;
+                  break;
+               case '-':
+                  selected = mask[k];
+                  applies[k] = mask[k];
+                  break;
+               case '+':
+                  selected = !mask[k];
+                  applies[k] = !mask[k];
+                  break;
+               case '\\':
+                  selected = false;
+                  applies[k] = false;
+                  break;
+               default:
+                  throw new Error("Unexpected leading character");
+            }
+            if (selected)
+            {
+               positions[k]++;
+               counts[k]--;
+            }
+         }
+
+         types.push(directive.charCodeAt(0));
+         textStarts.push(lineStart + columns);
+         textEnds.push(lineEnd);
+         for (k = 0; k < width; k++)
+         {
+            positionValues.push(positions[k]);
+            appliesToValues.push(applies[k] ? 1 : 0);
+         }
+         diffIndex++;
+      }
+
+      for (k = 0; k < width; k++)
+      {
+         if (counts[k] != 0)
+            throw new Error("Diff didn't match header ranges");
+      }
+
+      chunk.lineCount = types.length - chunk.lineOffset;
+      chunks.push(chunk);
+   }
+
+   return {
+      chunks: chunks,
+      types: new Int32Array(types),
+      textStarts: new Int32Array(textStarts),
+      textEnds: new Int32Array(textEnds),
+      positions: new Int32Array(positionValues),
+      appliesTo: new Uint8Array(appliesToValues)
+   };
+}
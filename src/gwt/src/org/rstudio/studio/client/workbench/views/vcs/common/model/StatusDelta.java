@@ -0,0 +1,78 @@
+/*
+ * StatusDelta.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.model;
+
+import org.rstudio.studio.client.common.vcs.StatusAndPath;
+
+import java.util.ArrayList;
+
+// the rows that changed between two successive status snapshots. modified
+// rows are reported as pairs: getModified().get(i) replaces
+// getReplaced().get(i)
+public class StatusDelta
+{
+   public void add(StatusAndPath item)
+   {
+      added_.add(item);
+   }
+
+   public void modify(StatusAndPath oldItem, StatusAndPath newItem)
+   {
+      replaced_.add(oldItem);
+      modified_.add(newItem);
+   }
+
+   public void remove(StatusAndPath item)
+   {
+      removed_.add(item);
+   }
+
+   public ArrayList<StatusAndPath> getAdded()
+   {
+      return added_;
+   }
+
+   public ArrayList<StatusAndPath> getModified()
+   {
+      return modified_;
+   }
+
+   public ArrayList<StatusAndPath> getReplaced()
+   {
+      return replaced_;
+   }
+
+   public ArrayList<StatusAndPath> getRemoved()
+   {
+      return removed_;
+   }
+
+   public int size()
+   {
+      return added_.size() + modified_.size() + removed_.size();
+   }
+
+   public boolean isEmpty()
+   {
+      return size() == 0;
+   }
+
+   private final ArrayList<StatusAndPath> added_ =
+                                          new ArrayList<StatusAndPath>();
+   private final ArrayList<StatusAndPath> modified_ =
+                                          new ArrayList<StatusAndPath>();
+   private final ArrayList<StatusAndPath> replaced_ =
+                                          new ArrayList<StatusAndPath>();
+   private final ArrayList<StatusAndPath> removed_ =
+                                          new ArrayList<StatusAndPath>();
+}
@@ -34,6 +34,8 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEve
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshHandler;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public abstract class VcsState
 {
@@ -66,13 +68,16 @@ public abstract class VcsState
                   }
                }, event.getDelayMs());
             }
-            else
+            else if (!refreshScheduled_)
             {
+               // bursts of refresh events result in a single refresh
+               refreshScheduled_ = true;
                Scheduler.get().scheduleDeferred(new ScheduledCommand()
                {
                   @Override
                   public void execute()
                   {
+                     refreshScheduled_ = false;
                      refresh(false);
                   }
                });
@@ -99,25 +104,37 @@ public abstract class VcsState
 
             if (status_ != null)
             {
-               for (int i = 0; i < status_.size(); i++)
+               String key = status.getRawPath();
+               StatusAndPath oldStatus = status_.get(key);
+               boolean clean =
+                  StringUtil.notNull(status.getStatus()).trim().length() == 0;
+
+               StatusDelta delta = new StatusDelta();
+               if (oldStatus != null && clean)
                {
-                  if (status.getRawPath().equals(status_.get(i).getRawPath()))
-                  {
-                     if (StringUtil.notNull(status.getStatus()).trim().length() == 0)
-                        status_.remove(i);
-                     else
-                        status_.set(i, status);
-                     handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
+                  status_.remove(key);
+                  delta.remove(oldStatus);
+               }
+               else if (oldStatus != null)
+               {
+                  if (oldStatus.isSameAs(status))
                      return;
-                  }
+                  status_.put(key, status);
+                  delta.modify(oldStatus, status);
                }
-
-               if (status.getStatus().trim().length() != 0)
+               else if (!clean)
+               {
+                  status_.put(key, status);
+                  delta.add(status);
+               }
+               else
                {
-                  status_.add(status);
-                  handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
                   return;
                }
+
+               statusList_ = null;
+               handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange,
+                                                       delta));
             }
          }
       }));
@@ -164,7 +181,12 @@ public abstract class VcsState
 
    public ArrayList<StatusAndPath> getStatus()
    {
-      return status_;
+      if (status_ == null)
+         return null;
+
+      if (statusList_ == null)
+         statusList_ = new ArrayList<StatusAndPath>(status_.values());
+      return statusList_;
    }
 
    public void refresh()
@@ -173,12 +195,95 @@ public abstract class VcsState
          refresh(true);
    }
 
-   public abstract void refresh(final boolean showError);
+   // refreshes requested while a status request is in flight are coalesced
+   // into a single request which is made once the current one completes
+   public void refresh(final boolean showError)
+   {
+      if (refreshInFlight_)
+      {
+         refreshPending_ = true;
+         pendingShowError_ |= showError;
+         return;
+      }
+
+      refreshInFlight_ = true;
+      requestStatus(showError);
+   }
+
+   // request the status from the server. implementations must call
+   // onStatusRequestCompleted once the request has succeeded or failed
+   protected abstract void requestStatus(boolean showError);
+
+   protected void onStatusRequestCompleted()
+   {
+      refreshInFlight_ = false;
+      if (refreshPending_)
+      {
+         boolean showError = pendingShowError_;
+         refreshPending_ = false;
+         pendingShowError_ = false;
+         refresh(showError);
+      }
+   }
+
+   // replace the status with a new snapshot, returning the rows which
+   // changed (or null if there was no previous snapshot to compare with)
+   protected StatusDelta setStatus(ArrayList<StatusAndPath> status)
+   {
+      LinkedHashMap<String, StatusAndPath> newStatus =
+                                 new LinkedHashMap<String, StatusAndPath>();
+      if (status != null)
+      {
+         for (StatusAndPath item : status)
+         {
+            // the same path can be listed more than once (e.g. a file
+            // which was removed from the index but is still on disk)
+            String key = item.getRawPath();
+            if (newStatus.containsKey(key))
+               key = key + "\n" + item.getStatus();
+            newStatus.put(key, item);
+         }
+      }
+
+      StatusDelta delta = null;
+      if (status_ != null)
+      {
+         delta = new StatusDelta();
+         for (Map.Entry<String, StatusAndPath> entry : newStatus.entrySet())
+         {
+            StatusAndPath oldItem = status_.get(entry.getKey());
+            if (oldItem == null)
+               delta.add(entry.getValue());
+            else if (!oldItem.isSameAs(entry.getValue()))
+               delta.modify(oldItem, entry.getValue());
+         }
+         for (Map.Entry<String, StatusAndPath> entry : status_.entrySet())
+         {
+            if (!newStatus.containsKey(entry.getKey()))
+               delta.remove(entry.getValue());
+         }
+      }
+
+      status_ = newStatus;
+      statusList_ = null;
+      return delta;
+   }
+
+   protected boolean hasStatus()
+   {
+      return status_ != null;
+   }
 
    protected abstract boolean isInitialized();
 
    protected final HandlerManager handlers_ = new HandlerManager(this);
-   protected ArrayList<StatusAndPath> status_;
+   // keyed by raw path
+   private LinkedHashMap<String, StatusAndPath> status_;
+   private ArrayList<StatusAndPath> statusList_;
+   private boolean refreshScheduled_;
+   private boolean refreshInFlight_;
+   private boolean refreshPending_;
+   private boolean pendingShowError_;
    protected final EventBus eventBus_;
    protected final GlobalDisplay globalDisplay_;
    protected final Session session_;
@@ -12,6 +12,7 @@
  */
 package org.rstudio.studio.client.workbench.views.vcs.dialog;
 
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.HasValue;
 import com.google.gwt.view.client.AsyncDataProvider;
 import com.google.gwt.view.client.HasData;
@@ -25,6 +26,15 @@ import org.rstudio.studio.client.common.vcs.GitServerOperations;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Pages of history are cached per (rev, filter) so paging back and forth
+// doesn't refetch them, and the page after the one shown is read ahead.
+// Requests for a rev/filter which has since changed are cancelled. Since
+// revs are names (e.g. HEAD) the cache is invalidated whenever VCS state
+// is refreshed.
 public class HistoryAsyncDataProvider extends AsyncDataProvider<CommitInfo>
 {
    @Inject
@@ -52,42 +62,245 @@ public class HistoryAsyncDataProvider extends AsyncDataProvider<CommitInfo>
       rev_ = rev;
    }
 
+   // Drop all cached pages and counts (e.g. after commits have changed)
+   public void invalidate()
+   {
+      clearCache();
+      cancelPageRequests();
+      if (countRequest_ != null)
+      {
+         countRequest_.cancel();
+         countRequest_ = null;
+      }
+   }
+
+   // Drop all cached pages and counts, leaving outstanding requests to
+   // complete (their results are shown but not cached)
+   public void clearCache()
+   {
+      generation_++;
+      pages_.clear();
+      counts_.clear();
+   }
+
+   // Counting is debounced since it's requested by several callers at once
+   // (and a count of a large history is expensive)
    public void refreshCount()
    {
-      server_.gitHistoryCount(rev_, filterText_.getValue(), new ServerRequestCallback<CommitCount>()
+      countTimer_.schedule(COUNT_DELAY_MS);
+   }
+
+   private void doRefreshCount()
+   {
+      final String query = getQueryKey();
+      final int generation = generation_;
+
+      Integer cached = counts_.get(query);
+      if (cached != null)
+      {
+         updateRowCount(cached, true);
+         return;
+      }
+
+      if (countRequest_ != null)
+         countRequest_.cancel();
+
+      countRequest_ = new ServerRequestCallback<CommitCount>()
       {
          @Override
          public void onResponseReceived(CommitCount response)
          {
-            updateRowCount(response.getCount(), true);
+            countRequest_ = null;
+            if (generation == generation_)
+               counts_.put(query, response.getCount());
+            if (query.equals(getQueryKey()))
+               updateRowCount(response.getCount(), true);
          }
 
          @Override
          public void onError(ServerError error)
          {
+            countRequest_ = null;
             Debug.logError(error);
          }
-      });
+      };
+      server_.gitHistoryCount(rev_, filterText_.getValue(), countRequest_);
    }
 
    @Override
    protected void onRangeChanged(final HasData<CommitInfo> display)
    {
       final Range rng = display.getVisibleRange();
-      server_.gitHistory(
-            rev_, rng.getStart(), rng.getLength(), filterText_.getValue(),
-            new SimpleRequestCallback<RpcObjectList<CommitInfo>>("Error Fetching History")
-            {
-               @Override
-               public void onResponseReceived(RpcObjectList<CommitInfo> response)
-               {
-                  super.onResponseReceived(response);
-                  updateRowData(rng.getStart(), response.toArrayList());
-               }
-            });
+      final String query = getQueryKey();
+      final String key = getPageKey(query, rng.getStart(), rng.getLength());
+      final int generation = generation_;
+
+      // A different rev or filter supersedes any outstanding requests
+      if (!query.equals(activeQuery_))
+      {
+         cancelPageRequests();
+         activeQuery_ = query;
+      }
+
+      ArrayList<CommitInfo> page = pages_.get(key);
+      if (page != null)
+      {
+         updateRowData(rng.getStart(), page);
+         readAhead(query, rng);
+         return;
+      }
+
+      if (key.equals(pageRequestKey_))
+         return;
+
+      if (pageRequest_ != null)
+         pageRequest_.cancel();
+
+      pageRequestKey_ = key;
+      pageRequest_ = new SimpleRequestCallback<RpcObjectList<CommitInfo>>(
+                                                   "Error Fetching History")
+      {
+         @Override
+         public void onResponseReceived(RpcObjectList<CommitInfo> response)
+         {
+            super.onResponseReceived(response);
+            pageRequest_ = null;
+            pageRequestKey_ = null;
+
+            ArrayList<CommitInfo> page = response.toArrayList();
+            if (generation == generation_)
+               pages_.put(key, page);
+            updateRowData(rng.getStart(), page);
+            readAhead(query, rng);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            pageRequest_ = null;
+            pageRequestKey_ = null;
+            super.onError(error);
+         }
+      };
+      requestPage(rng.getStart(), rng.getLength(), pageRequest_);
+   }
+
+   private void readAhead(final String query, Range rng)
+   {
+      final int start = rng.getStart() + rng.getLength();
+      final int length = rng.getLength();
+      Integer count = counts_.get(query);
+      if (length == 0 || (count != null && start >= count))
+         return;
+
+      final String key = getPageKey(query, start, length);
+      if (pages_.containsKey(key) || key.equals(readAheadKey_))
+         return;
+
+      if (readAheadRequest_ != null)
+         readAheadRequest_.cancel();
+
+      readAheadKey_ = key;
+      final int generation = generation_;
+      readAheadRequest_ = new ServerRequestCallback<RpcObjectList<CommitInfo>>()
+      {
+         @Override
+         public void onResponseReceived(RpcObjectList<CommitInfo> response)
+         {
+            readAheadRequest_ = null;
+            readAheadKey_ = null;
+            if (generation == generation_)
+               pages_.put(key, response.toArrayList());
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            readAheadRequest_ = null;
+            readAheadKey_ = null;
+            Debug.logError(error);
+         }
+      };
+      requestPage(start, length, readAheadRequest_);
    }
 
+   private void requestPage(
+         int start,
+         int length,
+         ServerRequestCallback<RpcObjectList<CommitInfo>> requestCallback)
+   {
+      server_.gitHistory(rev_, start, length, filterText_.getValue(),
+                         requestCallback);
+   }
+
+   private void cancelPageRequests()
+   {
+      if (pageRequest_ != null)
+         pageRequest_.cancel();
+      if (readAheadRequest_ != null)
+         readAheadRequest_.cancel();
+      pageRequest_ = null;
+      pageRequestKey_ = null;
+      readAheadRequest_ = null;
+      readAheadKey_ = null;
+      activeQuery_ = null;
+   }
+
+   private String getQueryKey()
+   {
+      return rev_ + "\n" + filterText_.getValue();
+   }
+
+   private String getPageKey(String query, int start, int length)
+   {
+      return query + "\n" + start + "\n" + length;
+   }
+
+   private final Timer countTimer_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         doRefreshCount();
+      }
+   };
+
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, ArrayList<CommitInfo>> pages_ =
+      new LinkedHashMap<String, ArrayList<CommitInfo>>(MAX_PAGES, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(
+                              Map.Entry<String, ArrayList<CommitInfo>> e)
+         {
+            return size() > MAX_PAGES;
+         }
+      };
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, Integer> counts_ =
+      new LinkedHashMap<String, Integer>(MAX_COUNTS, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, Integer> e)
+         {
+            return size() > MAX_COUNTS;
+         }
+      };
+
+   // incremented whenever the cache is cleared
+   private int generation_;
+   private String activeQuery_;
+   private ServerRequestCallback<RpcObjectList<CommitInfo>> pageRequest_;
+   private String pageRequestKey_;
+   private ServerRequestCallback<RpcObjectList<CommitInfo>> readAheadRequest_;
+   private String readAheadKey_;
+   private ServerRequestCallback<CommitCount> countRequest_;
+
    private final GitServerOperations server_;
    private String rev_;
    private HasValue<String> filterText_;
+
+   private static final int MAX_PAGES = 20;
+   private static final int MAX_COUNTS = 20;
+   private static final int COUNT_DELAY_MS = 250;
 }
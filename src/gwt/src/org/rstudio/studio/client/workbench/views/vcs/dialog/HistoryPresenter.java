@@ -39,6 +39,9 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEve
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshHandler;
 import org.rstudio.studio.client.workbench.views.vcs.git.model.GitState;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class HistoryPresenter
 {
    public interface Display extends IsWidget
@@ -96,7 +99,7 @@ public class HistoryPresenter
          public void onValueChange(ValueChangeEvent<String> event)
          {
             provider.setRev(event.getValue());
-            refreshHistory();
+            reloadHistory();
             view_.setPageStart(0);
          }
       });
@@ -135,7 +138,7 @@ public class HistoryPresenter
          @Override
          public void onValueChange(ValueChangeEvent<String> stringValueChangeEvent)
          {
-            refreshHistoryCommand_.nudge();
+            reloadHistoryCommand_.nudge();
          }
       });
 
@@ -144,16 +147,26 @@ public class HistoryPresenter
          @Override
          protected HandlerRegistration doRegister()
          {
+            // refs may have moved while we weren't listening
+            provider_.clearCache();
+
             return vcsState.addVcsRefreshHandler(new VcsRefreshHandler()
             {
                @Override
                public void onVcsRefresh(VcsRefreshEvent event)
                {
-                  if (event.getReason() == Reason.VcsOperation)
-                  {
-                     if (view_.asWidget().isVisible())
-                        refreshHistory();
-                  }
+                  // edits to the working tree can't change the history
+                  if (event.getReason() == Reason.FileChange)
+                     return;
+                  
+                  // other refreshes follow a full status reload, which is
+                  // how refs moved from outside of RStudio (e.g. a commit
+                  // from the console) are picked up, so they drop the
+                  // cached history
+                  if (view_.asWidget().isVisible())
+                     refreshHistory();
+                  else
+                     provider_.clearCache();
                }
             }, false);
          }
@@ -172,10 +185,19 @@ public class HistoryPresenter
       if (commitInfo == null)
          return;
 
+      // Commits are immutable, so a cached diff never needs refreshing
+      final String commitId = commitInfo.getId();
+      String cached = commitDiffs_.get(commitId);
+      if (cached != null)
+      {
+         view_.getCommitDetail().setDetails(new UnifiedParser(cached));
+         return;
+      }
+
       final Token token = invalidation_.getInvalidationToken();
 
       server_.gitShow(
-            commitInfo.getId(),
+            commitId,
             noSizeWarning,
             new SimpleRequestCallback<String>()
             {
@@ -183,6 +205,7 @@ public class HistoryPresenter
                public void onResponseReceived(String response)
                {
                   super.onResponseReceived(response);
+                  commitDiffs_.put(commitId, response);
                   if (token.isInvalid())
                      return;
 
@@ -203,7 +226,16 @@ public class HistoryPresenter
             });
    }
 
+   // Refetch the history (e.g. after commits may have changed)
    private void refreshHistory()
+   {
+      provider_.invalidate();
+      reloadHistory();
+   }
+
+   // Show the history for the current branch and filter (which may be
+   // served from the provider's cache)
+   private void reloadHistory()
    {
       provider_.refreshCount();
       provider_.onRangeChanged(view_.getDataDisplay());
@@ -239,12 +271,12 @@ public class HistoryPresenter
       view_.onShow();
    }
 
-   private final TimeBufferedCommand refreshHistoryCommand_ = new TimeBufferedCommand(1000)
+   private final TimeBufferedCommand reloadHistoryCommand_ = new TimeBufferedCommand(1000)
    {
       @Override
       protected void performAction(boolean shouldSchedulePassive)
       {
-         refreshHistory();
+         reloadHistory();
       }
    };
 
@@ -253,4 +285,16 @@ public class HistoryPresenter
    private final HistoryAsyncDataProvider provider_;
    private final Invalidation invalidation_ = new Invalidation();
    private boolean initialized_;
+
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, String> commitDiffs_ =
+      new LinkedHashMap<String, String>(MAX_COMMIT_DIFFS, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, String> e)
+         {
+            return size() > MAX_COMMIT_DIFFS;
+         }
+      };
+   private static final int MAX_COMMIT_DIFFS = 20;
 }
@@ -15,13 +15,18 @@ package org.rstudio.studio.client.workbench.views.vcs.dialog.graph;
 import com.google.gwt.canvas.client.Canvas;
 import com.google.gwt.canvas.dom.client.Context2d;
 import com.google.gwt.canvas.dom.client.Context2d.LineJoin;
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.safehtml.shared.SafeHtml;
 import org.rstudio.core.client.SafeHtmlUtil;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class GraphLine
 {
    public GraphLine(String value)
    {
+      value_ = value;
       String[] vals = value.length() == 0 ? new String[] {} : value.split(" ");
       columns_ = new GraphColumn[vals.length];
       for (int i = 0; i < columns_.length; i++)
@@ -47,14 +52,51 @@ public class GraphLine
       return Math.max(startColumns, endColumns) * theme.getColumnWidth();
    }
 
+   // Encoding the canvas as a PNG is expensive and there are only a few
+   // distinct shapes in a typical history, so rendered images are cached
+   // by their column configuration (the ids determine the colors)
    public SafeHtml render(GraphTheme theme)
    {
+      String key = theme.getCacheKey() + "|" + value_;
+      SafeHtml img = s_images.get(key);
+      if (img != null)
+      {
+         s_cacheHits++;
+         return img;
+      }
+
+      s_cacheMisses++;
+      double start = Duration.currentTimeMillis();
+
       draw(s_canvas, theme);
-      return SafeHtmlUtil.createOpenTag("img",
-                                        "class", theme.getImgClassName(),
-                                        "src", s_canvas.toDataUrl());
+      img = SafeHtmlUtil.createOpenTag("img",
+                                       "class", theme.getImgClassName(),
+                                       "src", s_canvas.toDataUrl());
+      s_images.put(key, img);
+
+      s_renderMillis += Duration.currentTimeMillis() - start;
+      return img;
+   }
+
+   // rendering time is the time spent drawing and encoding images (i.e.
+   // on cache misses)
+   public static String getCacheStats()
+   {
+      int total = s_cacheHits + s_cacheMisses;
+      int hitRate = total == 0 ? 0 : (100 * s_cacheHits) / total;
+      return "Graph images: " + s_cacheHits + " hits, " + s_cacheMisses +
+             " misses (" + hitRate + "% hit rate), " +
+             Math.round(s_renderMillis) + "ms rendering";
    }
 
+   // the graph is drawn in the review changes window, so its stats are
+   // exported for Help > Diagnostics in the main window
+   public static native void exportCacheStats() /*-{
+      $wnd.getRStudioGraphImageStats = $entry(function() {
+         return @org.rstudio.studio.client.workbench.views.vcs.dialog.graph.GraphLine::getCacheStats()();
+      });
+   }-*/;
+
    private void draw(Canvas canvas, GraphTheme theme)
    {
       int height = theme.getRowHeight();
@@ -148,9 +190,25 @@ public class GraphLine
 
    }
 
+   private final String value_;
    private GraphColumn[] columns_;
 
    // Use a static canvas to avoid the overhead of continually recreating them
    private static final Canvas s_canvas = Canvas.createIfSupported();
+
+   @SuppressWarnings("serial")
+   private static final LinkedHashMap<String, SafeHtml> s_images =
+      new LinkedHashMap<String, SafeHtml>(MAX_CACHED_IMAGES, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, SafeHtml> e)
+         {
+            return size() > MAX_CACHED_IMAGES;
+         }
+      };
+   private static int s_cacheHits;
+   private static int s_cacheMisses;
+   private static double s_renderMillis;
+   private static final int MAX_CACHED_IMAGES = 500;
 }
 
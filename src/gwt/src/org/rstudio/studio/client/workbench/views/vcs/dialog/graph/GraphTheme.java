@@ -71,6 +71,13 @@ public class GraphTheme
       return className_;
    }
 
+   // Identifies everything about the theme which affects rendered images
+   // (colors are fixed per column id, so they're covered by the ids)
+   public String getCacheKey()
+   {
+      return className_ + ":" + getColumnWidth() + "x" + getRowHeight();
+   }
+
    private final String className_;
 
    private static HashMap<Integer, CssColor> colors_ = new HashMap<Integer, CssColor>();
@@ -93,12 +93,6 @@ public class GitPane extends WorkbenchPane implements Display
       return table_;
    }
 
-   @Override
-   public void setItems(ArrayList<StatusAndPath> items)
-   {
-      table_.setItems(items);
-   }
-
    @Override
    public ArrayList<String> getSelectedPaths()
    {
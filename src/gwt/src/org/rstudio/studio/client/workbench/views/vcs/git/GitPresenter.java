@@ -38,8 +38,6 @@ import org.rstudio.studio.client.workbench.WorkbenchView;
 import org.rstudio.studio.client.workbench.commands.Commands;
 import org.rstudio.studio.client.workbench.views.BasePresenter;
 import org.rstudio.studio.client.workbench.views.vcs.common.VCSFileOpener;
-import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
-import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshHandler;
 import org.rstudio.studio.client.workbench.views.vcs.git.model.GitState;
 
 import java.util.ArrayList;
@@ -50,7 +48,6 @@ public class GitPresenter extends BasePresenter implements IsWidget
 
    public interface Display extends WorkbenchView, IsWidget
    {
-      void setItems(ArrayList<StatusAndPath> items);
       ArrayList<String> getSelectedPaths();
       ArrayList<StatusAndPath> getSelectedItems();
       int getSelectedItemCount();
@@ -87,14 +84,7 @@ public class GitPresenter extends BasePresenter implements IsWidget
 
       commandBinder.bind(commands, this);
 
-      gitState_.addVcsRefreshHandler(new VcsRefreshHandler()
-      {
-         @Override
-         public void onVcsRefresh(VcsRefreshEvent event)
-         {
-            refresh();
-         }
-      });
+      // the changelist table is kept up to date by GitChangelistTablePresenter
 
       view_.getChangelistTable().addKeyDownHandler(new KeyDownHandler()
       {
@@ -250,11 +240,6 @@ public class GitPresenter extends BasePresenter implements IsWidget
       showReviewPane(true);
    }
 
-   private void refresh()
-   {
-      view_.setItems(gitState_.getStatus());
-   }
-
    private final Display view_;
    private final GitServerOperations server_;
    private final Commands commands_;
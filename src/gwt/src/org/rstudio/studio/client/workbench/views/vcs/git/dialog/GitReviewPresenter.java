@@ -13,6 +13,7 @@
 package org.rstudio.studio.client.workbench.views.vcs.git.dialog;
 
 import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.event.dom.client.*;
@@ -33,10 +34,13 @@ import com.google.inject.Inject;
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.Invalidation;
 import org.rstudio.core.client.Invalidation.Token;
+import org.rstudio.core.client.ResultCallback;
 import org.rstudio.core.client.WidgetHandlerRegistration;
 import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.core.client.widget.DoubleClickState;
 import org.rstudio.core.client.widget.Operation;
+import org.rstudio.core.client.worker.WorkerExecutor;
+import org.rstudio.core.client.worker.WorkerRequest;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.common.SimpleRequestCallback;
@@ -152,8 +156,14 @@ public class GitReviewPresenter implements ReviewPresenter
       @Override
       public void onDiffChunkAction(DiffChunkActionEvent event)
       {
-         ArrayList<DiffChunk> chunks = new ArrayList<DiffChunk>();
-         chunks.add(event.getDiffChunk());
+         // All the active chunks are passed along so that actions on
+         // different chunks can be batched together
+         ArrayList<DiffChunk> chunks = activeChunks_;
+         if (!chunks.contains(event.getDiffChunk()))
+         {
+            chunks = new ArrayList<DiffChunk>();
+            chunks.add(event.getDiffChunk());
+         }
          doPatch(event.getAction(), event.getDiffChunk().getLines(), chunks);
       }
 
@@ -531,31 +541,131 @@ public class GitReviewPresenter implements ReviewPresenter
       return (GitChangelistTable) view_.getChangelistTable();
    }
 
+   /**
+    * Patches for line and chunk actions made while an earlier patch is still
+    * being applied are batched, and applied together once it completes. The
+    * batch's patches are all generated from the same chunks, taking into
+    * account the changes which have already been applied.
+    */
+   private class PatchBatch
+   {
+      public PatchBatch(String path,
+                        ArrayList<DiffChunk> chunks,
+                        boolean reverse,
+                        PatchMode patchMode)
+      {
+         path_ = path;
+         chunks_ = chunks;
+         reverse_ = reverse;
+         patchMode_ = patchMode;
+      }
+
+      public boolean matches(String path,
+                             ArrayList<DiffChunk> chunks,
+                             boolean reverse,
+                             PatchMode patchMode)
+      {
+         return path_.equals(path) &&
+                chunks_ == chunks &&
+                reverse_ == reverse &&
+                patchMode_ == patchMode;
+      }
+
+      public void add(ArrayList<Line> lines)
+      {
+         pending_.addAll(lines);
+      }
+
+      public boolean hasPending()
+      {
+         return !pending_.isEmpty();
+      }
+
+      public PatchMode getPatchMode()
+      {
+         return patchMode_;
+      }
+
+      // creates a patch for the pending lines, which are then considered
+      // to have been applied
+      public String createPatch()
+      {
+         CompactEmitter emitter = new CompactEmitter(path_, reverse_);
+         emitter.addChunks(chunks_);
+         emitter.addApplied(applied_);
+         emitter.addDiffs(pending_);
+         String patch = emitter.createPatch(true);
+
+         applied_.addAll(pending_);
+         pending_.clear();
+         return patch;
+      }
+
+      private final String path_;
+      private final ArrayList<DiffChunk> chunks_;
+      private final boolean reverse_;
+      private final PatchMode patchMode_;
+      private final ArrayList<Line> applied_ = new ArrayList<Line>();
+      private final ArrayList<Line> pending_ = new ArrayList<Line>();
+   }
+
    private void applyPatch(ArrayList<DiffChunk> chunks,
                            ArrayList<Line> lines,
                            boolean reverse,
                            PatchMode patchMode)
    {
-      chunks = new ArrayList<DiffChunk>(chunks);
+      String path = view_.getChangelistTable().getSelectedPaths().get(0);
+      if (path.indexOf(" -> ") >= 0)
+         path = path.substring(path.indexOf(" -> ") + " -> ".length());
 
-      if (reverse)
+      if (patchBatch_ == null ||
+          !patchBatch_.matches(path, chunks, reverse, patchMode))
       {
-         for (int i = 0; i < chunks.size(); i++)
-            chunks.set(i, chunks.get(i).reverse());
-         lines = Line.reverseLines(lines);
+         flushPatchBatch();
+         patchBatch_ = new PatchBatch(path, chunks, reverse, patchMode);
       }
 
-      String path = view_.getChangelistTable().getSelectedPaths().get(0);
-      if (path.indexOf(" -> ") >= 0)
-         path = path.substring(path.indexOf(" -> ") + " -> ".length());
-      UnifiedEmitter emitter = new UnifiedEmitter(path);
-      for (DiffChunk chunk : chunks)
-         emitter.addContext(chunk);
-      emitter.addDiffs(lines);
-      String patch = emitter.createPatch(true);
+      patchBatch_.add(lines);
+      if (patchesInFlight_ == 0)
+         flushPatchBatch();
+   }
+
+   private void flushPatchBatch()
+   {
+      if (patchBatch_ == null || !patchBatch_.hasPending())
+         return;
+
+      final PatchBatch batch = patchBatch_;
+      String patch = batch.createPatch();
+      if (patch.length() == 0)
+         return;
 
       softModeSwitch_ = true;
-      server_.gitApplyPatch(patch, patchMode, new SimpleRequestCallback<Void>());
+      patchesInFlight_++;
+      server_.gitApplyPatch(patch,
+                            batch.getPatchMode(),
+                            new SimpleRequestCallback<Void>()
+      {
+         @Override
+         public void onResponseReceived(Void response)
+         {
+            patchesInFlight_--;
+            flushPatchBatch();
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            patchesInFlight_--;
+
+            // We no longer know which changes have been applied, so drop
+            // anything still waiting in the batch
+            if (patchBatch_ == batch)
+               patchBatch_ = null;
+
+            super.onError(error);
+         }
+      });
    }
 
    private void updateDiff(boolean allowModeSwitch)
@@ -611,6 +721,7 @@ public class GitReviewPresenter implements ReviewPresenter
       }
 
       diffInvalidation_.invalidate();
+      cancelDiffParse();
       final Token token = diffInvalidation_.getInvalidationToken();
 
       final PatchMode patchMode = view_.getStagedCheckBox().getValue()
@@ -632,26 +743,8 @@ public class GitReviewPresenter implements ReviewPresenter
                   // Use lastResponse_ to prevent unnecessary flicker
                   if (response.equals(currentResponse_))
                      return;
-                  currentResponse_ = response;
 
-                  UnifiedParser parser = new UnifiedParser(response);
-                  parser.nextFilePair();
-
-                  ArrayList<ChunkOrLine> allLines = new ArrayList<ChunkOrLine>();
-
-                  activeChunks_.clear();
-                  for (DiffChunk chunk;
-                       null != (chunk = parser.nextChunk());)
-                  {
-                     activeChunks_.add(chunk);
-                     allLines.add(new ChunkOrLine(chunk));
-                     for (Line line : chunk.getLines())
-                        allLines.add(new ChunkOrLine(line));
-                  }
-
-                  view_.getLineTableDisplay().setShowActions(
-                        item.isFineGrainedActionable());
-                  view_.setData(allLines, patchMode);
+                  parseDiff(response, item, patchMode, token);
                }
 
                @Override
@@ -666,8 +759,167 @@ public class GitReviewPresenter implements ReviewPresenter
             });
    }
 
+   private void parseDiff(final String response,
+                          final StatusAndPath item,
+                          final PatchMode patchMode,
+                          final Token token)
+   {
+      if (!WorkerExecutor.isSupported() ||
+          !diffParseTask_.isWorthOffloading(response))
+      {
+         Scheduler.get().scheduleIncremental(new DiffParseCommand(
+               response, item, patchMode, token, null));
+         return;
+      }
+
+      // Large diffs are parsed in a web worker; the resulting chunks are
+      // then shown a slice at a time
+      diffParseRequest_ = WorkerExecutor.get().execute(
+            diffParseTask_,
+            response,
+            new ResultCallback<ArrayList<DiffChunk>, String>()
+            {
+               @Override
+               public void onSuccess(ArrayList<DiffChunk> chunks)
+               {
+                  diffParseRequest_ = null;
+                  if (token.isInvalid())
+                     return;
+
+                  Scheduler.get().scheduleIncremental(new DiffParseCommand(
+                        response, item, patchMode, token, chunks));
+               }
+
+               @Override
+               public void onFailure(String message)
+               {
+                  diffParseRequest_ = null;
+                  if (token.isInvalid())
+                     return;
+
+                  // parse on the UI thread, which reports the problem
+                  Scheduler.get().scheduleIncremental(new DiffParseCommand(
+                        response, item, patchMode, token, null));
+               }
+            });
+   }
+
+   private void cancelDiffParse()
+   {
+      if (diffParseRequest_ != null)
+      {
+         diffParseRequest_.cancel();
+         diffParseRequest_ = null;
+      }
+   }
+
+   // Parses the diff a slice at a time so large diffs don't block the UI. A
+   // diff for a newly selected file is shown as it is parsed; a refresh of
+   // the diff which is already showing is only shown once fully parsed (to
+   // prevent flicker). If the diff has already been parsed (in a worker)
+   // only the display of its chunks is sliced.
+   private class DiffParseCommand implements RepeatingCommand
+   {
+      public DiffParseCommand(String response,
+                              StatusAndPath item,
+                              PatchMode patchMode,
+                              Token token,
+                              ArrayList<DiffChunk> parsedChunks)
+      {
+         response_ = response;
+         item_ = item;
+         patchMode_ = patchMode;
+         token_ = token;
+         progressive_ = currentResponse_ == null;
+
+         parsedChunks_ = parsedChunks;
+         if (parsedChunks_ == null)
+         {
+            parser_ = new UnifiedParser(response, true);
+            parser_.nextFilePair();
+         }
+         else
+         {
+            parser_ = null;
+         }
+      }
+
+      @Override
+      public boolean execute()
+      {
+         if (token_.isInvalid())
+            return false;
+
+         boolean done = false;
+         long deadline = System.currentTimeMillis() + PARSE_SLICE_MS;
+         do
+         {
+            DiffChunk chunk = nextChunk();
+            if (chunk == null)
+            {
+               done = true;
+               break;
+            }
+
+            chunks_.add(chunk);
+            pending_.addAll(ChunkOrLine.fromChunk(chunk));
+         }
+         while (System.currentTimeMillis() < deadline);
+
+         if (done || progressive_)
+         {
+            if (!shown_)
+            {
+               // Chunks are added to as parsing continues, so line actions
+               // are available for everything shown
+               activeChunks_ = chunks_;
+               view_.getLineTableDisplay().setShowActions(
+                     item_.isFineGrainedActionable());
+               view_.setData(pending_, patchMode_);
+               shown_ = true;
+            }
+            else
+            {
+               view_.getLineTableDisplay().appendData(pending_);
+            }
+            pending_ = new ArrayList<ChunkOrLine>();
+         }
+
+         // Only remember the response once all of it is showing, so a
+         // repeat of a response whose parsing was interrupted isn't ignored
+         if (done)
+            currentResponse_ = response_;
+
+         return !done;
+      }
+
+      private DiffChunk nextChunk()
+      {
+         if (parser_ != null)
+            return parser_.nextChunk();
+
+         return parsedIndex_ < parsedChunks_.size()
+                ? parsedChunks_.get(parsedIndex_++)
+                : null;
+      }
+
+      private final String response_;
+      private final StatusAndPath item_;
+      private final PatchMode patchMode_;
+      private final Token token_;
+      private final boolean progressive_;
+      private final UnifiedParser parser_;
+      private final ArrayList<DiffChunk> parsedChunks_;
+      private int parsedIndex_;
+      private final ArrayList<DiffChunk> chunks_ = new ArrayList<DiffChunk>();
+      private ArrayList<ChunkOrLine> pending_ = new ArrayList<ChunkOrLine>();
+      private boolean shown_;
+   }
+
    private void clearDiff()
    {
+      diffInvalidation_.invalidate();
+      cancelDiffParse();
       softModeSwitch_ = false;
       currentResponse_ = null;
       currentFilename_ = null;
@@ -714,10 +966,14 @@ public class GitReviewPresenter implements ReviewPresenter
    }
 
    private final Invalidation diffInvalidation_ = new Invalidation();
+   private final DiffParseTask diffParseTask_ = new DiffParseTask();
+   private WorkerRequest diffParseRequest_;
    private final GitServerOperations server_;
    private final Display view_;
    private final GlobalDisplay globalDisplay_;
    private ArrayList<DiffChunk> activeChunks_ = new ArrayList<DiffChunk>();
+   private PatchBatch patchBatch_;
+   private int patchesInFlight_;
    private String currentResponse_;
    private String currentFilename_;
    // Hack to prevent us flipping to unstaged view when a line is unstaged
@@ -728,6 +984,7 @@ public class GitReviewPresenter implements ReviewPresenter
    private boolean initialized_;
    private static final String MODULE_GIT = "vcs_git";
    private static final String KEY_CONTEXT_LINES = "context_lines";
+   private static final int PARSE_SLICE_MS = 20;
 
    private boolean overrideSizeWarning_ = false;
 }
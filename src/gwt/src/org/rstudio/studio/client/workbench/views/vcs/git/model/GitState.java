@@ -27,6 +27,7 @@ import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
+import org.rstudio.studio.client.workbench.views.vcs.common.model.StatusDelta;
 import org.rstudio.studio.client.workbench.views.vcs.common.model.VcsState;
 
 @Singleton
@@ -63,22 +64,27 @@ public class GitState extends VcsState
       return branches_ != null;
    }
 
-   public void refresh(final boolean showError)
+   @Override
+   protected void requestStatus(final boolean showError)
    {
       server_.gitAllStatus(new ServerRequestCallback<AllStatus>()
       {
          @Override
          public void onResponseReceived(AllStatus response)
          {
-            status_ = StatusAndPath.fromInfos(response.getStatus());
+            StatusDelta delta = setStatus(
+                              StatusAndPath.fromInfos(response.getStatus()));
             branches_ = response.getBranches();
             remoteBranchInfo_ = response.getRemoteBranchInfo();
-            handlers_.fireEvent(new VcsRefreshEvent(Reason.VcsOperation));
+            onStatusRequestCompleted();
+            handlers_.fireEvent(new VcsRefreshEvent(Reason.VcsOperation,
+                                                    delta));
          }
 
          @Override
          public void onError(ServerError error)
          {
+            onStatusRequestCompleted();
             Debug.logError(error);
             if (showError)
                globalDisplay_.showErrorMessage("Error",
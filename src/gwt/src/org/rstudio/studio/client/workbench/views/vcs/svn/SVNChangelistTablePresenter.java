@@ -44,7 +44,7 @@ public class SVNChangelistTablePresenter
                   break;
                }
             }
-            view.setItems(items);
+            view.updateItems(items, event.getDelta());
             view.setChangelistColumnVisible(usesChangelists);
          }
       });
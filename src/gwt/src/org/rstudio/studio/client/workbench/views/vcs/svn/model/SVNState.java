@@ -26,6 +26,7 @@ import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.model.Session;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent;
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
+import org.rstudio.studio.client.workbench.views.vcs.common.model.StatusDelta;
 import org.rstudio.studio.client.workbench.views.vcs.common.model.VcsState;
 
 @Singleton
@@ -42,20 +43,23 @@ public class SVNState extends VcsState
    }
 
    @Override
-   public void refresh(final boolean showError)
+   protected void requestStatus(final boolean showError)
    {
       server_.svnStatus(new ServerRequestCallback<JsArray<StatusAndPathInfo>>()
       {
          @Override
          public void onResponseReceived(JsArray<StatusAndPathInfo> response)
          {
-            status_ = StatusAndPath.fromInfos(response);
-            handlers_.fireEvent(new VcsRefreshEvent(Reason.VcsOperation));
+            StatusDelta delta = setStatus(StatusAndPath.fromInfos(response));
+            onStatusRequestCompleted();
+            handlers_.fireEvent(new VcsRefreshEvent(Reason.VcsOperation,
+                                                    delta));
          }
 
          @Override
          public void onError(ServerError error)
          {
+            onStatusRequestCompleted();
             Debug.logError(error);
             if (showError)
                globalDisplay_.showErrorMessage("Error",
@@ -67,7 +71,7 @@ public class SVNState extends VcsState
    @Override
    protected boolean isInitialized()
    {
-      return status_ != null;
+      return hasStatus();
    }
 
    private final SVNServerOperations server_;
@@ -13,8 +13,11 @@
 package org.rstudio.studio.client.workbench.views.workspace;
 
 
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.user.client.ui.IsWidget;
 import com.google.inject.Inject;
+import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.command.CommandBinder;
 import org.rstudio.core.client.command.Handler;
@@ -48,6 +51,9 @@ import org.rstudio.studio.client.workbench.views.workspace.table.WorkspaceObject
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class Workspace
       extends BasePresenter
@@ -104,21 +110,121 @@ public class Workspace
 
    public void onWorkspaceRefresh(WorkspaceRefreshEvent event)
    {
+      // a refresh isn't accompanied by assign/remove events for the objects
+      // which changed (e.g. when the environment goes from empty to
+      // non-empty) so none of the cached summaries can be trusted
+      clearSummaries();
       synchronizeView();
    }
 
    public void onWorkspaceObjectAssigned(WorkspaceObjectAssignedEvent event)
    {
       WorkspaceObjectInfo objectInfo = event.getObjectInfo();
+      summaryCache_.remove(objectInfo.getName());
+      if (objectInfo.hasSummary())
+         summaryCache_.put(objectInfo.getName(), objectInfo);
+      
       if (!objectInfo.isHidden())
-         objects_.updateObject(objectInfo);
+         queueObjectChange(objectInfo.getName(), objectInfo);
    }
 
    public void onWorkspaceObjectRemoved(WorkspaceObjectRemovedEvent event)
    {
-      objects_.removeObject(event.getObjectName());
+      summaryCache_.remove(event.getObjectName());
+      queueObjectChange(event.getObjectName(), null);
+   }
+   
+   // object assignments and removals are applied to the table in batches
+   // (once per event loop) with only the latest change to each object kept
+   private void queueObjectChange(String name, WorkspaceObjectInfo objectInfo)
+   {
+      pendingChanges_.put(name, objectInfo);
+      if (!changesScheduled_)
+      {
+         changesScheduled_ = true;
+         Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+            public void execute()
+            {
+               applyPendingChanges();
+            }
+         });
+      }
+   }
+   
+   private void applyPendingChanges()
+   {
+      changesScheduled_ = false;
+      if (pendingChanges_.isEmpty())
+         return;
+      
+      ArrayList<WorkspaceObjectInfo> updated = 
+                                    new ArrayList<WorkspaceObjectInfo>();
+      ArrayList<String> removed = new ArrayList<String>();
+      for (Map.Entry<String, WorkspaceObjectInfo> entry : 
+                                                   pendingChanges_.entrySet())
+      {
+         if (entry.getValue() != null)
+            updated.add(entry.getValue());
+         else
+            removed.add(entry.getKey());
+      }
+      pendingChanges_.clear();
+      
+      objects_.updateObjects(updated, removed);
    }
 
+   public void requestObjectSummaries(ArrayList<String> objectNames)
+   {
+      // nothing to do if these are all already being requested
+      if (summaryRequest_ != null && 
+          summaryRequestNames_.containsAll(objectNames))
+      {
+         return;
+      }
+      
+      // a request for rows which have since been scrolled away is
+      // superseded by this one
+      if (summaryRequest_ != null)
+      {
+         summaryRequest_.cancel();
+         summaryRequest_ = null;
+      }
+      
+      summaryRequestNames_ = new HashSet<String>(objectNames);
+      summaryRequest_ = 
+         new ServerRequestCallback<RpcObjectList<WorkspaceObjectInfo>>() {
+            @Override
+            public void onResponseReceived(
+                              RpcObjectList<WorkspaceObjectInfo> response)
+            {
+               summaryRequest_ = null;
+               
+               // only update objects which haven't been removed or
+               // reassigned since the request was made
+               ArrayList<WorkspaceObjectInfo> summaries = 
+                                          new ArrayList<WorkspaceObjectInfo>();
+               for (int i = 0; i < response.length(); i++)
+               {
+                  WorkspaceObjectInfo objectInfo = response.get(i);
+                  if (objects_.needsSummary(objectInfo.getName()))
+                  {
+                     summaryCache_.put(objectInfo.getName(), objectInfo);
+                     summaries.add(objectInfo);
+                  }
+               }
+               objects_.updateObjects(summaries, new ArrayList<String>());
+            }
+            
+            @Override
+            public void onError(ServerError error)
+            {
+               summaryRequest_ = null;
+               Debug.logError(error);
+            }
+         };
+      server_.getObjectSummaries(objectNames, summaryRequest_);
+   }
+   
    public void editObject(String objectName)
    {
       executeFunctionForObject("fix", objectName);
@@ -429,9 +535,14 @@ public class Workspace
       
       // clean out existing if we doing a reseta 
       if (reset)
+      {
          objects_.clearObjects();
-       
-      server_.listObjects(new ServerRequestCallback<RpcObjectList<WorkspaceObjectInfo>>()
+         clearSummaries();
+      }
+      
+      // value summaries are requested lazily as rows are scrolled into view
+      server_.listObjects(false,
+                          new ServerRequestCallback<RpcObjectList<WorkspaceObjectInfo>>()
       {
          @Override
          public void onError(ServerError error)
@@ -447,29 +558,38 @@ public class Workspace
          @Override
          public void onResponseReceived(RpcObjectList<WorkspaceObjectInfo> response)
          {
+            // apply changes received prior to the response
+            applyPendingChanges();
+            
             // if this is not a full reset then we need to perform the 
             // deletes manually because we never cleared the existing
             // object table. this state is here so we can implement "silent"
             // refreshes of the workspace that don't flash and reset the
             // user's scroll position
+            ArrayList<String> removed = new ArrayList<String>();
             if (!reset)
             {
-               ArrayList<String> objectNames = objects_.getObjectNames();
-               for (int i=0; i<objectNames.size(); i++)
+               HashSet<String> responseNames = new HashSet<String>();
+               for (int i=0; i<response.length(); i++)
+                  responseNames.add(response.get(i).getName());
+               
+               for (String objectName : objects_.getObjectNames())
                {
-                  String objectName = objectNames.get(i);
-                  if (!containsObject(response, objectName))
-                     objects_.removeObject(objectName);
+                  if (!responseNames.contains(objectName))
+                     removed.add(objectName);
                }
             }
             
             // perform updates (will add or update as necessary)
+            ArrayList<WorkspaceObjectInfo> updated = 
+                                       new ArrayList<WorkspaceObjectInfo>();
             for (int i = 0; i < response.length(); i++)
             {
                WorkspaceObjectInfo objectInfo = response.get(i);
                if (!objectInfo.isHidden())
-                  objects_.updateObject(objectInfo);
+                  updated.add(withCachedSummary(objectInfo));
             } 
+            objects_.updateObjects(updated, removed);
             
             if (showProgress)
                view_.setProgress(false);
@@ -478,19 +598,27 @@ public class Workspace
    }
    
    
-   public boolean containsObject(RpcObjectList<WorkspaceObjectInfo> objects,
-                                 String name)
+   // use the cached summary for the object if we have one. the cache only
+   // holds summaries received from assign events or get_object_summaries
+   // and is cleared whenever the object (or the whole workspace) changes
+   private WorkspaceObjectInfo withCachedSummary(WorkspaceObjectInfo objectInfo)
    {
-      for (int i=0; i<objects.length(); i++)
+      WorkspaceObjectInfo cached = summaryCache_.get(objectInfo.getName());
+      return cached != null ? cached : objectInfo;
+   }
+   
+   private void clearSummaries()
+   {
+      summaryCache_.clear();
+      
+      // summaries already in flight may describe the old values
+      if (summaryRequest_ != null)
       {
-         if (objects.get(i).getName().equals(name))
-            return true;
+         summaryRequest_.cancel();
+         summaryRequest_ = null;
       }
-      
-      // didn't find it
-      return false;
    }
-
+   
    private final Workspace.Display view_ ;
    private final WorkspaceServerOperations server_;
    private final GlobalDisplay globalDisplay_ ;
@@ -500,4 +628,25 @@ public class Workspace
    private final RemoteFileSystemContext fsContext_;
    private final ConsoleDispatcher consoleDispatcher_;
    private final FileDialogs fileDialogs_;
+   private final LinkedHashMap<String, WorkspaceObjectInfo> pendingChanges_ =
+                           new LinkedHashMap<String, WorkspaceObjectInfo>();
+   private boolean changesScheduled_ = false;
+   
+   // bounded (LRU) cache of value summaries for recently displayed objects
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, WorkspaceObjectInfo> summaryCache_ =
+      new LinkedHashMap<String, WorkspaceObjectInfo>(MAX_CACHED_SUMMARIES,
+                                                     0.75f,
+                                                     true) {
+         @Override
+         protected boolean removeEldestEntry(
+                              Map.Entry<String, WorkspaceObjectInfo> eldest)
+         {
+            return size() > MAX_CACHED_SUMMARIES;
+         }
+      };
+   private ServerRequestCallback<RpcObjectList<WorkspaceObjectInfo>> 
+                                                      summaryRequest_ = null;
+   private HashSet<String> summaryRequestNames_ = new HashSet<String>();
+   private static final int MAX_CACHED_SUMMARIES = 1000;
 }
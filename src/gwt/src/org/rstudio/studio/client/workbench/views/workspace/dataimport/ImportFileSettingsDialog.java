@@ -38,6 +38,8 @@ import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.workspace.model.DataPreviewResult;
 import org.rstudio.studio.client.workbench.views.workspace.model.WorkspaceServerOperations;
 
+import java.util.HashMap;
+
 public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettings>
 {
    interface Resources extends ClientBundle
@@ -152,40 +154,67 @@ public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettings>
          return;
       }
 
+      // the preview for the previous settings is no longer wanted
       updateRequest_.invalidate();
-      final Token invalidationToken = updateRequest_.getInvalidationToken();
+      if (outputRequest_ != null)
+      {
+         outputRequest_.cancel();
+         outputRequest_ = null;
+      }
 
-      progress_.onProgress("Updating preview");
-      server_.getOutputPreview(
-            dataFile_.getPath(),
-            headingYes_.getValue().booleanValue(),
-            separator_.getValue(separator_.getSelectedIndex()),
-            decimal_.getValue(decimal_.getSelectedIndex()),
-            quote_.getValue(quote_.getSelectedIndex()),
-            new ServerRequestCallback<DataPreviewResult>()
-            {
-               @Override
-               public void onResponseReceived(DataPreviewResult response)
-               {
-                  if (invalidationToken.isInvalid())
-                     return;
+      boolean heading = headingYes_.getValue().booleanValue();
+      String separator = separator_.getValue(separator_.getSelectedIndex());
+      String decimal = decimal_.getValue(decimal_.getSelectedIndex());
+      String quote = quote_.getValue(quote_.getSelectedIndex());
+      
+      final String key = previewKey(heading, separator, decimal, quote);
+      DataPreviewResult cached = previewCache_.get(key);
+      if (cached != null)
+      {
+         progress_.onProgress(null);
+         populateOutput(cached);
+         return;
+      }
 
-                  progress_.onProgress(null);
-                  populateOutput(response);
-               }
+      progress_.onProgress("Updating preview");
+      outputRequest_ = new ServerRequestCallback<DataPreviewResult>()
+      {
+         @Override
+         public void onResponseReceived(DataPreviewResult response)
+         {
+            outputRequest_ = null;
+            previewCache_.put(key, response);
 
-               @Override
-               public void onError(ServerError error)
-               {
-                  if (invalidationToken.isInvalid())
-                     return;
+            progress_.onProgress(null);
+            populateOutput(response);
+         }
 
-                  progress_.onProgress(null);
-                  globalDisplay_.showErrorMessage(
-                        "Error",
-                        error.getUserMessage());
-               }
-            });
+         @Override
+         public void onError(ServerError error)
+         {
+            outputRequest_ = null;
+            
+            progress_.onProgress(null);
+            globalDisplay_.showErrorMessage(
+                  "Error",
+                  error.getUserMessage());
+         }
+      };
+      server_.getOutputPreview(
+            dataFile_.getPath(),
+            heading,
+            separator,
+            decimal,
+            quote,
+            outputRequest_);
+   }
+   
+   private String previewKey(boolean heading,
+                             String separator,
+                             String decimal,
+                             String quote)
+   {
+      return heading + "|" + separator + "|" + decimal + "|" + quote;
    }
 
    private void loadData()
@@ -201,6 +230,14 @@ public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettings>
                public void onResponseReceived(DataPreviewResult response)
                {
                   input_.setHTML(toInputHtml(response));
+                  
+                  // the detected settings' preview is worth keeping even if
+                  // the user has already changed them
+                  previewCache_.put(previewKey(response.hasHeader(),
+                                               response.getSeparator(),
+                                               response.getDecimal(),
+                                               response.getQuote()),
+                                    response);
 
                   if (invalidationToken.isInvalid())
                      return;
@@ -355,5 +392,9 @@ public class ImportFileSettingsDialog extends ModalDialog<ImportFileSettings>
    private final GlobalDisplay globalDisplay_;
    private ProgressIndicator progress_;
    private final Invalidation updateRequest_ = new Invalidation();
+   private ServerRequestCallback<DataPreviewResult> outputRequest_;
+   // previews for the settings which have been tried, keyed by previewKey
+   private final HashMap<String, DataPreviewResult> previewCache_ =
+                                    new HashMap<String, DataPreviewResult>();
    private final Styles styles_;
 }
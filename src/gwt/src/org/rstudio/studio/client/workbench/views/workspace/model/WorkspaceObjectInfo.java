@@ -44,4 +44,10 @@ public class WorkspaceObjectInfo extends JavaScriptObject
    public final native String getExtra() /*-{
       return this.extra;
    }-*/;
+   
+   // value summaries (value and extra) are omitted from listings which
+   // are requested without summaries
+   public final native boolean hasSummary() /*-{
+      return typeof(this.value) != 'undefined';
+   }-*/;
 }
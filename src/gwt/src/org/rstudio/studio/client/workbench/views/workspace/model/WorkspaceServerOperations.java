@@ -17,10 +17,19 @@ import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.studio.client.server.ServerRequestCallback;
 import org.rstudio.studio.client.server.Void;
 
+import java.util.ArrayList;
+
 public interface WorkspaceServerOperations
 {
-   // list all objects in the global namespace
+   // list all objects in the global namespace (value summaries can be
+   // omitted and then requested for individual objects)
    void listObjects(
+         boolean summaries,
+         ServerRequestCallback<RpcObjectList<WorkspaceObjectInfo>> requestCallback);
+   
+   // get value summaries for the specified objects
+   void getObjectSummaries(
+         ArrayList<String> objectNames,
          ServerRequestCallback<RpcObjectList<WorkspaceObjectInfo>> requestCallback);
    
    void removeAllObjects(ServerRequestCallback<Void> requestCallback);
@@ -14,8 +14,12 @@ package org.rstudio.studio.client.workbench.views.workspace.table;
 
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.user.client.Element;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.HTMLTable;
 import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.inject.Inject;
@@ -27,9 +31,12 @@ import org.rstudio.studio.client.common.GlobalDisplay;
 import org.rstudio.studio.client.workbench.views.workspace.model.WorkspaceObjectInfo;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 
 public class WorkspaceObjectTable
 {
@@ -38,6 +45,10 @@ public class WorkspaceObjectTable
       void editObject(String objectName);
       void viewObject(String objectName);
       void removeObject(String objectName);
+      
+      // request value summaries for objects that were displayed without
+      // them and have been scrolled into view
+      void requestObjectSummaries(ArrayList<String> objectNames);
    }
    /**
     * The RowManager takes care of figuring out what values should go
@@ -47,7 +58,9 @@ public class WorkspaceObjectTable
     * has one heading row followed by zero or more value rows.
     * 
     * Each element of the sections_ field is a sorted list of names
-    * that appear in that section. 
+    * that appear in that section. sectionIndex_ maps each name to its
+    * section and sectionStarts_ holds the table row of each section's
+    * heading, so that rows can be located without scanning the sections.
     */
    private class RowManager
    {
@@ -58,12 +71,13 @@ public class WorkspaceObjectTable
       
       public void clearTable()
       {
-         while (table_.getRowCount() > 0)
-            table_.removeRow(0) ;
+         table_.removeAllRows() ;
          sections_.clear() ;
+         sectionIndex_.clear() ;
          
          for (int i = 0; i < SECTION_NAMES.length; i++)
          {
+            sectionStarts_[i] = i ;
             table_.setText(i, 0, SECTION_NAMES[i]) ;
             table_.getFlexCellFormatter().setColSpan(i, 0, 2) ;
             table_.getRowFormatter().setStylePrimaryName(
@@ -85,15 +99,19 @@ public class WorkspaceObjectTable
          int sectionId = chooseSection(obj) ;
          
          ArrayList<String> section = sections_.get(sectionId) ;
-         int index = Collections.binarySearch(section, obj.getName()) ;
-         if (index >= 0)
-            return index + getSectionStart(sectionId) ;
+         Integer existingSection = sectionIndex_.get(obj.getName()) ;
+         if (existingSection != null && existingSection == sectionId)
+            return Collections.binarySearch(section, obj.getName()) + 
+                   getSectionStart(sectionId) ;
          
          // Just in case this name already exists but in a different section
-         removeRow(obj.getName()) ;
+         if (existingSection != null)
+            removeRow(obj.getName()) ;
          
-         index = -(index+1) ;
+         int index = -(Collections.binarySearch(section, obj.getName())+1) ;
          section.add(index, obj.getName()) ;
+         sectionIndex_.put(obj.getName(), sectionId) ;
+         adjustSectionStarts(sectionId, 1) ;
          int tableIndex = index + getSectionStart(sectionId) ;
          table_.insertRow(tableIndex) ;
          table_.getRowFormatter().setStylePrimaryName(
@@ -108,18 +126,21 @@ public class WorkspaceObjectTable
       
       public boolean removeRow(String name)
       {
-         for (int i = 0; i < sections_.size(); i++)
-         {
-            int index = Collections.binarySearch(sections_.get(i), name) ;
-            if (index >= 0)
-            {
-               table_.removeRow(getSectionStart(i) + index) ;
-               sections_.get(i).remove(index) ;
-               manageHeadingVisibility(i);
-               return true ;
-            }
-         }
-         return false ;
+         Integer sectionId = sectionIndex_.remove(name) ;
+         if (sectionId == null)
+            return false ;
+         
+         int index = Collections.binarySearch(sections_.get(sectionId), name) ;
+         table_.removeRow(getSectionStart(sectionId) + index) ;
+         sections_.get(sectionId).remove(index) ;
+         adjustSectionStarts(sectionId, -1) ;
+         manageHeadingVisibility(sectionId);
+         return true ;
+      }
+      
+      public int getObjectCount()
+      {
+         return sectionIndex_.size() ;
       }
       
       public ArrayList<String> getObjectNames()
@@ -132,39 +153,34 @@ public class WorkspaceObjectTable
       
       public String getObjectNameForIndex(int index)
       {
-         int pos = 0 ;
-         for (int i = 0; i < sections_.size(); i++)
-         {
-            pos++ ;
-            if (index < pos)
-               return null ;
-            
-            ArrayList<String> section = sections_.get(i) ;
-            if (index - pos < section.size())
-               return section.get(index - pos) ;
-            
-            pos += section.size();
-         }
-         return null ;
+         int sectionId = getSectionForRow(index) ;
+         int pos = index - getSectionStart(sectionId) ;
+         
+         // heading rows and rows beyond the end of the table have no object
+         ArrayList<String> section = sections_.get(sectionId) ;
+         if (pos < 0 || pos >= section.size())
+            return null ;
+         
+         return section.get(pos) ;
       }
 
+      // first value row of the section
       private int getSectionStart(int section)
       {
-         int rows = 0 ;
-         for (int i = 0; i < section; i++)
-         {
-            rows += 1 + sections_.get(i).size() ;
-         }
-         return rows + 1 ;
+         return sectionStarts_[section] + 1 ;
+      }
+      
+      private void adjustSectionStarts(int section, int delta)
+      {
+         for (int i = section + 1; i < sectionStarts_.length; i++)
+            sectionStarts_[i] += delta ;
       }
 
       public int getSectionForRow(int row)
       {
-         int rows = 0 ;
-         for (int i = 0; i < sections_.size(); i++)
+         for (int i = sectionStarts_.length - 1; i > 0; i--)
          {
-            rows += 1 + sections_.get(i).size() ;
-            if (rows > row)
+            if (row >= sectionStarts_[i])
                return i;
          }
          return 0;
@@ -190,10 +206,13 @@ public class WorkspaceObjectTable
 
       private final ArrayList<ArrayList<String>> sections_
                                           = new ArrayList<ArrayList<String>>();
+      private final HashMap<String, Integer> sectionIndex_ 
+                                          = new HashMap<String, Integer>();
       private static final int SEC_DATA = 0 ;
       private static final int SEC_VAL = 1 ;
       private static final int SEC_FUNC = 2 ;
       private final String[] SECTION_NAMES = {"Data", "Values", "Functions"} ;
+      private final int[] sectionStarts_ = new int[SECTION_NAMES.length] ;
    }
    
    
@@ -243,6 +262,12 @@ public class WorkspaceObjectTable
       
       table_.setWidth("100%");
       scrollPanel_ = new ScrollPanel(table_);
+      scrollPanel_.addScrollHandler(new ScrollHandler() {
+         public void onScroll(ScrollEvent event)
+         {
+            summaryTimer_.schedule(SUMMARY_DELAY_MS);
+         }
+      });
       
       rowManager_ = new RowManager() ;
    }
@@ -255,15 +280,66 @@ public class WorkspaceObjectTable
    public void clearObjects()
    {
       editHandlers_.clear();
+      objects_.clear();
+      needsSummary_.clear();
       rowManager_.clearTable() ;
    }
 
    public void removeObject(String name)
    {
       editHandlers_.remove(name);
+      objects_.remove(name);
+      needsSummary_.remove(name);
       rowManager_.removeRow(name) ;
    }
    
+   /**
+    * Applies a batch of removals and updates. Objects are added in name
+    * order so that new rows are appended to the end of their section, and
+    * if most of the table is being removed then it is rebuilt from the
+    * remaining objects rather than removing rows one at a time.
+    */
+   public void updateObjects(List<WorkspaceObjectInfo> updated,
+                             Collection<String> removed)
+   {
+      ArrayList<WorkspaceObjectInfo> sorted = 
+                              new ArrayList<WorkspaceObjectInfo>(updated);
+      
+      int count = rowManager_.getObjectCount();
+      if (removed.size() > REBUILD_THRESHOLD && removed.size() > count / 2)
+      {
+         HashSet<String> names = new HashSet<String>(removed);
+         for (WorkspaceObjectInfo object : updated)
+            names.add(object.getName());
+         for (WorkspaceObjectInfo object : objects_.values())
+         {
+            if (!names.contains(object.getName()))
+               sorted.add(object);
+         }
+         clearObjects();
+      }
+      else
+      {
+         for (String name : removed)
+            removeObject(name);
+      }
+      
+      Collections.sort(sorted, new Comparator<WorkspaceObjectInfo>() {
+         public int compare(WorkspaceObjectInfo o1, WorkspaceObjectInfo o2)
+         {
+            return o1.getName().compareTo(o2.getName());
+         }
+      });
+      for (WorkspaceObjectInfo object : sorted)
+         updateObject(object);
+   }
+   
+   // is the object displayed with a placeholder for its value summary
+   public boolean needsSummary(String name)
+   {
+      return needsSummary_.contains(name);
+   }
+   
    public ArrayList<String> getObjectNames()
    {
       return rowManager_.getObjectNames();
@@ -272,10 +348,20 @@ public class WorkspaceObjectTable
    public void updateObject(WorkspaceObjectInfo object)
    {
       editHandlers_.remove(object.getName());
+      objects_.put(object.getName(), object);
+      needsSummary_.remove(object.getName());
 
       int index = rowManager_.getRowIndex(object) ;
       String type = object.getType() ;
-      if ("function".equals(type))
+      if (!object.hasSummary() && requiresSummary(object))
+      {
+         // display a placeholder until the summary is scrolled into view
+         needsSummary_.add(object.getName());
+         table_.setText(index, 0, object.getName()) ;
+         table_.setText(index, 1, "...") ;
+         summaryTimer_.schedule(SUMMARY_DELAY_MS);
+      }
+      else if ("function".equals(type))
       {
          table_.getFlexCellFormatter().setColSpan(index, 0, 2) ;
          String signature = object.getValue().replaceFirst("^function ", 
@@ -331,11 +417,83 @@ public class WorkspaceObjectTable
    {
       return "data.frame".equals(type) || "matrix".equals(type);
    }
+   
+   // whether the row's display depends on the object's value summary
+   private boolean requiresSummary(WorkspaceObjectInfo object)
+   {
+      String type = object.getType();
+      return "function".equals(type) ||
+             isData(type) ||
+             (object.getLength() == 1 && genericTypes.contains(type));
+   }
+   
+   private void requestVisibleSummaries()
+   {
+      if (needsSummary_.isEmpty() || observer_ == null)
+         return;
+      
+      int top = scrollPanel_.getVerticalScrollPosition();
+      int bottom = top + scrollPanel_.getOffsetHeight();
+      
+      // find the first row which ends below the top of the viewport
+      int low = 0;
+      int high = table_.getRowCount();
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if (getRowBottom(mid) <= top)
+            low = mid + 1;
+         else
+            high = mid;
+      }
+      
+      ArrayList<String> names = new ArrayList<String>();
+      for (int row = low; 
+           row < table_.getRowCount() && names.size() < MAX_SUMMARY_BATCH; 
+           row++)
+      {
+         if (table_.getRowFormatter().getElement(row).getOffsetTop() > bottom)
+            break;
+         
+         String name = rowManager_.getObjectNameForIndex(row);
+         if (name != null && needsSummary_.contains(name))
+            names.add(name);
+      }
+      
+      if (names.size() > 0)
+         observer_.requestObjectSummaries(names);
+   }
+   
+   private int getRowBottom(int row)
+   {
+      // headings of empty sections are hidden and take up no space, so 
+      // use the bottom of the nearest visible row above them
+      for (; row >= 0; row--)
+      {
+         Element rowEl = table_.getRowFormatter().getElement(row);
+         if (rowEl.getOffsetHeight() > 0)
+            return rowEl.getOffsetTop() + rowEl.getOffsetHeight();
+      }
+      return 0;
+   }
 
    private RowManager rowManager_ ;
    private final HandlerManager handlerManager_ = new HandlerManager(null);
    private final HashMap<String, ClickHandler> editHandlers_ =
                                             new HashMap<String, ClickHandler>(); 
+   private final HashMap<String, WorkspaceObjectInfo> objects_ =
+                                    new HashMap<String, WorkspaceObjectInfo>();
+   private static final int REBUILD_THRESHOLD = 50;
+   private final HashSet<String> needsSummary_ = new HashSet<String>();
+   private final Timer summaryTimer_ = new Timer() {
+      @Override
+      public void run()
+      {
+         requestVisibleSummaries();
+      }
+   };
+   private static final int SUMMARY_DELAY_MS = 100;
+   private static final int MAX_SUMMARY_BATCH = 100;
    private final InlineEditorFactory inlineEditorFactory_;
    private final GlobalDisplay globalDisplay_ ;
    private final FlexTableEx table_;
@@ -0,0 +1,357 @@
+/*
+ * CompactEmitterTest.java
+ *
+ * Copyright (C) 2009-11 by RStudio, Inc.
+ *
+ * This program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.vcs.common.diff;
+
+import junit.framework.TestCase;
+import org.rstudio.studio.client.workbench.views.vcs.common.diff.Line.Type;
+
+import java.io.*;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+public class CompactEmitterTest extends TestCase
+{
+   private String readFileResource(String name) throws Exception
+   {
+      FileInputStream fileInputStream = null;
+      try
+      {
+         URL url = getClass().getResource(name);
+         fileInputStream = new FileInputStream(url.getFile());
+         StringWriter sw = new StringWriter();
+         for (int c; -1 != (c = fileInputStream.read()); )
+         {
+            sw.append((char) c);
+         }
+         return sw.toString();
+      }
+      finally
+      {
+         if (fileInputStream != null)
+            fileInputStream.close();
+      }
+   }
+
+   public void testNewFile() throws Exception
+   {
+      testSelections(readFileResource("diff2.txt"));
+   }
+
+   public void testChunks() throws Exception
+   {
+      testSelections(DIFF);
+   }
+
+   public void testCombinedDiff() throws Exception
+   {
+      UnifiedParser parser =
+                  new UnifiedParser(readFileResource("diff1.txt"), true);
+      parser.nextFilePair();
+      ArrayList<DiffChunk> chunks = new ArrayList<DiffChunk>();
+      chunks.add(parser.nextChunk());
+      CompactEmitter emitter = new CompactEmitter("describe.c", false);
+      emitter.addChunks(chunks);
+      emitter.addDiffs(chunks.get(0).getLines());
+      try
+      {
+         emitter.createPatch(true);
+         fail("Combined diffs can't be emitted");
+      }
+      catch (UnsupportedOperationException e)
+      {
+      }
+   }
+
+   public void testMinimalHunks() throws Exception
+   {
+      ArrayList<DiffChunk> chunks = parse(DIFF, true);
+      ArrayList<Line> lines = new ArrayList<Line>();
+      lines.add(findLine(chunks, Type.Insertion, "x <- 2"));
+
+      CompactEmitter emitter = new CompactEmitter("file.R", false);
+      emitter.addChunks(chunks);
+      emitter.addDiffs(lines);
+      assertEquals("--- a/file.R\n" +
+                   "+++ b/file.R\n" +
+                   "@@ -3,6 +3,7 @@\n" +
+                   " line 3\n" +
+                   " line 4\n" +
+                   " line 5\n" +
+                   "+x <- 2\n" +
+                   " line 6\n" +
+                   " line 7\n" +
+                   " line 8\n",
+                   emitter.createPatch(true));
+
+      // nothing selected means no patch
+      emitter = new CompactEmitter("file.R", false);
+      emitter.addChunks(chunks);
+      emitter.addDiffs(new ArrayList<Line>());
+      assertEquals("", emitter.createPatch(true));
+   }
+
+   public void testBatches() throws Exception
+   {
+      for (boolean reverse : new boolean[] {false, true})
+      {
+         ArrayList<DiffChunk> chunks = parse(DIFF, true);
+         ArrayList<Line> changes = getChanges(chunks);
+
+         ArrayList<Line> first = new ArrayList<Line>();
+         ArrayList<Line> second = new ArrayList<Line>();
+         for (int i = 0; i < changes.size(); i++)
+            (i % 3 == 0 ? first : second).add(changes.get(i));
+
+         ArrayList<String> source = getSource(chunks, reverse);
+
+         // apply the first batch, then the second on top of it
+         CompactEmitter emitter = new CompactEmitter("file.R", reverse);
+         emitter.addChunks(chunks);
+         emitter.addDiffs(first);
+         ArrayList<String> result = applyPatch(source,
+                                               emitter.createPatch(true));
+
+         emitter = new CompactEmitter("file.R", reverse);
+         emitter.addChunks(chunks);
+         emitter.addApplied(first);
+         emitter.addDiffs(second);
+         result = applyPatch(result, emitter.createPatch(true));
+
+         assertEquals(getTarget(chunks, changes, reverse), result);
+      }
+   }
+
+   // Applies patches for several selections of lines (in both directions)
+   // and checks that the results match the selected changes
+   private void testSelections(String diff)
+   {
+      for (boolean compact : new boolean[] {false, true})
+      {
+         for (boolean reverse : new boolean[] {false, true})
+         {
+            ArrayList<DiffChunk> chunks = parse(diff, compact);
+            ArrayList<Line> changes = getChanges(chunks);
+            ArrayList<String> source = getSource(chunks, reverse);
+
+            for (int stride = 1; stride <= 4; stride++)
+            {
+               for (int offset = 0; offset < stride; offset++)
+               {
+                  ArrayList<Line> selected = new ArrayList<Line>();
+                  for (int i = offset; i < changes.size(); i += stride)
+                     selected.add(changes.get(i));
+
+                  CompactEmitter emitter = new CompactEmitter("file.R",
+                                                              reverse);
+                  emitter.addChunks(chunks);
+                  emitter.addDiffs(selected);
+                  String patch = emitter.createPatch(true);
+
+                  assertEquals(getTarget(chunks, selected, reverse),
+                               applyPatch(source, patch));
+               }
+            }
+         }
+      }
+   }
+
+   private ArrayList<DiffChunk> parse(String diff, boolean compact)
+   {
+      ArrayList<DiffChunk> chunks = new ArrayList<DiffChunk>();
+      UnifiedParser parser = new UnifiedParser(diff, compact);
+      DiffChunk chunk;
+      while (null != (chunk = parser.nextChunk()))
+         chunks.add(chunk);
+      return chunks;
+   }
+
+   private ArrayList<Line> getChanges(ArrayList<DiffChunk> chunks)
+   {
+      ArrayList<Line> changes = new ArrayList<Line>();
+      for (DiffChunk chunk : chunks)
+         for (Line line : chunk.getLines())
+            if (line.getType() == Type.Insertion ||
+                line.getType() == Type.Deletion)
+               changes.add(line);
+      return changes;
+   }
+
+   private Line findLine(ArrayList<DiffChunk> chunks, Type type, String text)
+   {
+      for (DiffChunk chunk : chunks)
+         for (Line line : chunk.getLines())
+            if (line.getType() == type && line.getText().equals(text))
+               return line;
+      fail("Line not found: " + text);
+      return null;
+   }
+
+   // The file the patch applies to. Lines between the chunks (which the diff
+   // doesn't show) are filled in with placeholders.
+   private ArrayList<String> getSource(ArrayList<DiffChunk> chunks,
+                                       boolean reverse)
+   {
+      return getTarget(chunks, new ArrayList<Line>(), reverse);
+   }
+
+   // The file with the selected changes applied
+   private ArrayList<String> getTarget(ArrayList<DiffChunk> chunks,
+                                       ArrayList<Line> selected,
+                                       boolean reverse)
+   {
+      HashSet<Integer> selectedIndexes = new HashSet<Integer>();
+      for (Line line : selected)
+         selectedIndexes.add(line.getDiffIndex());
+
+      Type removal = reverse ? Type.Insertion : Type.Deletion;
+      Type addition = reverse ? Type.Deletion : Type.Insertion;
+
+      ArrayList<String> result = new ArrayList<String>();
+      int sourceLine = 0;
+      for (DiffChunk chunk : chunks)
+      {
+         Range range = chunk.getRanges()[reverse ? 1 : 0];
+         int start = range.rowCount == 0 ? range.startRow : range.startRow - 1;
+         for (; sourceLine < start; sourceLine++)
+            result.add("gap " + sourceLine);
+
+         for (Line line : chunk.getLines())
+         {
+            boolean isSelected =
+                  selectedIndexes.contains(line.getDiffIndex());
+            if (line.getType() == Type.Same)
+               result.add(line.getText());
+            else if (line.getType() == removal && !isSelected)
+               result.add(line.getText());
+            else if (line.getType() == addition && isSelected)
+               result.add(line.getText());
+
+            if (line.getType() == Type.Same || line.getType() == removal)
+               sourceLine++;
+         }
+      }
+      return result;
+   }
+
+   // Strictly applies a patch: the hunks' line numbers and context must
+   // match exactly
+   private ArrayList<String> applyPatch(ArrayList<String> source, String patch)
+   {
+      ArrayList<String> result = new ArrayList<String>();
+      if (patch.length() == 0)
+      {
+         result.addAll(source);
+         return result;
+      }
+
+      String[] lines = patch.split("\n");
+      assertTrue(lines[0].startsWith("--- "));
+      assertTrue(lines[1].startsWith("+++ "));
+
+      int pos = 0;
+      int i = 2;
+      while (i < lines.length)
+      {
+         String header = lines[i++];
+         assertTrue(header, header.startsWith("@@ -") &&
+                            header.endsWith(" @@"));
+         String[] ranges = header.substring(4, header.length() - 3)
+                                 .split(" \\+");
+         int oldStart = Integer.parseInt(ranges[0].split(",")[0]);
+         int oldCount = Integer.parseInt(ranges[0].split(",")[1]);
+         int newStart = Integer.parseInt(ranges[1].split(",")[0]);
+         int newCount = Integer.parseInt(ranges[1].split(",")[1]);
+
+         int start = oldCount == 0 ? oldStart : oldStart - 1;
+         assertTrue(header, start >= pos);
+         while (pos < start)
+            result.add(source.get(pos++));
+         assertEquals(header, newCount == 0 ? newStart : newStart - 1,
+                      result.size());
+
+         int oldSeen = 0;
+         int newSeen = 0;
+         for (; i < lines.length && !lines[i].startsWith("@@"); i++)
+         {
+            char op = lines[i].charAt(0);
+            String text = lines[i].substring(1);
+            if (op == ' ' || op == '-')
+            {
+               assertEquals(header, source.get(pos++), text);
+               oldSeen++;
+            }
+            if (op == ' ' || op == '+')
+            {
+               result.add(text);
+               newSeen++;
+            }
+         }
+         assertEquals(header, oldCount, oldSeen);
+         assertEquals(header, newCount, newSeen);
+      }
+
+      while (pos < source.size())
+         result.add(source.get(pos++));
+      return result;
+   }
+
+   private static final String DIFF =
+         "@@ -1,24 +1,25 @@\n" +
+         " line 1\n" +
+         "-line 2\n" +
+         "+x <- 1\n" +
+         " line 3\n" +
+         " line 4\n" +
+         " line 5\n" +
+         "+x <- 2\n" +
+         " line 6\n" +
+         " line 7\n" +
+         " line 8\n" +
+         " line 9\n" +
+         " line 10\n" +
+         " line 11\n" +
+         " line 12\n" +
+         " line 13\n" +
+         "-line 14\n" +
+         "-line 15\n" +
+         " line 16\n" +
+         " line 17\n" +
+         " line 18\n" +
+         " line 19\n" +
+         "+x <- 3\n" +
+         "+x <- 4\n" +
+         " line 20\n" +
+         " line 21\n" +
+         " line 22\n" +
+         " line 23\n" +
+         " line 24\n" +
+         "@@ -40,7 +41,6 @@ f <- function()\n" +
+         " line 40\n" +
+         " line 41\n" +
+         " line 42\n" +
+         "-line 43\n" +
+         " line 44\n" +
+         " line 45\n" +
+         " line 46\n" +
+         "@@ -60,0 +61,2 @@\n" +
+         "+x <- 5\n" +
+         "+x <- 6\n" +
+         "@@ -70,4 +72,4 @@\n" +
+         " line 70\n" +
+         " line 71\n" +
+         "-line 72\n" +
+         "-line 73\n" +
+         "+x <- 7\n" +
+         "+x <- 8\n";
+}
@@ -14,8 +14,12 @@ package org.rstudio.studio.client.workbench.views.vcs.common.diff;
 
 import junit.framework.TestCase;
 
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
 import java.io.*;
 import java.net.URL;
+import java.util.ArrayList;
 
 public class UnifiedParserTest extends TestCase
 {
@@ -60,11 +64,124 @@ public class UnifiedParserTest extends TestCase
       testFile("diff2");
    }
 
+   public void testNextChunkCompact() throws Exception
+   {
+      // (diff1 starts with a file header, diff2 is just chunks)
+      String data = readFileResource("diff1.txt");
+      String expected = dumpChunks(data, false, true);
+      assertTrue(expected.length() > 0);
+      assertEquals(expected, dumpChunks(data, true, true));
+
+      data = readFileResource("diff2.txt");
+      expected = dumpChunks(data, false, false);
+      assertTrue(expected.length() > 0);
+      assertEquals(expected, dumpChunks(data, true, false));
+   }
+
+   // unified_parser_worker.js is a separate implementation of the compact
+   // parse (for use in a web worker), so check it gives the same results
+   public void testWorkerParser() throws Exception
+   {
+      // (newer JDKs don't include a JavaScript engine)
+      ScriptEngine engine =
+                  new ScriptEngineManager().getEngineByName("JavaScript");
+      if (engine == null)
+      {
+         System.err.println("Skipping testWorkerParser: " +
+                            "no JavaScript engine available");
+         return;
+      }
+      engine.eval(readFileResource("unified_parser_worker.js"));
+      engine.eval(WORKER_DUMP_SCRIPT);
+
+      // (diff2 has no file header, so it has no first file pair to parse)
+      ArrayList<String> diffs = new ArrayList<String>();
+      diffs.add(readFileResource("diff1.txt"));
+      diffs.add(createLargeDiff(1, 50));
+      diffs.add(createLargeDiff(2, 30));
+      for (String diff : diffs)
+      {
+         String expected = dumpFirstFilePair(diff);
+         assertTrue(expected.length() > 0);
+         Object workerDump = ((Invocable) engine).invokeFunction(
+                                                   "dumpWorkerParse", diff);
+         assertEquals(expected, workerDump.toString());
+      }
+   }
+
+   public void testCompactEmitter() throws Exception
+   {
+      String diff = createLargeDiff(3, 20);
+      assertEquals(emitPatches(diff, false), emitPatches(diff, true));
+   }
+
+   public void testCompactLargeDiff() throws Exception
+   {
+      String diff = createLargeDiff(50, 400);
+      assertEquals(countLines(diff, false), countLines(diff, true));
+      assertEquals(parseAll(diff, false), parseAll(diff, true));
+   }
+
+   // Benchmark (not run as part of the tests): reports the time taken for
+   // full and compact parses of large multi-file diffs
+   public static void main(String[] args)
+   {
+      UnifiedParserTest test = new UnifiedParserTest();
+      int[][] sizes = new int[][] {{10, 100}, {50, 400}, {200, 400}};
+      for (int[] size : sizes)
+      {
+         String diff = test.createLargeDiff(size[0], size[1]);
+
+         // warm up
+         for (int i = 0; i < 3; i++)
+         {
+            test.countLines(diff, false);
+            test.countLines(diff, true);
+         }
+
+         System.out.println(size[0] + " files x " + size[1] + " chunks (" +
+                            diff.length() / 1024 + "KB): full " +
+                            test.timeParse(diff, false) + "ms, compact " +
+                            test.timeParse(diff, true) + "ms");
+      }
+   }
+
+   // Average time (in ms) to parse every chunk of every file of the diff
+   private long timeParse(String diff, boolean compact)
+   {
+      final int iterations = 10;
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++)
+         countLines(diff, compact);
+      return (System.nanoTime() - start) / 1000000 / iterations;
+   }
+
+   private int countLines(String diff, boolean compact)
+   {
+      int count = 0;
+      UnifiedParser parser = new UnifiedParser(diff, compact);
+      while (parser.nextFilePair() != null)
+      {
+         DiffChunk chunk;
+         while (null != (chunk = parser.nextChunk()))
+            count += chunk.getLineCount();
+      }
+      return count;
+   }
+
    private void testFile(String testName) throws Exception
+   {
+      assertEquals(readFileResource(testName + ".out.txt"),
+                   dumpChunks(readFileResource(testName + ".txt"), false, false));
+   }
+
+   private String dumpChunks(String data, boolean compact, boolean filePair)
    {
       StringWriter stringWriter = new StringWriter();
       PrintWriter output = new PrintWriter(stringWriter);
-      UnifiedParser parser = new UnifiedParser(readFileResource(testName + ".txt"));
+      UnifiedParser parser = new UnifiedParser(data, compact);
+      if (filePair)
+         parser.nextFilePair();
       DiffChunk chunk;
       while (null != (chunk = parser.nextChunk()))
       {
@@ -95,6 +212,174 @@ public class UnifiedParserTest extends TestCase
             output.println(line.getText());
          }
       }
-      assertEquals(readFileResource(testName + ".out.txt"), stringWriter.toString());
+      return stringWriter.toString();
+   }
+
+   // Compact parse of the first file of the diff, dumped in the same format
+   // as WORKER_DUMP_SCRIPT dumps the worker's output
+   private String dumpFirstFilePair(String diff)
+   {
+      StringBuilder sb = new StringBuilder();
+      UnifiedParser parser = new UnifiedParser(diff, true);
+      parser.nextFilePair();
+      DiffChunk chunk;
+      while (null != (chunk = parser.nextChunk()))
+      {
+         Range[] ranges = chunk.getRanges();
+         sb.append("chunk ").append(chunk.getDiffIndex());
+         for (Range range : ranges)
+            sb.append(' ').append(range.startRow).append(',')
+              .append(range.rowCount);
+         sb.append(' ').append(chunk.getLineText()).append('\n');
+
+         CompactLines lines = chunk.getCompactLines();
+         for (int i = 0; i < lines.size(); i++)
+         {
+            sb.append(toDirective(lines.getType(i))).append(' ')
+              .append(lines.getDiffIndex(i));
+            for (int k = 0; k < ranges.length; k++)
+            {
+               sb.append(' ').append(lines.getLineNumber(i, k));
+               if (lines.appliesTo(i, k))
+                  sb.append('*');
+            }
+            sb.append(' ').append(lines.getText(i)).append('\n');
+         }
+      }
+      return sb.toString();
+   }
+
+   private static char toDirective(Line.Type type)
+   {
+      switch (type)
+      {
+         case Insertion:
+            return '+';
+         case Deletion:
+            return '-';
+         case Comment:
+            return '\\';
+         default:
+            return ' ';
+      }
+   }
+
+   // Parse every file of the diff, returning a dump of all its lines
+   private String parseAll(String diff, boolean compact)
+   {
+      StringBuilder sb = new StringBuilder();
+      UnifiedParser parser = new UnifiedParser(diff, compact);
+      while (parser.nextFilePair() != null)
+      {
+         DiffChunk chunk;
+         while (null != (chunk = parser.nextChunk()))
+         {
+            sb.append(UnifiedEmitter.createChunkString(chunk)).append('\n');
+            for (int i = 0; i < chunk.getLineCount(); i++)
+            {
+               Line line = chunk.getLine(i);
+               sb.append(line.getType().getValue())
+                 .append(line.getOldLine()).append(',')
+                 .append(line.getNewLine()).append(',')
+                 .append(line.getDiffIndex()).append(' ')
+                 .append(line.getText()).append('\n');
+            }
+         }
+      }
+      return sb.toString();
+   }
+
+   // Emit a patch for every other changed line of each chunk
+   private String emitPatches(String diff, boolean compact)
+   {
+      StringBuilder sb = new StringBuilder();
+      UnifiedParser parser = new UnifiedParser(diff, compact);
+      while (parser.nextFilePair() != null)
+      {
+         DiffChunk chunk;
+         while (null != (chunk = parser.nextChunk()))
+         {
+            ArrayList<Line> lines = new ArrayList<Line>();
+            int changed = 0;
+            for (Line line : chunk.getLines())
+            {
+               if (line.getType() != Line.Type.Same && changed++ % 2 == 0)
+                  lines.add(line);
+            }
+
+            UnifiedEmitter emitter = new UnifiedEmitter("file.txt");
+            emitter.addContext(chunk);
+            emitter.addDiffs(lines);
+            sb.append(emitter.createPatch(true));
+         }
+      }
+      return sb.toString();
+   }
+
+   private static final String WORKER_DUMP_SCRIPT =
+      // (older script engines don't have typed arrays)
+      "if (typeof Int32Array == 'undefined') {\n" +
+      "   Int32Array = function(a) { return a; };\n" +
+      "   Uint8Array = function(a) { return a; };\n" +
+      "}\n" +
+      "function dumpWorkerParse(data) {\n" +
+      "   data = String(data);\n" +
+      "   var out = compute({ data: data });\n" +
+      "   var s = '';\n" +
+      "   for (var i = 0; i < out.chunks.length; i++) {\n" +
+      "      var chunk = out.chunks[i];\n" +
+      "      var width = chunk.ranges.length / 2;\n" +
+      "      s += 'chunk ' + chunk.diffIndex;\n" +
+      "      for (var k = 0; k < width; k++)\n" +
+      "         s += ' ' + chunk.ranges[k*2] + ',' + chunk.ranges[k*2+1];\n" +
+      "      s += ' ' + chunk.extraInfo + '\\n';\n" +
+      "      for (var j = 0; j < chunk.lineCount; j++) {\n" +
+      "         var line = chunk.lineOffset + j;\n" +
+      "         s += String.fromCharCode(out.types[line]) + ' ' +\n" +
+      "              (chunk.firstDiffIndex + j);\n" +
+      "         for (k = 0; k < width; k++) {\n" +
+      "            var value = chunk.valueOffset + j * width + k;\n" +
+      "            s += ' ' + out.positions[value] +\n" +
+      "                 (out.appliesTo[value] ? '*' : '');\n" +
+      "         }\n" +
+      "         s += ' ' + data.substring(out.textStarts[line],\n" +
+      "                                   out.textEnds[line]) + '\\n';\n" +
+      "      }\n" +
+      "   }\n" +
+      "   return s;\n" +
+      "}\n";
+
+   private String createLargeDiff(int files, int chunksPerFile)
+   {
+      StringBuilder sb = new StringBuilder();
+      for (int f = 0; f < files; f++)
+      {
+         sb.append("diff --git a/file").append(f).append(".R b/file")
+           .append(f).append(".R\n");
+         sb.append("index 1234567..89abcde 100644\n");
+         sb.append("--- a/file").append(f).append(".R\n");
+         sb.append("+++ b/file").append(f).append(".R\n");
+
+         int oldLine = 1;
+         int newLine = 1;
+         for (int c = 0; c < chunksPerFile; c++)
+         {
+            // 3 lines of context, 2 deletions, 3 insertions, 3 of context
+            sb.append("@@ -").append(oldLine).append(",8 +")
+              .append(newLine).append(",9 @@ f").append(c).append("()\n");
+            for (int i = 0; i < 3; i++)
+               sb.append("    x <- x + ").append(i).append('\n');
+            for (int i = 0; i < 2; i++)
+               sb.append("-   y <- old(").append(c).append(")\n");
+            for (int i = 0; i < 3; i++)
+               sb.append("+   y <- new(").append(c).append(", ")
+                 .append(i).append(")\n");
+            for (int i = 0; i < 3; i++)
+               sb.append("    z <- z * ").append(i).append('\n');
+            oldLine += 20;
+            newLine += 21;
+         }
+      }
+      return sb.toString();
    }
 }